@@ -0,0 +1,228 @@
+package com.github.nalamodikk.common.block.blockentity.conduit.manager.network;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.block.blockentity.conduit.ArcaneConduitBlockEntity;
+import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.CacheManager;
+import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.IOManager;
+import com.github.nalamodikk.common.capability.ManaStorage;
+import com.github.nalamodikk.gametest.GameTestBenchmarks;
+import com.github.nalamodikk.register.ModBlocks;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.util.RandomSource;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 🧪 導管目標選擇測試
+ *
+ * 以位元遮罩選擇目標的 {@link BalancingStrategy} 必須與舊版（List + stream.max）選出相同方向：
+ * - 隨機產生大量目標組合（含同分、滿載、無快取的方向），逐一比對選擇結果
+ * - 目標快取改為 EnumMap 後，六個方向各自獨立保存
+ * - 記錄舊路徑與新路徑的每次呼叫耗時（只記錄，不對速度下斷言）
+ */
+@GameTestHolder(KoniavacraftMod.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class ConduitTargetSelectionGameTests {
+
+    private static final String TEMPLATE = "empty3x3x3";
+    private static final BlockPos CONDUIT_POS = new BlockPos(1, 1, 1);
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private static final int SCENARIOS = 2000;
+    private static final int BENCHMARK_ITERATIONS = 200_000;
+
+    @GameTest(template = TEMPLATE)
+    public static void selectionMatchesLegacyStream(GameTestHelper helper) {
+        Fixture fixture = new Fixture(placeConduit(helper));
+        RandomSource random = RandomSource.create(7L);
+
+        for (int scenario = 0; scenario < SCENARIOS; scenario++) {
+            int mask = fixture.randomize(random);
+            List<Direction> targets = legacyTargetList(mask);
+
+            Direction expected = legacySelectBestTarget(targets, fixture.io, fixture.network);
+            Direction actual = BalancingStrategy.selectBestTarget(mask, fixture.conduit, fixture.io, fixture.network, scenario);
+            helper.assertTrue(Objects.equals(expected, actual),
+                    "情境 " + scenario + " 選擇不同: 舊版 " + expected + "，新版 " + actual);
+
+            helper.assertValueEqual(BalancingStrategy.areAllTargetsFull(mask, fixture.network),
+                    legacyAreAllTargetsFull(targets, fixture.network), "情境 " + scenario + " 全滿判斷");
+            helper.assertValueEqual(BalancingStrategy.getHighestPriority(mask, fixture.io),
+                    legacyHighestPriority(targets, fixture.io), "情境 " + scenario + " 最高優先級");
+        }
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE)
+    public static void targetCacheKeepsEveryDirection(GameTestHelper helper) {
+        Fixture fixture = new Fixture(placeConduit(helper));
+
+        // 每個方向給不同的剩餘空間，確認各自獨立保存
+        for (Direction dir : DIRECTIONS) {
+            fixture.setTarget(dir, 1000, dir.ordinal() * 100, false, 0);
+        }
+        for (Direction dir : DIRECTIONS) {
+            CacheManager.TargetInfo target = fixture.network.getTargetInfo(dir);
+            helper.assertTrue(target != null, dir + " 的目標快取遺失");
+            helper.assertValueEqual(target.availableSpace, 1000 - dir.ordinal() * 100, dir + " 的剩餘空間");
+        }
+
+        fixture.cache.clearTargetCache(Direction.UP);
+        helper.assertTrue(fixture.network.getTargetInfo(Direction.UP) == null, "清除後 UP 不應有快取");
+        for (Direction dir : DIRECTIONS) {
+            if (dir == Direction.UP) continue;
+            helper.assertTrue(fixture.network.getTargetInfo(dir) != null, "清除 UP 不應影響 " + dir);
+        }
+
+        // 只有 SOUTH 優先級最高 → 一定選 SOUTH
+        fixture.io.setPriority(Direction.SOUTH, 5);
+        int mask = maskOf(DIRECTIONS);
+        helper.assertValueEqual(BalancingStrategy.selectBestTarget(mask, fixture.conduit, fixture.io, fixture.network, 0),
+                Direction.SOUTH, "最高優先級的方向");
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE, timeoutTicks = 400)
+    public static void selectionTiming(GameTestHelper helper) {
+        Fixture fixture = new Fixture(placeConduit(helper));
+        for (Direction dir : DIRECTIONS) {
+            fixture.setTarget(dir, 10_000, dir.ordinal() * 500, dir.ordinal() % 2 == 0, dir.ordinal() % 3);
+        }
+        int mask = maskOf(DIRECTIONS);
+
+        Direction expected = legacySelectBestTarget(legacyTargetList(mask), fixture.io, fixture.network);
+        helper.assertValueEqual(BalancingStrategy.selectBestTarget(mask, fixture.conduit, fixture.io, fixture.network, 0),
+                expected, "計時情境的選擇結果");
+
+        // 舊路徑：每次建立目標列表再 stream.max；新路徑：直接掃描遮罩
+        GameTestBenchmarks.compare("conduit target selection", BENCHMARK_ITERATIONS,
+                () -> legacySelectBestTarget(legacyTargetList(mask), fixture.io, fixture.network).ordinal(),
+                () -> BalancingStrategy.selectBestTarget(mask, fixture.conduit, fixture.io, fixture.network, 0).ordinal());
+        helper.succeed();
+    }
+
+    // === 🔧 測試環境 ===
+
+    /**
+     * 獨立的 IO / 快取 / 網路管理器，目標由測試直接寫入快取（不掃描鄰居）
+     */
+    private static final class Fixture {
+        final ArcaneConduitBlockEntity conduit;
+        final IOManager io = new IOManager();
+        final CacheManager cache;
+        final NetworkManager network;
+
+        Fixture(ArcaneConduitBlockEntity conduit) {
+            this.conduit = conduit;
+            this.cache = new CacheManager(conduit);
+            this.network = new NetworkManager(conduit, cache, io, 0);
+        }
+
+        void setTarget(Direction dir, int capacity, int stored, boolean isConduit, int priority) {
+            ManaStorage storage = new ManaStorage(capacity);
+            storage.setMana(stored);
+            cache.setCachedTarget(dir, storage, isConduit);
+            io.setPriority(dir, priority);
+        }
+
+        /**
+         * 隨機設定六個方向，回傳這一輪的目標遮罩；數值取自小集合，刻意製造同分
+         */
+        int randomize(RandomSource random) {
+            int mask = 0;
+            for (Direction dir : DIRECTIONS) {
+                if (random.nextInt(6) == 0) {
+                    cache.clearTargetCache(dir); // 遮罩內但沒有快取的方向
+                    io.setPriority(dir, random.nextInt(3));
+                } else {
+                    int capacity = random.nextBoolean() ? 1000 : 4000;
+                    int stored = switch (random.nextInt(3)) {
+                        case 0 -> 0;
+                        case 1 -> capacity / 2;
+                        default -> capacity; // 滿載：canReceive = false
+                    };
+                    setTarget(dir, capacity, stored, random.nextBoolean(), random.nextInt(3));
+                }
+                if (random.nextInt(6) != 0) {
+                    mask |= 1 << dir.ordinal();
+                }
+            }
+            return mask;
+        }
+    }
+
+    private static ArcaneConduitBlockEntity placeConduit(GameTestHelper helper) {
+        helper.setBlock(CONDUIT_POS, ModBlocks.BASIC_ARCANE_CONDUIT.get());
+        return helper.getBlockEntity(CONDUIT_POS);
+    }
+
+    private static int maskOf(Direction[] directions) {
+        int mask = 0;
+        for (Direction dir : directions) {
+            mask |= 1 << dir.ordinal();
+        }
+        return mask;
+    }
+
+    // === 📜 舊版實作（List + stream），作為比對基準 ===
+
+    private static List<Direction> legacyTargetList(int mask) {
+        List<Direction> targets = new ArrayList<>();
+        for (Direction dir : Direction.values()) {
+            if (NetworkManager.hasTarget(mask, dir)) {
+                targets.add(dir);
+            }
+        }
+        return targets;
+    }
+
+    private static Direction legacySelectBestTarget(List<Direction> validTargets, IOManager ioManager, NetworkManager networkManager) {
+        if (validTargets.isEmpty()) return null;
+
+        return validTargets.stream()
+                .max(Comparator.comparingInt(dir -> legacyScore(dir, ioManager, networkManager)))
+                .orElse(null);
+    }
+
+    private static int legacyScore(Direction dir, IOManager ioManager, NetworkManager networkManager) {
+        CacheManager.TargetInfo target = networkManager.getTargetInfo(dir);
+        if (target == null || !target.canReceive) {
+            return Integer.MIN_VALUE;
+        }
+
+        int score = ioManager.getPriority(dir) * 1000;
+        score += target.availableSpace;
+        if (target.isConduit) {
+            score -= target.storedMana * 2;
+        }
+        if (target.availableSpace <= 0) {
+            score -= 1000000;
+        }
+        return score;
+    }
+
+    private static boolean legacyAreAllTargetsFull(List<Direction> validTargets, NetworkManager networkManager) {
+        for (Direction dir : validTargets) {
+            CacheManager.TargetInfo target = networkManager.getTargetInfo(dir);
+            if (target != null && target.availableSpace > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int legacyHighestPriority(List<Direction> validTargets, IOManager ioManager) {
+        return validTargets.stream()
+                .mapToInt(ioManager::getPriority)
+                .max()
+                .orElse(0);
+    }
+}
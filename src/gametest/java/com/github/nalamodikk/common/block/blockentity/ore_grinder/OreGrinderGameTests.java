@@ -0,0 +1,199 @@
+package com.github.nalamodikk.common.block.blockentity.ore_grinder;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.capability.ManaStorage;
+import com.github.nalamodikk.common.coreapi.recipe.ProcessingRecipe;
+import com.github.nalamodikk.common.coreapi.recipe.ProcessingRecipeIndex;
+import com.github.nalamodikk.register.ModBlocks;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+import net.neoforged.neoforge.items.ItemStackHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🧪 礦石粉碎機產出測試
+ *
+ * 使用資料生成的粉碎機配方（grinder/stone_grind、grinder/diamond_grind）：
+ * - 每批只產出一次主產物、消耗一份輸入、扣一批的魔力
+ * - 副產物以固定種子擲骰，數量與配方機率重播的結果完全一致
+ * - 輸出槽塞滿時停在最大進度，不再消耗魔力與輸入
+ * - 配方本身的輸出堆疊不會被機器改動
+ */
+@GameTestHolder(KoniavacraftMod.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class OreGrinderGameTests {
+
+    private static final String TEMPLATE = "empty3x3x3";
+    private static final BlockPos GRINDER_POS = new BlockPos(1, 1, 1);
+
+    private static final int INPUT_SLOT = 0;
+    private static final int MAIN_OUTPUT_SLOT = 2;
+    private static final int FIRST_BYPRODUCT_SLOT = 3;
+    private static final int LAST_BYPRODUCT_SLOT = 5;
+
+    @GameTest(template = TEMPLATE, timeoutTicks = 900)
+    public static void grindsEachBatchOnceAndConsumesInput(GameTestHelper helper) {
+        int batches = 3;
+        ProcessingRecipe recipe = findGrinderRecipe(helper, new ItemStack(Items.STONE));
+        List<ItemStack> recipeOutputs = snapshotOutputs(recipe);
+        OreGrinderBlockEntity grinder = placeGrinder(helper);
+        ItemStackHandler items = grinder.getItemHandler();
+        ManaStorage mana = grinder.getManaStorage();
+
+        mana.setMana(mana.getMaxManaStored());
+        int startMana = mana.getManaStored();
+        int manaPerBatch = recipe.getManaCost() * grinder.getMaxProgress();
+        items.setStackInSlot(INPUT_SLOT, new ItemStack(Items.STONE, batches));
+
+        helper.succeedWhen(() -> {
+            ItemStack output = items.getStackInSlot(MAIN_OUTPUT_SLOT);
+            helper.assertTrue(output.is(recipe.getMainOutput().getItem()), "主產物尚未產出");
+            helper.assertValueEqual(output.getCount(), batches * recipe.getMainOutput().getCount(), "主產物數量");
+            helper.assertTrue(items.getStackInSlot(INPUT_SLOT).isEmpty(), "輸入應已全部消耗");
+            helper.assertValueEqual(mana.getManaStored(), startMana - batches * manaPerBatch, "剩餘魔力");
+            assertRecipeUntouched(helper, recipe, recipeOutputs);
+        });
+    }
+
+    @GameTest(template = TEMPLATE, timeoutTicks = 900)
+    public static void byproductsFollowRecipeYield(GameTestHelper helper) {
+        int batches = 3;
+        ProcessingRecipe recipe = findGrinderRecipe(helper, new ItemStack(Items.DIAMOND));
+        List<ProcessingRecipe.ChanceOutput> chanceOutputs = recipe.getChanceOutputs();
+        helper.assertFalse(chanceOutputs.isEmpty(), "鑽石配方應有副產物");
+        List<ItemStack> recipeOutputs = snapshotOutputs(recipe);
+
+        // 找一個至少擲中一次的種子，再用同一個種子重播出每個副產物的確切數量
+        long seed = 0;
+        int[] expected = rollByproducts(chanceOutputs, batches, seed);
+        while (sum(expected) == 0) {
+            expected = rollByproducts(chanceOutputs, batches, ++seed);
+        }
+        int[] expectedByproducts = expected;
+
+        OreGrinderBlockEntity grinder = placeGrinder(helper);
+        ItemStackHandler items = grinder.getItemHandler();
+        ManaStorage mana = grinder.getManaStorage();
+
+        grinder.setByproductRandom(RandomSource.create(seed));
+        mana.setMana(mana.getMaxManaStored());
+        items.setStackInSlot(INPUT_SLOT, new ItemStack(Items.DIAMOND, batches));
+
+        helper.succeedWhen(() -> {
+            ItemStack output = items.getStackInSlot(MAIN_OUTPUT_SLOT);
+            helper.assertTrue(output.is(recipe.getMainOutput().getItem()), "主產物尚未產出");
+            helper.assertValueEqual(output.getCount(), batches * recipe.getMainOutput().getCount(), "主產物數量");
+            helper.assertTrue(items.getStackInSlot(INPUT_SLOT).isEmpty(), "輸入應已全部消耗");
+
+            for (int i = 0; i < chanceOutputs.size(); i++) {
+                ItemStack byproduct = chanceOutputs.get(i).getOutput();
+                helper.assertValueEqual(countInByproductSlots(items, byproduct), expectedByproducts[i],
+                        "副產物數量: " + byproduct.getItem());
+            }
+            assertRecipeUntouched(helper, recipe, recipeOutputs);
+        });
+    }
+
+    @GameTest(template = TEMPLATE, timeoutTicks = 400)
+    public static void stallsWithoutCostWhenOutputIsFull(GameTestHelper helper) {
+        ProcessingRecipe recipe = findGrinderRecipe(helper, new ItemStack(Items.STONE));
+        OreGrinderBlockEntity grinder = placeGrinder(helper);
+        ItemStackHandler items = grinder.getItemHandler();
+        ManaStorage mana = grinder.getManaStorage();
+
+        mana.setMana(mana.getMaxManaStored());
+        int startMana = mana.getManaStored();
+        int manaPerBatch = recipe.getManaCost() * grinder.getMaxProgress();
+        items.setStackInSlot(MAIN_OUTPUT_SLOT, new ItemStack(Items.DIRT, 64));
+        items.setStackInSlot(INPUT_SLOT, new ItemStack(Items.STONE, 1));
+
+        // 一批的時間再多等一段，確認停住後不再扣魔力
+        helper.runAfterDelay(grinder.getMaxProgress() + 100, () -> {
+            helper.assertValueEqual(grinder.getProgress(), grinder.getMaxProgress(), "進度應停在最大值");
+            helper.assertValueEqual(items.getStackInSlot(INPUT_SLOT).getCount(), 1, "輸入不應被消耗");
+            helper.assertTrue(items.getStackInSlot(MAIN_OUTPUT_SLOT).is(Items.DIRT), "輸出槽不應被覆蓋");
+            helper.assertValueEqual(items.getStackInSlot(MAIN_OUTPUT_SLOT).getCount(), 64, "輸出槽數量");
+            helper.assertValueEqual(mana.getManaStored(), startMana - manaPerBatch, "只應消耗一批的魔力");
+            helper.succeed();
+        });
+    }
+
+    // === 🔧 輔助方法 ===
+
+    private static OreGrinderBlockEntity placeGrinder(GameTestHelper helper) {
+        helper.setBlock(GRINDER_POS, ModBlocks.ORE_GRINDER.get());
+        return helper.getBlockEntity(GRINDER_POS);
+    }
+
+    private static ProcessingRecipe findGrinderRecipe(GameTestHelper helper, ItemStack input) {
+        RecipeHolder<ProcessingRecipe> holder = ProcessingRecipeIndex.findRecipe(helper.getLevel(),
+                new ProcessingRecipe.ProcessingInput(List.of(input), "grinder"));
+        if (holder == null) {
+            helper.fail("找不到 " + input.getItem() + " 的粉碎機配方（需要先執行資料生成）");
+        }
+        return holder.value();
+    }
+
+    /**
+     * 以與 finishGrinding 相同的順序擲骰（每批、每個副產物各一次 nextFloat）
+     */
+    private static int[] rollByproducts(List<ProcessingRecipe.ChanceOutput> chanceOutputs, int batches, long seed) {
+        RandomSource random = RandomSource.create(seed);
+        int[] counts = new int[chanceOutputs.size()];
+        for (int batch = 0; batch < batches; batch++) {
+            for (int i = 0; i < chanceOutputs.size(); i++) {
+                ProcessingRecipe.ChanceOutput chanceOutput = chanceOutputs.get(i);
+                if (chanceOutput.shouldOutput(random.nextFloat())) {
+                    counts[i] += chanceOutput.getOutput().getCount();
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static int sum(int[] values) {
+        int total = 0;
+        for (int value : values) total += value;
+        return total;
+    }
+
+    private static int countInByproductSlots(ItemStackHandler items, ItemStack byproduct) {
+        int count = 0;
+        for (int slot = FIRST_BYPRODUCT_SLOT; slot <= LAST_BYPRODUCT_SLOT; slot++) {
+            ItemStack stack = items.getStackInSlot(slot);
+            if (ItemStack.isSameItemSameComponents(stack, byproduct)) {
+                count += stack.getCount();
+            }
+        }
+        return count;
+    }
+
+    private static List<ItemStack> snapshotOutputs(ProcessingRecipe recipe) {
+        List<ItemStack> outputs = new ArrayList<>();
+        outputs.add(recipe.getMainOutput().copy());
+        for (ProcessingRecipe.ChanceOutput chanceOutput : recipe.getChanceOutputs()) {
+            outputs.add(chanceOutput.getOutput().copy());
+        }
+        return outputs;
+    }
+
+    /**
+     * 機器寫入輸出槽的必須是複本，配方的堆疊被所有粉碎機共用
+     */
+    private static void assertRecipeUntouched(GameTestHelper helper, ProcessingRecipe recipe, List<ItemStack> snapshot) {
+        helper.assertTrue(ItemStack.matches(recipe.getMainOutput(), snapshot.get(0)), "配方主產物堆疊被修改");
+        List<ProcessingRecipe.ChanceOutput> chanceOutputs = recipe.getChanceOutputs();
+        for (int i = 0; i < chanceOutputs.size(); i++) {
+            helper.assertTrue(ItemStack.matches(chanceOutputs.get(i).getOutput(), snapshot.get(i + 1)), "配方副產物堆疊被修改");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.nalamodikk.common.compat.energy;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.gametest.GameTestBenchmarks;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.util.RandomSource;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * 🧪 ModNeoNalaEnergyStorage 測試
+ *
+ * - 容量為 Long.MAX_VALUE 時 receive / extract 在邊界飽和，不會溢位
+ * - 保留的 BigInteger 建構子與設定方法會夾在 0 ~ 容量之間
+ * - 舊版字串格式的 NBT 仍可讀取
+ * - 與舊版 BigDecimal 實作逐步比對結果，並記錄每次傳輸的耗時（只記錄，不對速度下斷言）
+ */
+@GameTestHolder(KoniavacraftMod.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class EnergyStorageGameTests {
+
+    private static final String TEMPLATE = "empty3x3x3";
+
+    private static final int OPERATIONS = 10_000;
+    private static final int BENCHMARK_ITERATIONS = 500_000;
+
+    @GameTest(template = TEMPLATE)
+    public static void saturatesAtLongMax(GameTestHelper helper) {
+        ModNeoNalaEnergyStorage storage = new ModNeoNalaEnergyStorage(Long.MAX_VALUE);
+
+        storage.setEnergyStored(Long.MAX_VALUE - 10);
+        helper.assertValueEqual(storage.receiveEnergy(100, true), 10, "模擬接收只收得下剩餘空間");
+        helper.assertValueEqual(storage.getRawEnergyStored(), Long.MAX_VALUE - 10, "模擬不應改變能量");
+        helper.assertValueEqual(storage.receiveEnergy(100, false), 10, "接收只收得下剩餘空間");
+        helper.assertValueEqual(storage.getRawEnergyStored(), Long.MAX_VALUE, "能量停在容量上限");
+        helper.assertValueEqual(storage.receiveEnergy(Integer.MAX_VALUE, false), 0, "滿了不再接收");
+        helper.assertFalse(storage.canReceive(), "滿了不能接收");
+        helper.assertTrue(storage.canExtract(), "有能量可提取");
+
+        // int 視圖夾在 Integer.MAX_VALUE，不會變成負數
+        helper.assertValueEqual(storage.getEnergyStored(), Integer.MAX_VALUE, "能量的 int 視圖");
+        helper.assertValueEqual(storage.getMaxEnergyStored(), Integer.MAX_VALUE, "容量的 int 視圖");
+
+        helper.assertValueEqual(storage.extractEnergy(Integer.MAX_VALUE, false), Integer.MAX_VALUE, "提取一整個 int");
+        helper.assertValueEqual(storage.getRawEnergyStored(), Long.MAX_VALUE - Integer.MAX_VALUE, "提取後的能量");
+
+        storage.setEnergyStored(5);
+        helper.assertValueEqual(storage.extractEnergy(100, false), 5, "提取不超過現有能量");
+        helper.assertValueEqual(storage.getRawEnergyStored(), 0L, "能量停在 0");
+        helper.assertValueEqual(storage.extractEnergy(100, false), 0, "空了不再提取");
+        helper.assertFalse(storage.canExtract(), "空了不能提取");
+
+        // 非正數請求一律拒絕
+        helper.assertValueEqual(storage.receiveEnergy(-5, false), 0, "負數接收");
+        helper.assertValueEqual(storage.extractEnergy(-5, false), 0, "負數提取");
+        helper.assertValueEqual(storage.getRawEnergyStored(), 0L, "負數請求不應改變能量");
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE)
+    public static void bigIntegerConstructorAndSetterClamp(GameTestHelper helper) {
+        BigInteger huge = BigInteger.TWO.pow(80);
+
+        ModNeoNalaEnergyStorage unbounded = new ModNeoNalaEnergyStorage(huge);
+        helper.assertValueEqual(unbounded.getRawMaxCapacity(), Long.MAX_VALUE, "超過 long 的容量夾在 Long.MAX_VALUE");
+
+        ModNeoNalaEnergyStorage negative = new ModNeoNalaEnergyStorage(BigInteger.valueOf(-100));
+        helper.assertValueEqual(negative.getRawMaxCapacity(), 0L, "負數容量夾在 0");
+        helper.assertFalse(negative.canReceive(), "容量 0 不能接收");
+
+        ModNeoNalaEnergyStorage storage = new ModNeoNalaEnergyStorage(BigInteger.valueOf(1000));
+        helper.assertValueEqual(storage.getRawMaxCapacity(), 1000L, "BigInteger 容量");
+
+        storage.setEnergyStored(BigInteger.valueOf(400));
+        helper.assertValueEqual(storage.getRawEnergyStored(), 400L, "BigInteger 設定能量");
+        storage.setEnergyStored(huge);
+        helper.assertValueEqual(storage.getRawEnergyStored(), 1000L, "超過容量夾在容量");
+        storage.setEnergyStored(BigInteger.valueOf(-1));
+        helper.assertValueEqual(storage.getRawEnergyStored(), 0L, "負數夾在 0");
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE)
+    public static void readsLegacyAndCurrentNbt(GameTestHelper helper) {
+        ModNeoNalaEnergyStorage storage = new ModNeoNalaEnergyStorage(5000);
+
+        // 舊版以 BigDecimal.toPlainString 寫入字串
+        CompoundTag legacy = new CompoundTag();
+        legacy.putString("Energy", "1200.0000");
+        legacy.putString("Capacity", "5000.0000");
+        storage.deserializeNBT(legacy);
+        helper.assertValueEqual(storage.getRawEnergyStored(), 1200L, "舊版字串格式");
+
+        CompoundTag broken = new CompoundTag();
+        broken.putString("Energy", "not a number");
+        storage.deserializeNBT(broken);
+        helper.assertValueEqual(storage.getRawEnergyStored(), 0L, "無法解析的舊資料視為 0");
+
+        storage.setEnergyStored(3210);
+        ModNeoNalaEnergyStorage reloaded = new ModNeoNalaEnergyStorage(5000);
+        reloaded.deserializeNBT(storage.serializeNBT());
+        helper.assertValueEqual(reloaded.getRawEnergyStored(), 3210L, "long 格式往返");
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE, timeoutTicks = 400)
+    public static void matchesLegacyBigDecimalStorage(GameTestHelper helper) {
+        int capacity = 100_000;
+        ModNeoNalaEnergyStorage storage = new ModNeoNalaEnergyStorage(capacity);
+        LegacyBigDecimalStorage legacy = new LegacyBigDecimalStorage(capacity);
+        RandomSource random = RandomSource.create(42L);
+
+        // 同一串隨機傳輸，兩個實作的每一步結果都要相同
+        for (int op = 0; op < OPERATIONS; op++) {
+            int amount = random.nextInt(20_000);
+            boolean simulate = random.nextInt(4) == 0;
+            if (random.nextBoolean()) {
+                helper.assertValueEqual(storage.receiveEnergy(amount, simulate), legacy.receiveEnergy(amount, simulate), "第 " + op + " 步接收");
+            } else {
+                helper.assertValueEqual(storage.extractEnergy(amount, simulate), legacy.extractEnergy(amount, simulate), "第 " + op + " 步提取");
+            }
+            helper.assertValueEqual(storage.getEnergyStored(), legacy.getEnergyStored(), "第 " + op + " 步能量");
+            helper.assertValueEqual(storage.canReceive(), legacy.canReceive(), "第 " + op + " 步 canReceive");
+        }
+
+        // 每 tick 的典型用法：先檢查 canReceive，再接收 / 提取一小筆
+        ModNeoNalaEnergyStorage benchStorage = new ModNeoNalaEnergyStorage(capacity);
+        LegacyBigDecimalStorage benchLegacy = new LegacyBigDecimalStorage(capacity);
+        GameTestBenchmarks.compare("energy storage transfer", BENCHMARK_ITERATIONS,
+                () -> transfer(benchLegacy.canReceive(), benchLegacy.receiveEnergy(40, false), benchLegacy.extractEnergy(40, false)),
+                () -> transfer(benchStorage.canReceive(), benchStorage.receiveEnergy(40, false), benchStorage.extractEnergy(40, false)));
+        helper.succeed();
+    }
+
+    private static long transfer(boolean canReceive, int received, int extracted) {
+        return (canReceive ? 1 : 0) + received + extracted;
+    }
+
+    /**
+     * 📜 舊版以 BigDecimal 保存能量的實作（只保留傳輸相關方法），作為比對基準
+     */
+    private static final class LegacyBigDecimalStorage {
+        private static final int DECIMAL_DIGITS = 4;
+        private BigDecimal energy;
+        private final BigDecimal capacity;
+
+        LegacyBigDecimalStorage(long capacity) {
+            this.energy = BigDecimal.ZERO.setScale(DECIMAL_DIGITS, RoundingMode.DOWN);
+            this.capacity = new BigDecimal(BigInteger.valueOf(capacity)).setScale(DECIMAL_DIGITS, RoundingMode.DOWN);
+        }
+
+        int receiveEnergy(int maxReceive, boolean simulate) {
+            BigDecimal amount = BigDecimal.valueOf(maxReceive);
+            BigDecimal accepted = amount.min(capacity.subtract(energy));
+            if (!simulate) energy = energy.add(accepted);
+            return accepted.intValue();
+        }
+
+        int extractEnergy(int maxExtract, boolean simulate) {
+            BigDecimal amount = BigDecimal.valueOf(maxExtract);
+            BigDecimal extracted = energy.min(amount);
+            if (!simulate) energy = energy.subtract(extracted);
+            return extracted.intValue();
+        }
+
+        int getEnergyStored() {
+            return energy.intValue();
+        }
+
+        boolean canReceive() {
+            return energy.compareTo(capacity) < 0;
+        }
+    }
+}
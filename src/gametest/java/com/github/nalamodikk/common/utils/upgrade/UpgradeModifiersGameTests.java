@@ -0,0 +1,214 @@
+package com.github.nalamodikk.common.utils.upgrade;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.block.blockentity.mana_generator.logic.ManaGeneratorUpgradeHandler;
+import com.github.nalamodikk.common.item.UpgradeItem;
+import com.github.nalamodikk.gametest.GameTestBenchmarks;
+import com.github.nalamodikk.register.ModItems;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.List;
+
+/**
+ * 🧪 升級統計與編譯效果測試
+ *
+ * - 增量維護的升級數量在各種槽位操作後都與逐槽統計一致
+ * - 編譯後的效果只在內容改變時重建
+ * - 發電機的倍數表與舊版 Math.pow / 迴圈計算結果一致，並記錄每 tick 查詢的耗時（只記錄，不對速度下斷言）
+ */
+@GameTestHolder(KoniavacraftMod.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class UpgradeModifiersGameTests {
+
+    private static final String TEMPLATE = "empty3x3x3";
+
+    private static final int SLOTS = 8;
+    private static final int BASE_BURN_TIME = 1600;
+    private static final int BASE_OUTPUT = 40;
+    private static final int BENCHMARK_ITERATIONS = 200_000;
+
+    @GameTest(template = TEMPLATE)
+    public static void countsTrackSlotChanges(GameTestHelper helper) {
+        UpgradeInventory upgrades = new UpgradeInventory(SLOTS, ManaGeneratorUpgradeHandler::compileModifiers);
+        assertCountsMatch(helper, upgrades, "初始");
+        helper.assertTrue(upgrades.isEmpty(), "初始應為空");
+
+        upgrades.setItem(0, upgrade(ModItems.SPEED_UPGRADE.get()));
+        upgrades.setItem(1, upgrade(ModItems.SPEED_UPGRADE.get()));
+        upgrades.setItem(2, upgrade(ModItems.CATALYTIC_CONVERTER_UPGRADE.get()));
+        upgrades.setItem(3, new ItemStack(Items.DIRT)); // 非升級物品只算佔用
+        assertCountsMatch(helper, upgrades, "setItem");
+
+        upgrades.setItem(1, upgrade(ModItems.EFFICIENCY_UPGRADE.get())); // 覆蓋不同類型
+        assertCountsMatch(helper, upgrades, "覆蓋");
+
+        upgrades.removeItem(0, 1);
+        assertCountsMatch(helper, upgrades, "removeItem");
+
+        upgrades.removeItemNoUpdate(2);
+        assertCountsMatch(helper, upgrades, "removeItemNoUpdate");
+
+        // Slot 直接縮減堆疊後只呼叫 setChanged
+        upgrades.getItem(1).shrink(1);
+        upgrades.setChanged();
+        assertCountsMatch(helper, upgrades, "shrink + setChanged");
+
+        upgrades.clearContent();
+        assertCountsMatch(helper, upgrades, "clearContent");
+        helper.assertTrue(upgrades.isEmpty(), "清空後應為空");
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE)
+    public static void modifiersRecompileOnlyOnChange(GameTestHelper helper) {
+        UpgradeInventory upgrades = new UpgradeInventory(SLOTS, ManaGeneratorUpgradeHandler::compileModifiers);
+        helper.assertTrue(upgrades.getModifiers() == UpgradeModifiers.NONE, "沒有升級時為 NONE");
+
+        upgrades.setItem(0, upgrade(ModItems.ACCELERATED_PROCESSING_UPGRADE.get()));
+        UpgradeModifiers first = upgrades.getModifiers();
+        helper.assertTrue(first != UpgradeModifiers.NONE, "加入升級後應重新編譯");
+        helper.assertTrue(upgrades.getModifiers() == first, "內容沒變時應回傳同一個實例");
+
+        upgrades.setItem(1, upgrade(ModItems.CATALYTIC_CONVERTER_UPGRADE.get()));
+        helper.assertTrue(upgrades.getModifiers() != first, "內容改變後應重新編譯");
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE)
+    public static void generatorModifiersMatchLegacyMath(GameTestHelper helper) {
+        // 三種升級在 8 個槽位內的所有數量組合
+        for (int accelerated = 0; accelerated <= SLOTS; accelerated++) {
+            for (int expanded = 0; accelerated + expanded <= SLOTS; expanded++) {
+                for (int catalytic = 0; accelerated + expanded + catalytic <= SLOTS; catalytic++) {
+                    UpgradeInventory upgrades = fill(accelerated, expanded, catalytic);
+                    ManaGeneratorUpgradeHandler handler = new ManaGeneratorUpgradeHandler(upgrades);
+                    String combo = "加速 " + accelerated + " / 擴展 " + expanded + " / 催化 " + catalytic;
+
+                    // 倍數表是 float，舊版是 float × double；截斷成 int 時允許差 1
+                    int burnTime = handler.getModifiedBurnTime(BASE_BURN_TIME);
+                    int legacyBurnTime = Legacy.modifiedBurnTime(upgrades, BASE_BURN_TIME);
+                    helper.assertTrue(Math.abs(burnTime - legacyBurnTime) <= 1,
+                            combo + " 燃燒時間: " + burnTime + " vs " + legacyBurnTime);
+
+                    helper.assertValueEqual(handler.getModifiedOutput(BASE_OUTPUT),
+                            Legacy.modifiedOutput(upgrades, BASE_OUTPUT), combo + " 產出");
+                    assertClose(helper, handler.getSpeedMultiplier(), Legacy.speedMultiplier(upgrades), combo + " 速度倍數");
+                    assertClose(helper, handler.getOutputMultiplier(), Legacy.outputMultiplier(upgrades), combo + " 產出倍數");
+                    assertClose(helper, handler.getTotalEfficiencyMultiplier(),
+                            Legacy.speedMultiplier(upgrades) * Legacy.outputMultiplier(upgrades), combo + " 總效率");
+                }
+            }
+        }
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE, timeoutTicks = 400)
+    public static void perTickQueryTiming(GameTestHelper helper) {
+        UpgradeInventory upgrades = fill(2, 1, 2);
+        ManaGeneratorUpgradeHandler handler = new ManaGeneratorUpgradeHandler(upgrades);
+
+        // 每 tick 的查詢：燃燒時間 + 產出 + 效率顯示
+        GameTestBenchmarks.compare("generator upgrade query", BENCHMARK_ITERATIONS,
+                () -> Legacy.modifiedBurnTime(upgrades, BASE_BURN_TIME)
+                        + Legacy.modifiedOutput(upgrades, BASE_OUTPUT)
+                        + (long) (Legacy.speedMultiplier(upgrades) * Legacy.outputMultiplier(upgrades) * 100),
+                () -> handler.getModifiedBurnTime(BASE_BURN_TIME)
+                        + handler.getModifiedOutput(BASE_OUTPUT)
+                        + (long) (handler.getTotalEfficiencyMultiplier() * 100));
+        helper.succeed();
+    }
+
+    // === 🔧 輔助方法 ===
+
+    private static ItemStack upgrade(Item item) {
+        return new ItemStack(item);
+    }
+
+    private static UpgradeInventory fill(int accelerated, int expanded, int catalytic) {
+        UpgradeInventory upgrades = new UpgradeInventory(SLOTS, ManaGeneratorUpgradeHandler::compileModifiers);
+        int slot = 0;
+        for (int i = 0; i < accelerated; i++) upgrades.setItem(slot++, upgrade(ModItems.ACCELERATED_PROCESSING_UPGRADE.get()));
+        for (int i = 0; i < expanded; i++) upgrades.setItem(slot++, upgrade(ModItems.EXPANDED_FUEL_CHAMBER_UPGRADE.get()));
+        for (int i = 0; i < catalytic; i++) upgrades.setItem(slot++, upgrade(ModItems.CATALYTIC_CONVERTER_UPGRADE.get()));
+        return upgrades;
+    }
+
+    private static void assertCountsMatch(GameTestHelper helper, UpgradeInventory upgrades, String step) {
+        for (UpgradeType type : UpgradeType.values()) {
+            helper.assertValueEqual(upgrades.getUpgradeCount(type), Legacy.count(upgrades, type), step + " 後的 " + type + " 數量");
+        }
+        helper.assertValueEqual(upgrades.isEmpty(), upgrades.getAll().stream().allMatch(ItemStack::isEmpty), step + " 後的 isEmpty");
+    }
+
+    private static void assertClose(GameTestHelper helper, float actual, float expected, String name) {
+        helper.assertTrue(Math.abs(actual - expected) <= Math.abs(expected) * 1e-5f,
+                name + ": " + actual + " vs " + expected);
+    }
+
+    /**
+     * 📜 舊版實作：每次查詢都逐槽 stream 統計數量，再以 Math.pow / 迴圈計算倍數
+     */
+    private static final class Legacy {
+        static int count(UpgradeInventory upgrades, UpgradeType type) {
+            List<ItemStack> slots = upgrades.getAll();
+            return (int) slots.stream()
+                    .filter(stack -> stack.getItem() instanceof UpgradeItem upgrade && upgrade.getUpgradeType() == type)
+                    .count();
+        }
+
+        static int modifiedBurnTime(UpgradeInventory upgrades, int baseBurnTime) {
+            int acceleratedCount = count(upgrades, UpgradeType.ACCELERATED_PROCESSING);
+            int expandedCount = count(upgrades, UpgradeType.EXPANDED_FUEL_CHAMBER);
+
+            float burnTimeMultiplier = 1.0f;
+            if (acceleratedCount > 0) {
+                burnTimeMultiplier *= Math.pow(0.8f, acceleratedCount);
+            }
+            if (expandedCount > 0) {
+                burnTimeMultiplier *= Math.pow(1.5f, expandedCount);
+            }
+
+            int modifiedTime = (int) (baseBurnTime * burnTimeMultiplier);
+            modifiedTime = Math.max(5, modifiedTime);
+            modifiedTime = Math.min(12000, modifiedTime);
+            return modifiedTime;
+        }
+
+        static int modifiedOutput(UpgradeInventory upgrades, int baseOutput) {
+            if (count(upgrades, UpgradeType.CATALYTIC_CONVERTER) == 0) {
+                return baseOutput;
+            }
+            return (int) (baseOutput * outputMultiplier(upgrades));
+        }
+
+        static float speedMultiplier(UpgradeInventory upgrades) {
+            int acceleratedCount = count(upgrades, UpgradeType.ACCELERATED_PROCESSING);
+            int expandedCount = count(upgrades, UpgradeType.EXPANDED_FUEL_CHAMBER);
+
+            float speedMultiplier = 1.0f;
+            if (acceleratedCount > 0) {
+                speedMultiplier /= Math.pow(0.8f, acceleratedCount);
+            }
+            if (expandedCount > 0) {
+                speedMultiplier /= Math.pow(1.5f, expandedCount);
+            }
+            return speedMultiplier;
+        }
+
+        static float outputMultiplier(UpgradeInventory upgrades) {
+            int catalyticCount = count(upgrades, UpgradeType.CATALYTIC_CONVERTER);
+
+            float multiplier = 1.0f;
+            for (int i = 0; i < catalyticCount; i++) {
+                multiplier += Math.max(0.1f, 0.35f - i * 0.05f);
+            }
+            return multiplier;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.nalamodikk.gametest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.LongSupplier;
+
+/**
+ * ⏱️ gametest 內的簡易計時比較（舊路徑 vs 新路徑）
+ *
+ * 不是 JMH：只做暖機 + 取多輪中最快的一輪，結果寫入日誌供人工比較。
+ * 計時會受伺服器其他工作影響，所以測試只驗證兩條路徑結果一致，不對速度下斷言。
+ */
+public final class GameTestBenchmarks {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GameTestBenchmarks.class);
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    // 累加每次呼叫的回傳值，避免 JIT 把被測程式碼整段消除
+    private static long sink;
+
+    private GameTestBenchmarks() {}
+
+    /**
+     * 比較兩條路徑每次呼叫的耗時並記錄到日誌
+     *
+     * @param name       比較項目名稱
+     * @param iterations 每輪呼叫次數
+     * @param legacy     舊路徑（回傳值只用來防止消除）
+     * @param current    新路徑
+     */
+    public static void compare(String name, int iterations, LongSupplier legacy, LongSupplier current) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(iterations, legacy);
+            run(iterations, current);
+        }
+
+        long legacyBest = Long.MAX_VALUE;
+        long currentBest = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            legacyBest = Math.min(legacyBest, run(iterations, legacy));
+            currentBest = Math.min(currentBest, run(iterations, current));
+        }
+
+        double legacyPerOp = legacyBest / (double) iterations;
+        double currentPerOp = currentBest / (double) iterations;
+        LOGGER.info("[Benchmark] {}: legacy {} ns/op, current {} ns/op ({}x)",
+                name,
+                String.format("%.1f", legacyPerOp),
+                String.format("%.1f", currentPerOp),
+                String.format("%.2f", currentPerOp > 0 ? legacyPerOp / currentPerOp : 0));
+    }
+
+    private static long run(int iterations, LongSupplier op) {
+        long start = System.nanoTime();
+        long acc = 0;
+        for (int i = 0; i < iterations; i++) {
+            acc += op.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += acc;
+        return elapsed;
+    }
+}
@@ -1,7 +1,6 @@
 package com.github.nalamodikk.common.block.blockentity.collector.solarmana;
 
 import com.github.nalamodikk.common.block.blockentity.manabase.BaseMachineBlock;
-import com.github.nalamodikk.register.ModBlockEntities;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -108,8 +107,8 @@ public class SolarManaCollectorBlock extends BaseMachineBlock {
     @Override
     @Nullable
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> blockEntityType) {
-        return blockEntityType == ModBlockEntities.SOLAR_MANA_COLLECTOR_BE.get() ? (lvl, pos, blockState, be) -> ((SolarManaCollectorBlockEntity) be).tickMachine()
-                : null;
+        // ⏱️ 伺服器端由 MachineScheduler 驅動（可休眠）；客戶端沒有需要每 tick 執行的邏輯
+        return null;
     }
 
 
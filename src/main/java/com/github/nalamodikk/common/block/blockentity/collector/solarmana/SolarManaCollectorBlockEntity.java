@@ -1,21 +1,22 @@
     package com.github.nalamodikk.common.block.blockentity.collector.solarmana;
 
+    import com.github.nalamodikk.common.block.blockentity.collector.solarmana.manager.SolarConditionService;
     import com.github.nalamodikk.common.block.blockentity.collector.solarmana.manager.SolarUpgradeManager;
+    import com.github.nalamodikk.common.block.blockentity.collector.solarmana.sync.SolarCollectorChunkSync;
     import com.github.nalamodikk.common.block.blockentity.collector.solarmana.sync.SolarCollectorSyncHelper;
-    import com.github.nalamodikk.common.block.blockentity.mana_generator.logic.OutputHandler;
     import com.github.nalamodikk.common.block.blockentity.manabase.AbstractManaCollectorBlock;
-    import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
     import com.github.nalamodikk.common.capability.ManaStorage;
     import com.github.nalamodikk.common.capability.mana.ManaAction;
     import com.github.nalamodikk.common.coreapi.block.IConfigurableBlock;
-    import com.github.nalamodikk.common.utils.SkyUtils;
+    import com.github.nalamodikk.common.coreapi.machine.logic.IO.DemandEstimator;
+    import com.github.nalamodikk.common.coreapi.machine.logic.IO.OutputDistributor;
     import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
+    import com.github.nalamodikk.common.utils.capability.NeighborCapabilityCache;
     import com.github.nalamodikk.common.utils.nbt.NbtUtils;
     import com.github.nalamodikk.common.utils.upgrade.UpgradeInventory;
     import com.github.nalamodikk.common.utils.upgrade.UpgradeType;
     import com.github.nalamodikk.common.utils.upgrade.api.IUpgradeableMachine;
     import com.github.nalamodikk.register.ModBlockEntities;
-    import com.github.nalamodikk.register.ModCapabilities;
     import com.mojang.logging.LogUtils;
     import net.minecraft.core.BlockPos;
     import net.minecraft.core.Direction;
@@ -34,9 +35,6 @@
     import net.minecraft.world.inventory.AbstractContainerMenu;
     import net.minecraft.world.level.block.entity.BlockEntity;
     import net.minecraft.world.level.block.state.BlockState;
-    import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
-    import net.neoforged.neoforge.capabilities.Capabilities;
-    import net.neoforged.neoforge.energy.IEnergyStorage;
     import org.slf4j.Logger;
 
     import java.util.EnumMap;
@@ -69,8 +67,9 @@
         private final EnumMap<Direction, IOHandlerUtils.IOType> ioMap = new EnumMap<>(Direction.class);
 
         // === ⚡ 性能緩存 ===
-        private final EnumMap<Direction, BlockCapabilityCache<IUnifiedManaHandler, Direction>> manaCaches = new EnumMap<>(Direction.class);
-        private final EnumMap<Direction, BlockCapabilityCache<IEnergyStorage, Direction>> energyCaches = new EnumMap<>(Direction.class);
+        private final NeighborCapabilityCache neighborCapabilities = new NeighborCapabilityCache(this);
+        // 🔌 依近期實際接收量分配輸出
+        private final OutputDistributor outputDistributor = new OutputDistributor(DemandEstimator::movingAverage);
 
         public SolarManaCollectorBlockEntity(BlockPos pos, BlockState state) {
             super(ModBlockEntities.SOLAR_MANA_COLLECTOR_BE.get(), pos, state, 800, 0, 0);
@@ -123,9 +122,9 @@
             // 🎯 真正的生成狀態：能發電 + 有空間
             this.generating = canGenerate && hasSpace;
 
-            // 🔧 狀態變化時通知客戶端
-            if (oldGenerating != this.generating && level instanceof ServerLevel) {
-                level.sendBlockUpdated(worldPosition, getBlockState(), getBlockState(), 3);
+            // 🔧 狀態變化時通知客戶端（由區塊批次同步合併送出）
+            if (oldGenerating != this.generating && level instanceof ServerLevel server) {
+                SolarCollectorChunkSync.get(server).markDirty(worldPosition);
                 setChanged();
 
                 LOGGER.debug("🔄 狀態變化: {} -> {}, 條件: 可發電={}, 有空間={}",
@@ -160,6 +159,9 @@
             int inserted = manaStorage.insertMana(amount, ManaAction.EXECUTE);
 
             if (inserted > 0 && level instanceof ServerLevel server) {
+                // 📡 魔力變化，等區塊批次同步送出
+                SolarCollectorChunkSync.get(server).markDirty(worldPosition);
+
                 // 🔌 處理輸出
                 handleManaOutput(server);
 
@@ -170,7 +172,7 @@
 
         // 🔌 魔力輸出處理
         private void handleManaOutput(ServerLevel server) {
-            boolean didOutput = OutputHandler.tryOutput(server, worldPosition, manaStorage, null, ioMap, manaCaches, energyCaches);
+            boolean didOutput = outputDistributor.tryOutput(manaStorage, null, ioMap, neighborCapabilities);
 
             // 診斷邏輯
             if (!didOutput && !hasLoggedOutputFailure) {
@@ -184,14 +186,15 @@
                     LOGGER.info("✅ 輸出恢復: {}", worldPosition);
                 }
 
-                // 魔力值變化，通知更新
-                level.sendBlockUpdated(worldPosition, getBlockState(), getBlockState(), 3);
+                // 魔力值變化，標記保存（客戶端更新由區塊批次同步負責）
                 setChanged();
             }
         }
 
-        // 🎨 生成視覺效果
+        // 🎨 生成視覺效果（附近沒有玩家或本區塊已達粒子配額時略過）
         private void createGenerationEffects(ServerLevel server) {
+            if (!SolarCollectorChunkSync.get(server).tryReserveParticles(worldPosition)) return;
+
             server.sendParticles(
                     ParticleTypes.ENCHANT,
                     worldPosition.getX() + 0.5,
@@ -204,17 +207,12 @@
         private boolean hasLoggedOutputFailure = false;
 
 
-        //是否可以發電方法 - 使用高度圖的極速穩定方案
+        //是否可以發電方法 - 日夜 / 天氣每 tick 只算一次，見天與降雨按柱緩存
         @Override
         protected boolean canGenerate() {
             if (!(level instanceof ServerLevel server)) return false;
 
-            final BlockPos skyPos = worldPosition;
-            return server.isDay()
-                && server.dimensionType().hasSkyLight()
-                && SkyUtils.isOpenToSkyByHeightmap(server, skyPos) // 🚀 使用高度圖，極速穩定
-                && !server.isRainingAt(skyPos.above())
-                && !server.isThundering();
+            return SolarConditionService.get(server).canGenerate(worldPosition);
         }
 
 
@@ -321,9 +319,6 @@
         public void onLoad() {
             super.onLoad();
             if (level instanceof ServerLevel serverLevel) {
-                initializeCapabilityCaches(serverLevel);
-
-
                 // 🆕 伺服器端載入後立即同步一次數據
                 syncHelper.syncFrom(this);
 
@@ -337,39 +332,6 @@
             }
         }
 
-        private void initializeCapabilityCaches(ServerLevel serverLevel) {
-            for (Direction dir : Direction.values()) {
-                BlockPos targetPos = worldPosition.relative(dir);
-                Direction inputSide = dir.getOpposite();
-
-                LOGGER.debug("🔧 初始化快取: 方向={}, 目標位置={}, 輸入側={}",
-                        dir, targetPos, inputSide);
-
-                manaCaches.put(dir, BlockCapabilityCache.create(
-                        ModCapabilities.MANA,
-                        serverLevel,
-                        targetPos,
-                        inputSide,
-                        () -> !this.isRemoved(),
-                        () -> {
-                            LOGGER.debug("🔄 魔力快取失效: 方向={}", dir);
-                        }
-                ));
-
-                energyCaches.put(dir, BlockCapabilityCache.create(
-                        Capabilities.EnergyStorage.BLOCK,
-                        serverLevel,
-                        targetPos,
-                        inputSide,
-                        () -> !this.isRemoved(),
-                        () -> {
-                            LOGGER.debug("🔄 能量快取失效: 方向={}", dir);
-                        }
-                ));
-            }
-
-            LOGGER.info("✅ 太陽能收集器快取初始化完成: 位置={}", worldPosition);
-        }
         // === 🔧 升級系統接口 ===
 
         @Override
@@ -400,6 +362,14 @@
             this.generating = value;
         }
 
+        /**
+         * 📡 客戶端套用區塊批次同步的狀態
+         */
+        public void applyClientSync(int mana, boolean generating) {
+            this.manaStorage.setMana(mana);
+            this.generating = generating;
+        }
+
         public static int getMaxMana() {
             return MAX_MANA;
         }
@@ -0,0 +1,200 @@
+package com.github.nalamodikk.common.block.blockentity.collector.solarmana.manager;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.BlockEvent;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 🌤️ 太陽能發電條件服務（每個維度一份）
+ *
+ * - 白天 / 雷雨 / 天空光等全域條件每 tick 只計算一次，所有收集器共用
+ * - 每一柱（x, z）緩存 MOTION_BLOCKING 高度與降雨判定
+ * - 該柱有方塊更新（NeighborNotifyEvent）時作廢；另有定期重算，補上不通知鄰居的方塊變更
+ * - 區塊卸載時依區塊索引只清除該區塊的柱
+ */
+@EventBusSubscriber(modid = KoniavacraftMod.MOD_ID)
+public class SolarConditionService {
+
+    private static final Map<ResourceKey<Level>, SolarConditionService> SERVICES = new HashMap<>();
+
+    // 柱緩存最長有效期（tick），防止漏掉未通知鄰居的方塊變更
+    private static final long COLUMN_MAX_AGE = 200;
+
+    private final ServerLevel level;
+    private final Long2ObjectOpenHashMap<Column> columns = new Long2ObjectOpenHashMap<>();
+    // 區塊 → 該區塊內已緩存的柱鍵（卸載時不必掃描全部柱）
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> columnsByChunk = new Long2ObjectOpenHashMap<>();
+
+    // === 每 tick 的全域條件 ===
+    private long conditionTick = Long.MIN_VALUE;
+    private boolean daylightUsable = false;
+    private boolean raining = false;
+    private int weatherEpoch = 0;
+
+    private SolarConditionService(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static SolarConditionService get(ServerLevel level) {
+        SolarConditionService service = SERVICES.get(level.dimension());
+        if (service == null || service.level != level) {
+            service = new SolarConditionService(level);
+            SERVICES.put(level.dimension(), service);
+        }
+        return service;
+    }
+
+    // === 查詢 ===
+
+    /**
+     * 該位置的收集器目前能否發電（白天、見天、未下雨、無雷雨）
+     */
+    public boolean canGenerate(BlockPos pos) {
+        refreshGlobalConditions();
+        if (!daylightUsable) return false;
+
+        Column column = column(pos);
+        if (pos.getY() < column.height - 1) return false; // 與 SkyUtils 相同的見天判定
+
+        if (raining) {
+            if (column.rainEpoch != weatherEpoch) {
+                column.rainingHere = level.isRainingAt(pos.above());
+                column.rainEpoch = weatherEpoch;
+            }
+            return !column.rainingHere;
+        }
+        return true;
+    }
+
+    private void refreshGlobalConditions() {
+        long now = level.getGameTime();
+        if (now == conditionTick) return;
+        conditionTick = now;
+
+        daylightUsable = level.isDay()
+                && level.dimensionType().hasSkyLight()
+                && !level.isThundering();
+
+        boolean nowRaining = level.isRaining();
+        if (nowRaining != raining) {
+            raining = nowRaining;
+            weatherEpoch++; // 天氣改變，各柱的降雨判定重算
+        }
+    }
+
+    private Column column(BlockPos pos) {
+        long key = ChunkPos.asLong(pos.getX(), pos.getZ()); // 以 (x, z) 打包為柱鍵
+        Column column = columns.get(key);
+        long now = level.getGameTime();
+
+        if (column == null) {
+            column = new Column();
+            columns.put(key, column);
+            columnsByChunk.computeIfAbsent(chunkKey(key), k -> new LongOpenHashSet()).add(key);
+            column.recompute(level, pos, now, weatherEpoch);
+        } else if (now - column.computedAt > COLUMN_MAX_AGE) {
+            column.recompute(level, pos, now, weatherEpoch);
+        }
+        return column;
+    }
+
+    // === 作廢 ===
+
+    private void invalidateColumn(BlockPos pos) {
+        if (columns.isEmpty()) return;
+
+        long key = ChunkPos.asLong(pos.getX(), pos.getZ());
+        if (columns.remove(key) == null) return;
+
+        long chunk = chunkKey(key);
+        LongOpenHashSet inChunk = columnsByChunk.get(chunk);
+        if (inChunk != null) {
+            inChunk.remove(key);
+            if (inChunk.isEmpty()) {
+                columnsByChunk.remove(chunk);
+            }
+        }
+    }
+
+    private void removeChunk(ChunkPos chunkPos) {
+        LongOpenHashSet inChunk = columnsByChunk.remove(chunkPos.toLong());
+        if (inChunk == null) return;
+
+        LongIterator it = inChunk.iterator();
+        while (it.hasNext()) {
+            columns.remove(it.nextLong());
+        }
+    }
+
+    /**
+     * 柱鍵的 x / z 與 ChunkPos.asLong 的打包方式相同，右移 4 即為所在區塊
+     */
+    private static long chunkKey(long columnKey) {
+        return ChunkPos.asLong(ChunkPos.getX(columnKey) >> 4, ChunkPos.getZ(columnKey) >> 4);
+    }
+
+    // === 事件 ===
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            SolarConditionService service = SERVICES.get(serverLevel.dimension());
+            if (service != null && service.level == serverLevel) {
+                service.invalidateColumn(event.getPos());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            SolarConditionService service = SERVICES.get(serverLevel.dimension());
+            if (service != null && service.level == serverLevel) {
+                service.removeChunk(event.getChunk().getPos());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            SERVICES.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        SERVICES.clear();
+    }
+
+    // === 柱緩存 ===
+
+    private static final class Column {
+        int height;
+        long computedAt;
+        boolean rainingHere;
+        int rainEpoch;
+
+        void recompute(ServerLevel level, BlockPos pos, long now, int currentEpoch) {
+            height = level.getHeight(Heightmap.Types.MOTION_BLOCKING, pos.getX(), pos.getZ());
+            computedAt = now;
+            rainEpoch = currentEpoch - 1; // 降雨判定需要時再算
+        }
+    }
+}
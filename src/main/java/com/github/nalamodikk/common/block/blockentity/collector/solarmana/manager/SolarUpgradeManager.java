@@ -3,6 +3,7 @@ package com.github.nalamodikk.common.block.blockentity.collector.solarmana.manag
 import com.github.nalamodikk.common.block.blockentity.collector.solarmana.SolarManaCollectorBlockEntity;
 import com.github.nalamodikk.common.item.UpgradeItem;
 import com.github.nalamodikk.common.utils.upgrade.UpgradeInventory;
+import com.github.nalamodikk.common.utils.upgrade.UpgradeModifiers;
 import com.github.nalamodikk.common.utils.upgrade.UpgradeType;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
@@ -40,17 +41,17 @@ public class SolarUpgradeManager {
     private final UpgradeInventory upgrades;
 
     // === 📊 緩存效果（效能優化）===
+    // 倍數由 UpgradeInventory 依內容版本快取；這裡只把最後一次換算的整數結果記下來
+    private UpgradeModifiers cachedModifiers = null;
     private int cachedOutput = BASE_OUTPUT;
     private int cachedInterval = BASE_INTERVAL;
-    private boolean effectsDirty = true;
 
     public SolarUpgradeManager(SolarManaCollectorBlockEntity collector) {
         this.collector = collector;
-        this.upgrades = new UpgradeInventory(UPGRADE_SLOT_COUNT) {
+        this.upgrades = new UpgradeInventory(UPGRADE_SLOT_COUNT, SolarUpgradeManager::compileModifiers) {
             @Override
             public void setChanged() {
                 super.setChanged();
-                markEffectsDirty();
                 collector.setChanged();
 
                 // 🆕 升級變化時立即同步
@@ -78,7 +79,7 @@ public class SolarUpgradeManager {
      * 主類調用：int output = upgradeManager.getUpgradedOutput();
      */
     public int getUpgradedOutput() {
-        if (effectsDirty) recalculateEffects();
+        refreshEffects();
         return cachedOutput;
     }
 
@@ -87,7 +88,7 @@ public class SolarUpgradeManager {
      * 主類調用：int interval = upgradeManager.getUpgradedInterval();
      */
     public int getUpgradedInterval() {
-        if (effectsDirty) recalculateEffects();
+        refreshEffects();
         return cachedInterval;
     }
 
@@ -164,28 +165,38 @@ public class SolarUpgradeManager {
     // === 🔧 內部計算邏輯 ===
 
     /**
-     * 🔄 重新計算所有升級效果（私有方法，主類不直接調用）
+     * 🔄 升級效果有變才重新換算整數結果（私有方法，主類不直接調用）
      */
-    private void recalculateEffects() {
-        int efficiencyCount = countUpgradeType(UpgradeType.EFFICIENCY);
-        int speedCount = countUpgradeType(UpgradeType.SPEED);
-
-        // 🔥 計算效率升級效果（遞減增長）
-        cachedOutput = calculateEfficiencyOutput(efficiencyCount);
-
-        // ⚡ 計算速度升級效果（遞減減少）
-        cachedInterval = calculateSpeedInterval(speedCount);
+    private void refreshEffects() {
+        UpgradeModifiers modifiers = upgrades.getModifiers();
+        if (modifiers == cachedModifiers) return;
 
-        effectsDirty = false;
+        cachedOutput = Math.round(BASE_OUTPUT * modifiers.output()); // 倍數由整數產量換算而來，四捨五入還原
+        cachedInterval = Math.max(MIN_INTERVAL, Math.round(BASE_INTERVAL * modifiers.burnTime()));
+        cachedModifiers = modifiers;
+    }
 
-//        LOGGER.debug("🌞 升級效果重新計算：{}效率+{}速度 → 產量={}, 間隔={}tick",
-//                efficiencyCount, speedCount, cachedOutput, cachedInterval);
+    /**
+     * 🔧 太陽能的升級換算規則，交給 {@link UpgradeInventory} 依內容版本快取
+     */
+    private static UpgradeModifiers compileModifiers(UpgradeInventory upgrades) {
+        int efficiencyCount = upgrades.getUpgradeCount(UpgradeType.EFFICIENCY);
+        int speedCount = upgrades.getUpgradeCount(UpgradeType.SPEED);
+        if (efficiencyCount == 0 && speedCount == 0) return UpgradeModifiers.NONE;
+
+        // 🔥 效率升級：產量倍數（遞減增長）
+        float output = (float) calculateEfficiencyOutput(efficiencyCount) / BASE_OUTPUT;
+        // ⚡ 速度升級：間隔倍數（遞減減少）
+        float burnTime = (float) calculateSpeedInterval(speedCount) / BASE_INTERVAL;
+        float speed = 1.0f / burnTime;
+
+        return new UpgradeModifiers(speed, output, burnTime, output * speed);
     }
 
     /**
      * 📈 計算效率升級的產量（遞減效應）
      */
-    private int calculateEfficiencyOutput(int upgradeCount) {
+    private static int calculateEfficiencyOutput(int upgradeCount) {
         if (upgradeCount <= 0) return BASE_OUTPUT;
 
         double output = BASE_OUTPUT;
@@ -202,7 +213,7 @@ public class SolarUpgradeManager {
     /**
      * ⚡ 計算速度升級的間隔（遞減減少）
      */
-    private int calculateSpeedInterval(int upgradeCount) {
+    private static int calculateSpeedInterval(int upgradeCount) {
         if (upgradeCount <= 0) return BASE_INTERVAL;
 
         int interval = BASE_INTERVAL;
@@ -227,9 +238,7 @@ public class SolarUpgradeManager {
      * 📊 計算總體效率倍數
      */
     private double getTotalEfficiencyMultiplier() {
-        double outputMultiplier = (double) getUpgradedOutput() / BASE_OUTPUT;
-        double speedMultiplier = (double) BASE_INTERVAL / getUpgradedInterval();
-        return outputMultiplier * speedMultiplier;
+        return upgrades.getModifiers().efficiency();
     }
 
     /**
@@ -258,7 +267,7 @@ public class SolarUpgradeManager {
      * 🔄 標記效果需要重新計算（當升級變更時調用）
      */
     public void markEffectsDirty() {
-        effectsDirty = true;
+        cachedModifiers = null;
     }
 
     // === 💾 數據持久化（使用正確的方法名）===
@@ -288,7 +297,6 @@ public class SolarUpgradeManager {
             if (tag.contains("SolarUpgradeManager")) {
                 CompoundTag upgradeTag = tag.getCompound("SolarUpgradeManager");
                 upgrades.deserializeNBT(registries, upgradeTag);
-                markEffectsDirty(); // 重新計算效果
 
                 // 🔍 調試日誌
                 LOGGER.debug("🌞 載入升級管理器: 槽位數 {}, 升級物品數 {}",
@@ -0,0 +1,157 @@
+package com.github.nalamodikk.common.block.blockentity.collector.solarmana.sync;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.block.blockentity.collector.solarmana.SolarManaCollectorBlockEntity;
+import com.github.nalamodikk.common.config.ModCommonConfig;
+import com.github.nalamodikk.common.network.packet.server.machine.SolarCollectorBatchPacket;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 🌞 太陽能收集器的區塊批次同步（每個維度一份）
+ *
+ * - 收集器狀態變化時只標記髒，不再各自 sendBlockUpdated
+ * - 每 {@link #FLUSH_INTERVAL} tick 把同一區塊的所有髒收集器合併成一個封包，送給追蹤該區塊的玩家
+ * - 發電粒子：範圍內沒有玩家時不送；每個區塊每個週期最多送設定數量的粒子
+ */
+@EventBusSubscriber(modid = KoniavacraftMod.MOD_ID)
+public class SolarCollectorChunkSync {
+
+    private static final Map<ResourceKey<Level>, SolarCollectorChunkSync> SYNCS = new HashMap<>();
+    private static final int FLUSH_INTERVAL = 20; // 每秒合併送出一次
+
+    private final ServerLevel level;
+    // 區塊 → 該區塊內待同步的收集器座標
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> dirtyByChunk = new Long2ObjectOpenHashMap<>();
+    // 區塊 → 本週期已送出的粒子次數
+    private final Long2IntOpenHashMap particleBursts = new Long2IntOpenHashMap();
+
+    private SolarCollectorChunkSync(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static SolarCollectorChunkSync get(ServerLevel level) {
+        SolarCollectorChunkSync sync = SYNCS.get(level.dimension());
+        if (sync == null || sync.level != level) {
+            sync = new SolarCollectorChunkSync(level);
+            SYNCS.put(level.dimension(), sync);
+        }
+        return sync;
+    }
+
+    // === 標記 ===
+
+    /**
+     * 收集器狀態（魔力 / 發電中）有變化，等下次批次送出
+     */
+    public void markDirty(BlockPos pos) {
+        long chunkKey = ChunkPos.asLong(pos);
+        LongOpenHashSet positions = dirtyByChunk.get(chunkKey);
+        if (positions == null) {
+            positions = new LongOpenHashSet();
+            dirtyByChunk.put(chunkKey, positions);
+        }
+        positions.add(pos.asLong());
+    }
+
+    /**
+     * 嘗試為這個位置預留一次發電粒子：附近要有玩家，且該區塊本週期還有配額
+     */
+    public boolean tryReserveParticles(BlockPos pos) {
+        int range = ModCommonConfig.INSTANCE.solarParticleRange.get();
+        if (range <= 0) return false;
+
+        long chunkKey = ChunkPos.asLong(pos);
+        if (particleBursts.get(chunkKey) >= ModCommonConfig.INSTANCE.solarParticleBurstsPerChunk.get()) {
+            return false;
+        }
+        if (!level.hasNearbyAlivePlayer(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5, range)) {
+            return false;
+        }
+
+        particleBursts.addTo(chunkKey, 1);
+        return true;
+    }
+
+    // === 批次送出 ===
+
+    private void tick() {
+        if (level.getGameTime() % FLUSH_INTERVAL != 0) return;
+
+        particleBursts.clear();
+        if (dirtyByChunk.isEmpty()) return;
+
+        ObjectIterator<Long2ObjectOpenHashMap.Entry<LongOpenHashSet>> it = dirtyByChunk.long2ObjectEntrySet().fastIterator();
+        while (it.hasNext()) {
+            Long2ObjectOpenHashMap.Entry<LongOpenHashSet> entry = it.next();
+            flushChunk(new ChunkPos(entry.getLongKey()), entry.getValue());
+        }
+        dirtyByChunk.clear();
+    }
+
+    private void flushChunk(ChunkPos chunkPos, LongOpenHashSet positions) {
+        if (!level.hasChunk(chunkPos.x, chunkPos.z)) return;
+
+        int size = positions.size();
+        int[] packedPositions = new int[size];
+        int[] mana = new int[size];
+        boolean[] generating = new boolean[size];
+        int count = 0;
+
+        LongIterator iterator = positions.iterator();
+        while (iterator.hasNext()) {
+            BlockPos pos = BlockPos.of(iterator.nextLong());
+            if (level.getBlockEntity(pos) instanceof SolarManaCollectorBlockEntity collector) {
+                packedPositions[count] = SolarCollectorBatchPacket.packLocal(pos);
+                mana[count] = collector.getManaStored();
+                generating[count] = collector.isCurrentlyGenerating();
+                count++;
+            }
+        }
+        if (count == 0) return;
+
+        PacketDistributor.sendToPlayersTrackingChunk(level, chunkPos,
+                SolarCollectorBatchPacket.of(chunkPos, count, packedPositions, mana, generating));
+    }
+
+    // === 事件 ===
+
+    @SubscribeEvent
+    public static void onLevelTick(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        SolarCollectorChunkSync sync = SYNCS.get(serverLevel.dimension());
+        if (sync != null && sync.level == serverLevel) {
+            sync.tick();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            SYNCS.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        SYNCS.clear();
+    }
+}
@@ -2,10 +2,12 @@ package com.github.nalamodikk.common.block.blockentity.conduit;
 
 
 import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.ConduitCacheStore;
+import com.github.nalamodikk.common.block.blockentity.conduit.manager.network.ConduitConnectionUpdater;
 import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
 import com.github.nalamodikk.common.utils.capability.CapabilityUtils;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
-import com.github.nalamodikk.register.ModBlockEntities;
+import com.github.nalamodikk.common.utils.capability.NeighborCapabilityCache;
 import com.mojang.logging.LogUtils;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.ChatFormatting;
@@ -76,6 +78,39 @@ public class ArcaneConduitBlock extends BaseEntityBlock {
     private static final VoxelShape UP_SHAPE = Block.box(6, 10, 6, 10, 16, 10);
     private static final VoxelShape DOWN_SHAPE = Block.box(6, 0, 6, 10, 6, 10);
 
+    // === 🔍 連接遮罩（bit = Direction.get3DDataValue()：D U N S W E）===
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final BooleanProperty[] PROPERTY_BY_DIRECTION = new BooleanProperty[6];
+    private static final VoxelShape[] ARM_BY_DIRECTION = new VoxelShape[6];
+    // 64 種連接組合的形狀，載入類別時一次建好；getShape 只查表
+    private static final VoxelShape[] SHAPES_BY_MASK = new VoxelShape[64];
+
+    static {
+        PROPERTY_BY_DIRECTION[Direction.DOWN.get3DDataValue()] = DOWN;
+        PROPERTY_BY_DIRECTION[Direction.UP.get3DDataValue()] = UP;
+        PROPERTY_BY_DIRECTION[Direction.NORTH.get3DDataValue()] = NORTH;
+        PROPERTY_BY_DIRECTION[Direction.SOUTH.get3DDataValue()] = SOUTH;
+        PROPERTY_BY_DIRECTION[Direction.WEST.get3DDataValue()] = WEST;
+        PROPERTY_BY_DIRECTION[Direction.EAST.get3DDataValue()] = EAST;
+
+        ARM_BY_DIRECTION[Direction.DOWN.get3DDataValue()] = DOWN_SHAPE;
+        ARM_BY_DIRECTION[Direction.UP.get3DDataValue()] = UP_SHAPE;
+        ARM_BY_DIRECTION[Direction.NORTH.get3DDataValue()] = NORTH_SHAPE;
+        ARM_BY_DIRECTION[Direction.SOUTH.get3DDataValue()] = SOUTH_SHAPE;
+        ARM_BY_DIRECTION[Direction.WEST.get3DDataValue()] = WEST_SHAPE;
+        ARM_BY_DIRECTION[Direction.EAST.get3DDataValue()] = EAST_SHAPE;
+
+        for (int mask = 0; mask < SHAPES_BY_MASK.length; mask++) {
+            VoxelShape shape = CENTER;
+            for (int i = 0; i < 6; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    shape = Shapes.or(shape, ARM_BY_DIRECTION[i]);
+                }
+            }
+            SHAPES_BY_MASK[mask] = shape.optimize();
+        }
+    }
+
     // 🆕 修改建構子，接受等級參數
     public ArcaneConduitBlock(Properties properties, ConduitTier tier) {
         super(properties);
@@ -158,16 +193,33 @@ public class ArcaneConduitBlock extends BaseEntityBlock {
 
     @Override
     public VoxelShape getShape(BlockState state, BlockGetter level, BlockPos pos, CollisionContext context) {
-        VoxelShape shape = CENTER;
+        return SHAPES_BY_MASK[getConnectionMask(state)];
+    }
 
-        if (state.getValue(NORTH)) shape = Shapes.or(shape, NORTH_SHAPE);
-        if (state.getValue(SOUTH)) shape = Shapes.or(shape, SOUTH_SHAPE);
-        if (state.getValue(WEST)) shape = Shapes.or(shape, WEST_SHAPE);
-        if (state.getValue(EAST)) shape = Shapes.or(shape, EAST_SHAPE);
-        if (state.getValue(UP)) shape = Shapes.or(shape, UP_SHAPE);
-        if (state.getValue(DOWN)) shape = Shapes.or(shape, DOWN_SHAPE);
+    /**
+     * 🔍 方塊狀態目前的連接遮罩
+     */
+    public static int getConnectionMask(BlockState state) {
+        int mask = 0;
+        for (int i = 0; i < 6; i++) {
+            if (state.getValue(PROPERTY_BY_DIRECTION[i])) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
 
-        return shape;
+    /**
+     * 🔍 套用連接遮罩；遮罩沒變時回傳原本的 state
+     */
+    public static BlockState withConnectionMask(BlockState state, int mask) {
+        if (getConnectionMask(state) == mask) return state;
+
+        BlockState newState = state;
+        for (int i = 0; i < 6; i++) {
+            newState = newState.setValue(PROPERTY_BY_DIRECTION[i], (mask & (1 << i)) != 0);
+        }
+        return newState;
     }
 
     @Override
@@ -187,8 +239,8 @@ public class ArcaneConduitBlock extends BaseEntityBlock {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> blockEntityType) {
-        return blockEntityType == ModBlockEntities.ARCANE_CONDUIT_BE.get() ?
-                (level1, pos, state1, blockEntity) -> ((ArcaneConduitBlockEntity) blockEntity).tick() : null;
+        // 🕸️ 導管不再各自 tick，由 ConduitNetworkGraph 以分量為單位統一驅動
+        return null;
     }
 
 
@@ -217,25 +269,25 @@ public class ArcaneConduitBlock extends BaseEntityBlock {
     // 你還需要確保有這個方法：
 
     public BlockState updateConnections(Level level, BlockPos pos, BlockState state) {
-        BlockState newState = state;
-
-        for (Direction direction : Direction.values()) {
-            // ✅ 修復：應該從當前位置 pos 朝 direction 方向檢查，不是從 neighborPos
-            boolean shouldConnect = canConnectTo(level, pos, direction);
-
-            BooleanProperty property = switch (direction) {
-                case NORTH -> ArcaneConduitBlock.NORTH;
-                case SOUTH -> ArcaneConduitBlock.SOUTH;
-                case WEST -> ArcaneConduitBlock.WEST;
-                case EAST -> ArcaneConduitBlock.EAST;
-                case UP -> ArcaneConduitBlock.UP;
-                case DOWN -> ArcaneConduitBlock.DOWN;
-            };
+        int mask = 0;
 
-            newState = newState.setValue(property, shouldConnect);
+        if (level.getBlockEntity(pos) instanceof ArcaneConduitBlockEntity conduit) {
+            // 🔗 讀自己的 IO 配置與鄰居能力緩存，不再每個方向重新查方塊實體
+            for (Direction direction : DIRECTIONS) {
+                if (canConnectTo(conduit, direction)) {
+                    mask |= 1 << direction.get3DDataValue();
+                }
+            }
+        } else {
+            // 方塊實體還沒建立：只看目標
+            for (Direction direction : DIRECTIONS) {
+                if (canConnectTo(level, pos, direction)) {
+                    mask |= 1 << direction.get3DDataValue();
+                }
+            }
         }
 
-        return newState;
+        return withConnectionMask(state, mask);
     }
 
 
@@ -243,53 +295,37 @@ public class ArcaneConduitBlock extends BaseEntityBlock {
     public void onPlace(BlockState state, Level level, BlockPos pos, BlockState oldState, boolean movedByPiston) {
         super.onPlace(state, level, pos, oldState, movedByPiston);
 
-        if (!level.isClientSide && !movedByPiston) {
-            // 延遲1tick更新連接，讓放置音效先播放
-            level.scheduleTick(pos, this, 1);
+        // 只改連接屬性時 onPlace 也會被呼叫，只有真正新放置才排程
+        if (level instanceof ServerLevel serverLevel && !movedByPiston && !oldState.is(this)) {
+            // 🔗 交給批次佇列：tick 結束時自己與鄰居導管各重算一次連接，讓放置音效先播放
+            ConduitConnectionUpdater.get(serverLevel).queueWithNeighbors(pos);
         }
     }
 
     @Override
     public void tick(BlockState state, ServerLevel level, BlockPos pos, RandomSource random) {
-        // 執行延遲的連接更新
-        updateConnectionsAfterPlacement(level, pos, state);
+        // 舊存檔中還排著的放置 tick
+        ConduitConnectionUpdater.get(level).queueWithNeighbors(pos);
     }
 
-
-    private void updateConnectionsAfterPlacement(Level level, BlockPos pos, BlockState state) {
-        // 1. 更新自己的連接
-        BlockState newState = updateConnections(level, pos, state);
-        if (newState != state) {
-            level.setBlock(pos, newState, 3);
+    private static boolean canConnectTo(ArcaneConduitBlockEntity conduit, Direction direction) {
+        // 🔧 檢查自己的IO配置
+        if (conduit.getIOConfig(direction) == IOHandlerUtils.IOType.DISABLED) {
+            return false; // 我自己禁用了這個方向
         }
 
-        // 2. 通知所有鄰居導管重新檢查連接
-        for (Direction dir : Direction.values()) {
-            BlockPos neighborPos = pos.relative(dir);
-            BlockEntity neighborBE = level.getBlockEntity(neighborPos);
-
-            if (neighborBE instanceof ArcaneConduitBlockEntity) {
-                BlockState neighborState = level.getBlockState(neighborPos);
-                if (neighborState.getBlock() instanceof ArcaneConduitBlock) {
-                    BlockState updatedNeighbor = updateConnections(level, neighborPos, neighborState);
-                    if (updatedNeighbor != neighborState) {
-                        level.setBlock(neighborPos, updatedNeighbor, 3);
-                    }
-                }
-            }
+        NeighborCapabilityCache neighbors = conduit.getNeighborCapabilities();
+
+        // 🔧 目標是導管：對方沒有禁用對應面就連接
+        if (neighbors.getNeighbor(direction) instanceof ArcaneConduitBlockEntity targetConduit) {
+            return targetConduit.getIOConfig(direction.getOpposite()) != IOHandlerUtils.IOType.DISABLED;
         }
+
+        // 🔧 其他方塊：有魔力能力才連接
+        return neighbors.getMana(direction) != null;
     }
 
     private boolean canConnectTo(Level level, BlockPos pos, Direction direction) {
-        // 🔧 檢查自己的IO配置
-        BlockEntity thisBE = level.getBlockEntity(pos);
-        if (thisBE instanceof ArcaneConduitBlockEntity thisConduit) {
-            IOHandlerUtils.IOType myConfig = thisConduit.getIOConfig(direction);
-            if (myConfig == IOHandlerUtils.IOType.DISABLED) {
-                return false; // 我自己禁用了這個方向
-            }
-        }
-
         // 🔧 檢查目標位置
         BlockPos targetPos = pos.relative(direction);
 
@@ -314,17 +350,9 @@ public class ArcaneConduitBlock extends BaseEntityBlock {
 
     @Override
     public void neighborChanged(BlockState state, Level level, BlockPos pos, Block neighborBlock, BlockPos neighborPos, boolean movedByPiston) {
-        if (!level.isClientSide) {
-            // 更新視覺連接
-            BlockState newState = updateConnections(level, pos, state);
-            if (newState != state) {
-                level.setBlock(pos, newState, 3);
-            }
-
-            // 🔧 關鍵：通知 BlockEntity 鄰居變化
-            if (level.getBlockEntity(pos) instanceof ArcaneConduitBlockEntity conduit) {
-                conduit.onNeighborChanged();
-            }
+        if (level instanceof ServerLevel serverLevel) {
+            // 🔗 同一 tick 內多次鄰居變化只記一次，連接狀態與 BlockEntity 的網路重掃由批次佇列處理
+            ConduitConnectionUpdater.get(serverLevel).queueNeighborChanged(pos);
         }
         super.neighborChanged(state, level, pos, neighborBlock, neighborPos, movedByPiston);
     }
@@ -731,11 +759,12 @@ public class ArcaneConduitBlock extends BaseEntityBlock {
 
     private void showTechnicalInfo(ArcaneConduitBlockEntity conduit, Player player) {
         // 🆕 顯示技術信息：網路ID、傳輸速率、性能統計等
+        ConduitCacheStore cacheStore = ConduitCacheStore.get(conduit.getLevel());
         player.displayClientMessage(Component.translatable(
                 "message.koniava.conduit.technical_info",
                 conduit.getBlockPos().toString(),
                 conduit.getManaStored(),
-                "TODO: 網路統計"
+                cacheStore != null ? cacheStore.getStatsSummary() : "-"
         ), false);
     }
 }
\ No newline at end of file
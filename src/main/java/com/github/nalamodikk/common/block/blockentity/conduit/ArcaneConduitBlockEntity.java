@@ -2,11 +2,13 @@ package com.github.nalamodikk.common.block.blockentity.conduit;// 🏗️ 簡化
 
 // === 1. 在頂部添加所有 Manager imports ===
 
-import com.github.nalamodikk.KoniavacraftMod;
 import com.github.nalamodikk.common.block.blockentity.conduit.ConduitTier;
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.CacheManager;
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.IOManager;
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.StatsManager;
+import com.github.nalamodikk.common.block.blockentity.conduit.manager.network.ConduitConnectionUpdater;
+import com.github.nalamodikk.common.block.blockentity.conduit.manager.network.ConduitNetworkGraph;
+import com.github.nalamodikk.common.block.blockentity.conduit.manager.network.ConduitNetworkSavedData;
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.network.NetworkManager;
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.network.VirtualNetwork;
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.transfer.PullManager;
@@ -17,14 +19,18 @@ import com.github.nalamodikk.common.capability.mana.ManaAction;
 import com.github.nalamodikk.common.coreapi.block.IConfigurableBlock;
 import com.github.nalamodikk.common.item.tool.BasicTechWandItem;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
+import com.github.nalamodikk.common.utils.capability.NeighborCapabilityCache;
 import com.github.nalamodikk.register.ModBlockEntities;
 import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.HashCommon;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
@@ -34,15 +40,15 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 import org.slf4j.Logger;
 
-import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedManaHandler, IConfigurableBlock {
-    private CompoundTag tempNetworkData = null;
-    private boolean needsNetworkRestore = false;
+    // 💾 存檔中記錄的虛擬網路 ID（-1 表示無），載入後向 ConduitNetworkSavedData 領回魔力
+    private long savedNetworkId = -1;
+    // 舊版存檔：每個導管都存了整個網路的魔力，只由位置最小的導管遷移一次
+    private int legacyNetworkMana = 0;
+    private boolean chunkUnloading = false;
     // === 保留的常量和靜態字段 ===
     public static final Logger LOGGER = LogUtils.getLogger();
 
@@ -53,14 +59,9 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
     private static final int NETWORK_SCAN_INTERVAL = 600;
     private static final int PULL_INTERVAL_TICKS = 10; // 每10tick拉取一次
     private static final int MAX_PULL_PER_TICK = 100;  // 每次最多拉取100魔力
+    private static final long TRANSFER_ACTIVE_TICKS = 20; // 傳輸狀態顯示窗口（1秒）
     private int pullTickCounter = 0;
-    // === 日誌控制 ===
-    private int lastLoggedMana = -1;
-    private int lastLoggedConduitCount = -1;
 
-    // 保留全域緩存管理的靜態字段（由CacheManager管理）
-    private static int globalTickOffset = 0;
-    private static final Map<BlockPos, Integer> conduitTickOffsets = new ConcurrentHashMap<>();
 
     // === 🆕 組件化核心 ===
     // 🆕 導管等級系統
@@ -73,6 +74,7 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
     private final CacheManager cacheManager;
     private final NetworkManager networkManager;
     private final TransferManager transferManager;
+    private final NeighborCapabilityCache neighborCapabilities;
     private VirtualNetwork virtualNetwork;
     private PullManager activePullManager;
 
@@ -105,12 +107,12 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
 
         // 初始化所有管理器
         this.ioManager = new IOManager();
-        this.statsManager = new StatsManager();
-        this.cacheManager = new CacheManager(pos);
+        this.statsManager = new StatsManager(() -> level != null ? level.getGameTime() : 0);
+        this.cacheManager = new CacheManager(this);
+        this.neighborCapabilities = new NeighborCapabilityCache(this, this::onNeighborCapabilityInvalidated);
 
-        // 設定tick偏移
-        this.tickOffset = conduitTickOffsets.computeIfAbsent(pos,
-                k -> (globalTickOffset++) % NETWORK_SCAN_INTERVAL);
+        // 設定tick偏移：由座標雜湊決定，不需要全域靜態表（也不會跨維度衝突）
+        this.tickOffset = Math.floorMod(HashCommon.mix(pos.asLong()), NETWORK_SCAN_INTERVAL);
 
         // 初始化需要相互引用的管理器
         this.networkManager = new NetworkManager(this, cacheManager, ioManager, tickOffset);
@@ -142,17 +144,24 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
         networkManager.onDirectionConfigChanged(direction);
         setChanged();
 
+        // 🕸️ 連接可能改變，交給網路圖增量合併 / 拆分
+        if (level instanceof ServerLevel serverLevel) {
+            ConduitNetworkGraph.get(serverLevel).onConnectionsChanged(this);
+        }
+
         // 通知相鄰導管
         if (level != null && !level.isClientSide) {
-            BlockPos neighborPos = worldPosition.relative(direction);
-            BlockEntity neighborBE = level.getBlockEntity(neighborPos);
-            if (neighborBE instanceof ArcaneConduitBlockEntity neighborConduit) {
+            if (neighborCapabilities.getNeighbor(direction) instanceof ArcaneConduitBlockEntity neighborConduit) {
                 neighborConduit.markNetworkDirty();
             }
         }
 
-        // 更新方塊狀態連接
-        updateBlockStateConnections();
+        // 更新方塊狀態連接：對面導管的連接也取決於這一面的設定
+        if (level instanceof ServerLevel serverLevel) {
+            ConduitConnectionUpdater updater = ConduitConnectionUpdater.get(serverLevel);
+            updater.queue(worldPosition);
+            updater.queue(worldPosition.relative(direction));
+        }
     }
 
     private void handlePriorityChange(Direction direction, int newPriority) {
@@ -161,6 +170,10 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
     }
 
     // === 🆕 超級簡化的 tick 方法 ===
+    /**
+     * 由 {@link ConduitNetworkGraph} 每 tick 對邊界導管呼叫一次
+     * 導管本身不再註冊 BlockEntityTicker
+     */
     public void tick() {
         if (level == null || level.isClientSide) return;
 
@@ -295,8 +308,9 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
         StatsManager.TransferStats stats = statsManager.getTransferStats(direction);
         if (stats == null) return false;
 
-        long currentTime = System.currentTimeMillis();
-        return (currentTime - stats.lastTransfer) < 1000;
+        // 最近 1 秒（20 tick）內有傳輸視為傳輸中
+        long currentTime = level != null ? level.getGameTime() : 0;
+        return (currentTime - stats.lastTransfer) < TRANSFER_ACTIVE_TICKS;
     }
 
     // 連接查詢委派
@@ -314,24 +328,22 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
     }
 
     // === 🆕 簡化的鄰居變化處理 ===
+    /**
+     * 由 {@link ConduitConnectionUpdater} 批次呼叫（每個座標每 tick 最多一次），方塊狀態已由佇列更新
+     */
     public void onNeighborChanged() {
         LOGGER.debug("Neighbor changed for conduit at {}", worldPosition);
 
         // 委派給網路管理器
         networkManager.onNeighborChanged();
 
-        // 更新方塊狀態
         if (level != null && !level.isClientSide) {
-            updateBlockStateConnections();
-            if (virtualNetwork == null) {
-                tryJoinVirtualNetwork();
+            if (level instanceof ServerLevel serverLevel) {
+                ConduitNetworkGraph.get(serverLevel).markEndpointsDirty(this);
             }
             // 通知所有相鄰的導管也重新掃描
             for (Direction dir : Direction.values()) {
-                BlockPos neighborPos = worldPosition.relative(dir);
-                BlockEntity neighborBE = level.getBlockEntity(neighborPos);
-
-                if (neighborBE instanceof ArcaneConduitBlockEntity neighborConduit) {
+                if (neighborCapabilities.getNeighbor(dir) instanceof ArcaneConduitBlockEntity neighborConduit) {
                     neighborConduit.markNetworkDirty();
                 }
             }
@@ -340,19 +352,38 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
         LOGGER.debug("Network state reset for conduit at {}", worldPosition);
     }
 
+    /**
+     * 🔗 鄰居能力失效（NeoForge 失效監聽器回調）
+     * 只做標記，下一個網路圖 tick 再重新掃描端點
+     */
+    private void onNeighborCapabilityInvalidated() {
+        if (level instanceof ServerLevel serverLevel) {
+            ConduitNetworkGraph.get(serverLevel).markEndpointsDirty(this);
+        }
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        // 區塊卸載時 setRemoved 也會被呼叫，先標記以便保留網路魔力
+        chunkUnloading = true;
+        super.onChunkUnloaded();
+    }
+
     // === 🆕 簡化的移除處理 ===
     @Override
     public void setRemoved() {
         LOGGER.debug("Removing conduit at {}", worldPosition);
 
         try {
-            leaveVirtualNetwork();
+            if (level instanceof ServerLevel serverLevel) {
+                ConduitNetworkGraph.get(serverLevel).removeConduit(this, chunkUnloading);
+            } else {
+                leaveVirtualNetwork();
+            }
 
             // 委派給緩存管理器清理
             cacheManager.invalidateAll();
-
-            // ✅ 性能優化：清理靜態 map 中的條目，防止內存洩漏
-            conduitTickOffsets.remove(worldPosition);
+            neighborCapabilities.clear();
 
             LOGGER.debug("Conduit removed successfully: {}", worldPosition);
         } catch (Exception e) {
@@ -378,25 +409,9 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
 
         // 保存緩衝區
         tag.put("Buffer", buffer.serializeNBT(registries));
+        // 💾 只記錄網路 ID，網路魔力由 ConduitNetworkSavedData 每個網路保存一次
         if (virtualNetwork != null) {
-            tag.putInt("VirtualNetworkMana", virtualNetwork.getTotalManaStored());
-            tag.putInt("VirtualNetworkMaxMana", virtualNetwork.getMaxManaStored());
-            int currentMana = virtualNetwork.getTotalManaStored();
-            int conduitCount = virtualNetwork.getConnectedConduits().size();
-
-            // 🔧 保存網路中的所有導管位置
-            ListTag conduitList = new ListTag();
-            for (BlockPos pos : virtualNetwork.getConnectedConduits()) {
-                CompoundTag posTag = new CompoundTag();
-                posTag.putInt("x", pos.getX());
-                posTag.putInt("y", pos.getY());
-                posTag.putInt("z", pos.getZ());
-                conduitList.add(posTag);
-            }
-            tag.put("VirtualNetworkConduits", conduitList);
-
-            // 🔧 使用頻率控制的日誌
-            logVirtualNetworkSave(currentMana, conduitCount);
+            tag.putLong("VirtualNetworkId", virtualNetwork.getId());
         }
         tag.putInt("pullTickCounter", pullTickCounter);
 
@@ -422,19 +437,13 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
             buffer.deserializeNBT(registries, tag.getCompound("Buffer"));
         }
 
-        // 🔧 關鍵修復：載入虛擬網路數據
-        if (tag.contains("VirtualNetworkMana")) {
-            tempNetworkData = new CompoundTag();
-            tempNetworkData.putInt("Mana", tag.getInt("VirtualNetworkMana"));
-            tempNetworkData.putInt("MaxMana", tag.getInt("VirtualNetworkMaxMana"));
-
-            if (tag.contains("VirtualNetworkConduits")) {
-                tempNetworkData.put("Conduits", tag.get("VirtualNetworkConduits"));
-            }
+        // 💾 載入虛擬網路 ID
+        savedNetworkId = tag.contains("VirtualNetworkId") ? tag.getLong("VirtualNetworkId") : -1;
 
-            needsNetworkRestore = true;
-
-            LOGGER.info("📂 準備恢復虛擬網路魔力: {}", tag.getInt("VirtualNetworkMana"));
+        // 🔧 舊版存檔：VirtualNetworkMana + 成員座標列表，只有位置最小的導管負責遷移
+        legacyNetworkMana = 0;
+        if (tag.contains("VirtualNetworkMana") && isLegacyNetworkMaster(tag.getList("VirtualNetworkConduits", Tag.TAG_COMPOUND))) {
+            legacyNetworkMana = tag.getInt("VirtualNetworkMana");
         }
         // 🆕 載入拉取計數器
         pullTickCounter = tag.getInt("pullTickCounter");
@@ -448,46 +457,6 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
         networkManager.markDirty();
     }
 
-    /**
-     * 🔧 頻率控制的虛擬網路保存日誌
-     */
-    private void logVirtualNetworkSave(int currentMana, int conduitCount) {
-        // 1. 網路剛建立（第一次保存）
-        if (lastLoggedMana == -1) {
-            if (KoniavacraftMod.IS_DEV) {
-                LOGGER.debug("💾 虛擬網路已建立，魔力: {}, 連接數: {}", currentMana, conduitCount);
-            }
-
-            lastLoggedMana = currentMana;
-            lastLoggedConduitCount = conduitCount;
-            return;
-        }
-
-        // 2. 連接數變化（網路拓撲改變）
-        if (conduitCount != lastLoggedConduitCount) {
-            if (KoniavacraftMod.IS_DEV) {
-                LOGGER.info("💾 虛擬網路連接變化: {} → {} 導管, 當前魔力: {}", lastLoggedConduitCount, conduitCount, currentMana);
-            }
-            lastLoggedConduitCount = conduitCount;
-            lastLoggedMana = currentMana;
-            return;
-        }
-
-        // 3. 魔力值有重大變化（變化超過2000）
-        if (Math.abs(currentMana - lastLoggedMana) > 2000) {
-            if (KoniavacraftMod.IS_DEV) {
-
-                LOGGER.info("💾 虛擬網路魔力重大變化: {} → {}, 連接數: {}",
-                    lastLoggedMana, currentMana, conduitCount);
-        }
-            lastLoggedMana = currentMana;
-            return;
-        }
-
-        // 其他情況：靜默保存（不輸出任何日誌）
-    }
-
-
     // === 🆕 簡化的載入處理 ===
     @Override
     public void onLoad() {
@@ -502,57 +471,45 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
                     this.worldPosition,
                     this);  // ← 改成傳入 this
 
-            if (!level.isClientSide) {
-                tryJoinVirtualNetwork();
+            if (level instanceof ServerLevel serverLevel) {
+                // 🕸️ 加入網路圖，由圖分配所屬分量與虛擬網路
+                ConduitNetworkGraph.get(serverLevel).addConduit(this);
 
 
-                // 🔧 關鍵修復：恢復虛擬網路數據
-                if (needsNetworkRestore && tempNetworkData != null && virtualNetwork != null) {
-                    restoreVirtualNetworkData();
-                }
+                // 💾 恢復虛擬網路魔力
+                restoreVirtualNetworkData(serverLevel);
             }
         }
 
     }
 
-    private void restoreVirtualNetworkData() {
-        if (tempNetworkData == null || virtualNetwork == null) return;
-
-        try {
-            int savedMana = tempNetworkData.getInt("Mana");
-
-            // 🔧 關鍵：只有網路中的第一個導管負責恢復魔力
-            // 避免重複恢復
-            if (isNetworkMaster()) {
-                virtualNetwork.setTotalManaStored(savedMana);
-                LOGGER.info("🔄 恢復虛擬網路魔力: {} (網路主導管)", savedMana);
-            } else {
-                LOGGER.info("🔄 跳過魔力恢復，不是網路主導管");
-            }
+    private void restoreVirtualNetworkData(ServerLevel serverLevel) {
+        if (virtualNetwork == null) return;
 
-            needsNetworkRestore = false;
-            tempNetworkData = null;
+        if (savedNetworkId >= 0) {
+            ConduitNetworkSavedData.get(serverLevel).restoreInto(savedNetworkId, virtualNetwork);
+            savedNetworkId = -1;
+        }
 
-        } catch (Exception e) {
-            LOGGER.error("❌ 恢復虛擬網路數據失敗: {}", e.getMessage());
-            needsNetworkRestore = false;
-            tempNetworkData = null;
+        if (legacyNetworkMana > 0) {
+            virtualNetwork.restoreMana(legacyNetworkMana);
+            LOGGER.debug("🔄 遷移舊版虛擬網路魔力: {} at {}", legacyNetworkMana, worldPosition);
+            legacyNetworkMana = 0;
+            setChanged();
         }
     }
 
-    // 🆕 判斷是否為網路主導管（位置最小的導管）
-    private boolean isNetworkMaster() {
-        if (virtualNetwork == null) return false;
-
-        Set<BlockPos> conduits = virtualNetwork.getConnectedConduits();
+    // 🆕 舊版存檔：判斷是否為網路主導管（成員列表中位置最小的導管）
+    private boolean isLegacyNetworkMaster(ListTag conduits) {
         if (conduits.isEmpty()) return true;
 
-        // 找到位置最小的導管作為主導管
-        BlockPos minPos = conduits.stream()
-                .min(Comparator.comparingLong(BlockPos::asLong))
-                .orElse(worldPosition);
+        long minPos = Long.MAX_VALUE;
+        for (int i = 0; i < conduits.size(); i++) {
+            CompoundTag posTag = conduits.getCompound(i);
+            minPos = Math.min(minPos, BlockPos.asLong(posTag.getInt("x"), posTag.getInt("y"), posTag.getInt("z")));
+        }
 
-        return worldPosition.equals(minPos);
+        return worldPosition.asLong() == minPos;
     }
 
     // === 🆕 等級系統相關方法 ===
@@ -572,6 +529,9 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
             this.tier = newTier;
             // 更新緩衝區容量
             buffer.setCapacity(newTier.getBufferCapacity());
+            if (virtualNetwork != null) {
+                virtualNetwork.onMemberTierChanged(this);
+            }
             setChanged();
 
             // 通知客戶端
@@ -805,17 +765,6 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
         }
     }
 
-    // === 保留的輔助方法 ===
-    private void updateBlockStateConnections() {
-        BlockState currentState = level.getBlockState(worldPosition);
-        if (currentState.getBlock() instanceof ArcaneConduitBlock conduitBlock) {
-            BlockState newState = conduitBlock.updateConnections(level, worldPosition, currentState);
-            if (newState != currentState) {
-                level.setBlock(worldPosition, newState, 3);
-            }
-        }
-    }
-
     // === 🆕 靜態清理方法（保留但簡化） ===
     public static void clearAllStaticCachesGracefully() {
         try {
@@ -824,9 +773,6 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
             // 委派給緩存管理器
             CacheManager.clearAllStaticCaches();
 
-            // 清理其他靜態數據
-            conduitTickOffsets.clear();
-
             LOGGER.info("Graceful cleanup completed");
 
         } catch (Exception e) {
@@ -862,67 +808,40 @@ public class ArcaneConduitBlockEntity extends BlockEntity implements IUnifiedMan
     }
 
     /**
-     * 🆕 檢查是否在虛擬網路中
+     * 🔗 鄰居能力緩存（網路掃描、傳輸與拉取共用）
      */
-    public boolean isInVirtualNetwork() {
-        return virtualNetwork != null;
+    public NeighborCapabilityCache getNeighborCapabilities() {
+        return neighborCapabilities;
     }
 
     /**
-     * 🆕 嘗試加入虛擬網路
+     * 🆕 檢查是否在虛擬網路中
      */
-    private void tryJoinVirtualNetwork() {
-        if (virtualNetwork != null) return; // 已經在網路中
-
-        // 搜尋鄰近的導管
-        for (Direction dir : Direction.values()) {
-            BlockPos neighborPos = worldPosition.relative(dir);
-            BlockEntity neighborBE = level.getBlockEntity(neighborPos);
-
-            if (neighborBE instanceof ArcaneConduitBlockEntity neighborConduit) {
-                VirtualNetwork neighborNetwork = neighborConduit.getVirtualNetwork();
-
-                if (neighborNetwork != null) {
-                    // 加入鄰居的網路
-                    joinVirtualNetwork(neighborNetwork);
-                    return;
-                }
-            }
-        }
-
-        // 沒有鄰近網路，創建新的
-        createNewVirtualNetwork();
+    public boolean isInVirtualNetwork() {
+        return virtualNetwork != null;
     }
 
     /**
-     * 🆕 創建新的虛擬網路
+     * 🆕 加入（或切換到）指定的虛擬網路
+     * 由 {@link ConduitNetworkGraph} 在分量建立、合併、拆分時呼叫
      */
-    private void createNewVirtualNetwork() {
-        virtualNetwork = new VirtualNetwork();
-        virtualNetwork.addConduit(this);
-
-        LOGGER.info("Created new virtual network at {}", worldPosition);
-    }
+    public void joinVirtualNetwork(VirtualNetwork network) {
+        if (virtualNetwork == network) return;
 
-    /**
-     * 🆕 加入現有的虛擬網路
-     */
-    private void joinVirtualNetwork(VirtualNetwork network) {
+        if (virtualNetwork != null) {
+            virtualNetwork.removeConduit(worldPosition);
+        }
         virtualNetwork = network;
         network.addConduit(this);
-
-        LOGGER.info("Joined virtual network at {}", worldPosition);
     }
 
     /**
      * 🆕 離開虛擬網路
      */
-    private void leaveVirtualNetwork() {
+    public void leaveVirtualNetwork() {
         if (virtualNetwork != null) {
             virtualNetwork.removeConduit(worldPosition);
             virtualNetwork = null;
-
-            LOGGER.info("Left virtual network at {}", worldPosition);
         }
     }
 }
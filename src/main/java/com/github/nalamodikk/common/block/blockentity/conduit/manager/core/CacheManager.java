@@ -4,38 +4,49 @@ import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.entity.BlockEntity;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 導管緩存管理器
  * 負責管理網路拓撲緩存、目標緩存和性能優化
+ * ⏱️ 緩存壽命以世界遊戲時間（tick）計算
  */
 public class CacheManager {
 
     // === 常量 ===
-    private static final long CACHE_VERSION_CHECK_INTERVAL = 30000; // 30秒驗證一次
-    private static final int TARGET_CACHE_DURATION = 2000; // 2秒緩存持續時間
+    private static final int TARGET_CACHE_DURATION = 40; // 2秒（40 tick）緩存持續時間
+    private static final long TARGET_RESCAN_INTERVAL = 100; // 5秒（100 tick）重新掃描目標
+    private static final long LOCAL_CACHE_MAX_AGE = 6000; // 5分鐘（6000 tick）
+
+    private static final long SHARED_CACHE_MAX_AGE = 6000; // 5分鐘（6000 tick）
 
     // === 實例相關緩存 ===
-    private final BlockPos position;
-    private final Map<Direction, TargetInfo> cachedTargets = new HashMap<>();
+    private final BlockEntity owner;
+    private final Map<Direction, TargetInfo> cachedTargets = new EnumMap<>(Direction.class);
     private final Map<Direction, CacheableEndpoint> localCache = new HashMap<>();
     private long lastTargetScan = 0;
 
-    // === 靜態緩存（所有導管共享） ===
-    private static final Map<BlockPos, Long> lastScanTime = new ConcurrentHashMap<>();
-    private static final Map<BlockPos, Map<Direction, ManaEndpoint>> sharedCache = new ConcurrentHashMap<>();
-    private static final Map<BlockPos, Set<BlockPos>> sharedNetworkNodes = new ConcurrentHashMap<>();
-    private static final Map<BlockPos, Map<Direction, CacheableEndpoint>> persistentCache = new ConcurrentHashMap<>();
-    private static final Map<BlockPos, Long> cacheVersions = new ConcurrentHashMap<>();
-
     // === 建構子 ===
-    public CacheManager(BlockPos position) {
-        this.position = position;
+    // 共享緩存改由所在世界的 ConduitCacheStore 保存（鍵為維度 + 打包座標）
+    public CacheManager(BlockEntity owner) {
+        this.owner = owner;
+    }
+
+    private ConduitCacheStore store() {
+        return ConduitCacheStore.get(owner.getLevel());
+    }
+
+    private long positionKey() {
+        return owner.getBlockPos().asLong();
+    }
+
+    private long gameTime() {
+        return owner.getLevel() != null ? owner.getLevel().getGameTime() : 0;
     }
 
     // === 目標緩存管理 ===
@@ -45,14 +56,14 @@ public class CacheManager {
      */
     public TargetInfo getCachedTarget(Direction direction) {
         TargetInfo target = cachedTargets.get(direction);
-        return (target != null && target.isValid()) ? target : null;
+        return (target != null && target.isValid(gameTime())) ? target : null;
     }
 
     /**
      * 設定目標緩存
      */
     public void setCachedTarget(Direction direction, IUnifiedManaHandler handler, boolean isConduit) {
-        TargetInfo targetInfo = new TargetInfo(handler, isConduit);
+        TargetInfo targetInfo = new TargetInfo(handler, isConduit, gameTime());
         cachedTargets.put(direction, targetInfo);
     }
 
@@ -75,14 +86,14 @@ public class CacheManager {
      * 檢查是否需要重新掃描目標
      */
     public boolean needsTargetRescan() {
-        return System.currentTimeMillis() - lastTargetScan > 5000 || cachedTargets.isEmpty();
+        return gameTime() - lastTargetScan > TARGET_RESCAN_INTERVAL || cachedTargets.isEmpty();
     }
 
     /**
      * 更新最後掃描時間
      */
     public void updateLastScanTime() {
-        lastTargetScan = System.currentTimeMillis();
+        lastTargetScan = gameTime();
     }
 
     // === 網路拓撲緩存 ===
@@ -91,38 +102,56 @@ public class CacheManager {
      * 獲取共享緩存
      */
     public Map<Direction, ManaEndpoint> getSharedCache() {
-        return sharedCache.get(position);
+        ConduitCacheStore store = store();
+        if (store == null) return null;
+
+        ConduitCacheStore.Entry entry = store.get(positionKey());
+        return entry != null ? entry.endpoints : null;
     }
 
     /**
      * 設定共享緩存
      */
     public void setSharedCache(Map<Direction, ManaEndpoint> cache) {
-        sharedCache.put(position, new HashMap<>(cache));
-        lastScanTime.put(position, System.currentTimeMillis());
+        ConduitCacheStore store = store();
+        if (store == null) return;
+
+        ConduitCacheStore.Entry entry = store.getOrCreate(positionKey());
+        entry.endpoints = cache.isEmpty() ? new EnumMap<>(Direction.class) : new EnumMap<>(cache);
+        entry.lastScanTime = gameTime();
     }
 
     /**
      * 獲取網路節點緩存
      */
     public Set<BlockPos> getSharedNetworkNodes() {
-        return sharedNetworkNodes.get(position);
+        ConduitCacheStore store = store();
+        if (store == null) return null;
+
+        ConduitCacheStore.Entry entry = store.get(positionKey());
+        return entry != null ? entry.networkNodes : null;
     }
 
     /**
      * 設定網路節點緩存
      */
     public void setSharedNetworkNodes(Set<BlockPos> nodes) {
-        sharedNetworkNodes.put(position, Set.copyOf(nodes));
+        ConduitCacheStore store = store();
+        if (store == null) return;
+
+        store.getOrCreate(positionKey()).networkNodes = Set.copyOf(nodes);
     }
 
     /**
-     * 檢查緩存是否有效
+     * 檢查緩存是否有效（maxAge 單位為 tick）
      */
     public boolean isCacheValid(long maxAge) {
-        Long lastScan = lastScanTime.get(position);
-        if (lastScan == null) return false;
-        return System.currentTimeMillis() - lastScan < maxAge;
+        ConduitCacheStore store = store();
+        if (store == null) return false;
+
+        ConduitCacheStore.Entry entry = store.get(positionKey());
+        if (entry == null || entry.endpoints == null) return false;
+        return gameTime() - entry.lastScanTime < maxAge;
     }
 
     // === 緩存失效管理 ===
@@ -135,12 +164,11 @@ public class CacheManager {
         cachedTargets.clear();
         localCache.clear();
 
-        // 清除靜態緩存
-        sharedCache.remove(position);
-        sharedNetworkNodes.remove(position);
-        lastScanTime.remove(position);
-        persistentCache.remove(position);
-        cacheVersions.remove(position);
+        // 清除共享緩存
+        ConduitCacheStore store = store();
+        if (store != null) {
+            store.remove(positionKey());
+        }
     }
 
     /**
@@ -151,7 +179,7 @@ public class CacheManager {
         localCache.remove(direction);
 
         // 如果有共享緩存，也要清除對應方向
-        Map<Direction, ManaEndpoint> shared = sharedCache.get(position);
+        Map<Direction, ManaEndpoint> shared = getSharedCache();
         if (shared != null) {
             shared.remove(direction);
         }
@@ -163,47 +191,28 @@ public class CacheManager {
      * 執行定期清理
      */
     public void cleanup() {
-        long now = System.currentTimeMillis();
+        long now = gameTime();
 
         // 清理過期的目標緩存
-        cachedTargets.entrySet().removeIf(entry -> !entry.getValue().isValid());
+        cachedTargets.entrySet().removeIf(entry -> !entry.getValue().isValid(now));
 
         // 清理過期的本地緩存
-        localCache.entrySet().removeIf(entry -> entry.getValue().isExpired(300000)); // 5分鐘
+        localCache.entrySet().removeIf(entry -> entry.getValue().isExpired(now, LOCAL_CACHE_MAX_AGE));
     }
 
     /**
      * 全域緩存維護（靜態方法）
      */
     public static void performGlobalMaintenance() {
-        long now = System.currentTimeMillis();
-
-        // 清理超過5分鐘沒更新的緩存
-        lastScanTime.entrySet().removeIf(entry -> now - entry.getValue() > 300000);
-
-        // 清理對應的緩存數據
-        sharedCache.entrySet().removeIf(entry -> !lastScanTime.containsKey(entry.getKey()));
-        sharedNetworkNodes.entrySet().removeIf(entry -> !lastScanTime.containsKey(entry.getKey()));
-
-        // 清理過期的持久化緩存
-        persistentCache.entrySet().removeIf(entry -> {
-            Map<Direction, CacheableEndpoint> endpoints = entry.getValue();
-            return endpoints.values().stream().allMatch(endpoint -> endpoint.isExpired(600000)); // 10分鐘
-        });
-
-        // 清理對應的版本信息
-        cacheVersions.entrySet().removeIf(entry -> now - entry.getValue() > 600000);
+        // 清理超過5分鐘沒更新的緩存（各維度使用自己的遊戲時間）
+        ConduitCacheStore.forEachStore(store -> store.removeOlderThan(store.getGameTime(), SHARED_CACHE_MAX_AGE));
     }
 
     /**
-     * 清理所有靜態緩存（世界卸載時使用）
+     * 清理所有共享緩存（世界卸載時使用）
      */
     public static void clearAllStaticCaches() {
-        sharedCache.clear();
-        sharedNetworkNodes.clear();
-        lastScanTime.clear();
-        persistentCache.clear();
-        cacheVersions.clear();
+        ConduitCacheStore.clearAll();
     }
 
     // === 內部類 ===
@@ -215,16 +224,16 @@ public class CacheManager {
         public final long scanTime;
         public final boolean isConduit;
 
-        public TargetInfo(IUnifiedManaHandler handler, boolean isConduit) {
+        public TargetInfo(IUnifiedManaHandler handler, boolean isConduit, long gameTime) {
             this.availableSpace = handler.getMaxManaStored() - handler.getManaStored();
             this.storedMana = handler.getManaStored();
             this.canReceive = handler.canReceive() && availableSpace > 0;
-            this.scanTime = System.currentTimeMillis();
+            this.scanTime = gameTime;
             this.isConduit = isConduit;
         }
 
-        public boolean isValid() {
-            return System.currentTimeMillis() - scanTime < TARGET_CACHE_DURATION;
+        public boolean isValid(long gameTime) {
+            return gameTime - scanTime < TARGET_CACHE_DURATION;
         }
 
         public int getPriority() {
@@ -238,11 +247,11 @@ public class CacheManager {
         public final int priority;
         public long lastAccess;
 
-        public ManaEndpoint(IUnifiedManaHandler handler, boolean isConduit, int priority) {
+        public ManaEndpoint(IUnifiedManaHandler handler, boolean isConduit, int priority, long gameTime) {
             this.handler = handler;
             this.isConduit = isConduit;
             this.priority = priority;
-            this.lastAccess = System.currentTimeMillis();
+            this.lastAccess = gameTime;
         }
     }
 
@@ -257,18 +266,18 @@ public class CacheManager {
         public transient IUnifiedManaHandler handler;
         public transient boolean validated;
 
-        public CacheableEndpoint(BlockPos pos, IUnifiedManaHandler handler, boolean isConduit, int priority) {
+        public CacheableEndpoint(BlockPos pos, IUnifiedManaHandler handler, boolean isConduit, int priority, long gameTime) {
             this.position = pos;
             this.handler = handler;
             this.isConduit = isConduit;
             this.priority = priority;
-            this.cacheTime = System.currentTimeMillis();
+            this.cacheTime = gameTime;
             this.expectedIOType = null; // 可以擴展保存IO類型
             this.validated = true;
         }
 
-        public boolean isExpired(long maxAge) {
-            return System.currentTimeMillis() - cacheTime > maxAge;
+        public boolean isExpired(long gameTime, long maxAge) {
+            return gameTime - cacheTime > maxAge;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,228 @@
+package com.github.nalamodikk.common.block.blockentity.conduit.manager.core;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 🗄️ 導管共享緩存存放區（每個維度一份）
+ *
+ * 取代 CacheManager 以裸 BlockPos 為鍵的靜態 Map：
+ * - 以 (維度, 打包 long 座標) 為鍵，不同維度同座標不會互相污染
+ * - 容量上限 + LRU 淘汰，長時間運行的伺服器不會無限成長
+ * - 區塊卸載時自動清除該區塊內的條目
+ * - 記錄命中 / 未命中 / 淘汰次數
+ */
+@EventBusSubscriber(modid = KoniavacraftMod.MOD_ID)
+public class ConduitCacheStore {
+
+    private static final int MAX_ENTRIES = 16384;
+    private static final Map<ResourceKey<Level>, ConduitCacheStore> STORES = new HashMap<>();
+
+    private final Long2ObjectLinkedOpenHashMap<Entry> entries = new Long2ObjectLinkedOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> entriesByChunk = new Long2ObjectOpenHashMap<>();
+    private final ServerLevel level;
+    private final int maxEntries;
+
+    // === 統計 ===
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    private ConduitCacheStore(ServerLevel level, int maxEntries) {
+        this.level = level;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 獲取指定世界的緩存存放區；客戶端世界不使用共享緩存，返回 null
+     */
+    @Nullable
+    public static ConduitCacheStore get(@Nullable Level level) {
+        if (!(level instanceof ServerLevel serverLevel)) return null;
+
+        ConduitCacheStore store = STORES.get(serverLevel.dimension());
+        if (store == null || store.level != serverLevel) {
+            store = new ConduitCacheStore(serverLevel, MAX_ENTRIES);
+            STORES.put(serverLevel.dimension(), store);
+        }
+        return store;
+    }
+
+    // === 事件 ===
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            ConduitCacheStore store = STORES.get(serverLevel.dimension());
+            if (store != null) {
+                store.removeChunk(event.getChunk().getPos().toLong());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            STORES.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        clearAll();
+    }
+
+    // === 條目存取 ===
+
+    /**
+     * 查詢條目（計入命中 / 未命中並更新 LRU 順序）
+     */
+    @Nullable
+    public Entry get(long pos) {
+        Entry entry = entries.getAndMoveToLast(pos);
+        if (entry != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return entry;
+    }
+
+    /**
+     * 查詢條目，不存在時建立（超過容量時淘汰最久未使用的條目）
+     */
+    public Entry getOrCreate(long pos) {
+        Entry entry = entries.getAndMoveToLast(pos);
+        if (entry != null) return entry;
+
+        while (entries.size() >= maxEntries) {
+            long eldest = entries.firstLongKey();
+            remove(eldest);
+            evictions++;
+        }
+
+        entry = new Entry();
+        entries.putAndMoveToLast(pos, entry);
+        entriesByChunk.computeIfAbsent(chunkKey(pos), k -> new LongOpenHashSet()).add(pos);
+        return entry;
+    }
+
+    public void remove(long pos) {
+        if (entries.remove(pos) == null) return;
+
+        long chunk = chunkKey(pos);
+        LongOpenHashSet inChunk = entriesByChunk.get(chunk);
+        if (inChunk != null) {
+            inChunk.remove(pos);
+            if (inChunk.isEmpty()) {
+                entriesByChunk.remove(chunk);
+            }
+        }
+    }
+
+    private void removeChunk(long chunk) {
+        LongOpenHashSet inChunk = entriesByChunk.remove(chunk);
+        if (inChunk == null) return;
+
+        LongIterator it = inChunk.iterator();
+        while (it.hasNext()) {
+            entries.remove(it.nextLong());
+        }
+    }
+
+    private static long chunkKey(long pos) {
+        return ChunkPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getZ(pos) >> 4);
+    }
+
+    // === 維護 ===
+
+    /**
+     * 所屬維度的遊戲時間（緩存時間戳皆以此為準）
+     */
+    public long getGameTime() {
+        return level.getGameTime();
+    }
+
+    /**
+     * 移除超過 maxAge tick 沒有重新掃描的條目
+     */
+    public void removeOlderThan(long now, long maxAge) {
+        ObjectIterator<Long2ObjectLinkedOpenHashMap.Entry<Entry>> it = entries.long2ObjectEntrySet().fastIterator();
+        LongOpenHashSet expired = new LongOpenHashSet();
+        while (it.hasNext()) {
+            Long2ObjectLinkedOpenHashMap.Entry<Entry> e = it.next();
+            if (now - e.getValue().lastScanTime > maxAge) {
+                expired.add(e.getLongKey());
+            }
+        }
+
+        LongIterator keys = expired.iterator();
+        while (keys.hasNext()) {
+            remove(keys.nextLong());
+        }
+    }
+
+    public static void forEachStore(Consumer<ConduitCacheStore> action) {
+        STORES.values().forEach(action);
+    }
+
+    public static void clearAll() {
+        STORES.clear();
+    }
+
+    // === 統計查詢 ===
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public String getStatsSummary() {
+        long total = hits + misses;
+        double hitRate = total > 0 ? (double) hits / total * 100.0 : 0.0;
+        return String.format("entries=%d/%d, hits=%d, misses=%d (%.1f%%), evictions=%d",
+                entries.size(), maxEntries, hits, misses, hitRate, evictions);
+    }
+
+    // === 內部類：單一導管的共享緩存 ===
+
+    public static final class Entry {
+        public long lastScanTime; // 遊戲時間（tick）
+        @Nullable
+        public Map<Direction, CacheManager.ManaEndpoint> endpoints;
+        @Nullable
+        public Set<BlockPos> networkNodes;
+    }
+}
@@ -4,28 +4,33 @@ import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 
 import java.util.EnumMap;
+import java.util.function.LongSupplier;
 
 /**
  * 導管統計管理器
  * 負責追蹤傳輸統計、活動狀態和性能監控
+ * ⏱️ 所有時間皆為世界遊戲時間（tick），伺服器卡頓時不會提前過期
  */
 public class StatsManager {
 
     // === 常量 ===
-    private static final int IDLE_THRESHOLD = 600; // 30秒無活動視為閒置
+    private static final int IDLE_THRESHOLD = 600; // 30秒（600 tick）無活動視為閒置
+    private static final long STATS_DECAY_AGE = 6000; // 5分鐘（6000 tick）無傳輸開始衰減
 
     // === 統計數據 ===
     private final EnumMap<Direction, TransferStats> transferStats = new EnumMap<>(Direction.class);
+    private final LongSupplier gameTime;
     private long lastActivity;
     private boolean isIdle = false;
     private long tickCounter = 0;
 
     // === 建構子 ===
-    public StatsManager() {
+    public StatsManager(LongSupplier gameTime) {
+        this.gameTime = gameTime;
         for (Direction dir : Direction.values()) {
             transferStats.put(dir, new TransferStats());
         }
-        this.lastActivity = System.currentTimeMillis();
+        this.lastActivity = gameTime.getAsLong();
     }
 
     // === 傳輸統計 ===
@@ -36,8 +41,9 @@ public class StatsManager {
     public void recordTransfer(Direction direction, int amount, boolean success) {
         TransferStats stats = transferStats.get(direction);
         if (stats != null) {
-            stats.recordTransfer(amount, success);
-            lastActivity = System.currentTimeMillis();
+            long now = gameTime.getAsLong();
+            stats.recordTransfer(amount, success, now);
+            lastActivity = now;
             isIdle = false; // 有活動就不閒置
         }
     }
@@ -78,7 +84,7 @@ public class StatsManager {
      * 記錄活動
      */
     public void recordActivity() {
-        lastActivity = System.currentTimeMillis();
+        lastActivity = gameTime.getAsLong();
         isIdle = false;
     }
 
@@ -107,7 +113,7 @@ public class StatsManager {
      * 更新閒置狀態
      */
     private void updateIdleStatus() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = gameTime.getAsLong();
         isIdle = (currentTime - lastActivity) > IDLE_THRESHOLD;
     }
 
@@ -117,11 +123,11 @@ public class StatsManager {
      * 執行定期維護
      */
     public void performMaintenance() {
-        long now = System.currentTimeMillis();
+        long now = gameTime.getAsLong();
 
         // 衰減長時間無傳輸的統計
         transferStats.values().forEach(stats -> {
-            if (now - stats.lastTransfer > 300000) { // 5分鐘
+            if (now - stats.lastTransfer > STATS_DECAY_AGE) {
                 stats.averageRate *= 0.8;
             }
         });
@@ -134,7 +140,7 @@ public class StatsManager {
         for (TransferStats stats : transferStats.values()) {
             stats.reset();
         }
-        lastActivity = System.currentTimeMillis();
+        lastActivity = gameTime.getAsLong();
         isIdle = false;
     }
 
@@ -153,13 +159,13 @@ public class StatsManager {
             dirStats.putInt("Success", stats.successfulTransfers);
             dirStats.putInt("Failed", stats.failedTransfers);
             dirStats.putDouble("Rate", stats.averageRate);
-            dirStats.putLong("LastTransfer", stats.lastTransfer);
+            dirStats.putLong("LastTransferTick", stats.lastTransfer);
             statsTag.put(entry.getKey().name(), dirStats);
         }
         tag.put("Stats", statsTag);
 
         tag.putLong("TickCounter", tickCounter);
-        tag.putLong("LastActivity", lastActivity);
+        tag.putLong("LastActivityTick", lastActivity);
     }
 
     /**
@@ -177,13 +183,14 @@ public class StatsManager {
                     stats.successfulTransfers = dirStats.getInt("Success");
                     stats.failedTransfers = dirStats.getInt("Failed");
                     stats.averageRate = dirStats.getDouble("Rate");
-                    stats.lastTransfer = dirStats.getLong("LastTransfer");
+                    // 舊版 "LastTransfer" 為毫秒時間戳，與遊戲時間不可比，直接捨棄
+                    stats.lastTransfer = dirStats.getLong("LastTransferTick");
                 }
             }
         }
 
         tickCounter = tag.getLong("TickCounter");
-        lastActivity = tag.getLong("LastActivity");
+        lastActivity = tag.contains("LastActivityTick") ? tag.getLong("LastActivityTick") : gameTime.getAsLong();
         updateIdleStatus();
     }
 
@@ -196,7 +203,7 @@ public class StatsManager {
         public long lastTransfer = 0;
         public double averageRate = 0.0;
 
-        public void recordTransfer(int amount, boolean success) {
+        public void recordTransfer(int amount, boolean success, long gameTime) {
             if (success) {
                 totalTransferred += amount;
                 successfulTransfers++;
@@ -204,7 +211,7 @@ public class StatsManager {
             } else {
                 failedTransfers++;
             }
-            lastTransfer = System.currentTimeMillis();
+            lastTransfer = gameTime;
         }
 
         public double getReliability() {
@@ -5,8 +5,6 @@ import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.Cache
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.IOManager;
 import net.minecraft.core.Direction;
 
-import java.util.Comparator;
-import java.util.List;
 // === 負載平衡策略類 ===
 
 public class BalancingStrategy {
@@ -16,25 +14,38 @@ public class BalancingStrategy {
     private static final int SPACE_WEIGHT = 1;       // 可用空間每增加1，權重增加1
     private static final int LOAD_PENALTY = 2;       // 當前負載每增加1，權重減少2
 
+    private static final Direction[] DIRECTIONS = Direction.values();
+
     /**
      * 🆕 選擇最佳目標方向（改進版）
      * 優先級制度：
      * 1. 高優先級絕對優先（除非完全無法傳輸）
      * 2. 相同優先級時，選擇可用空間最大的
      * 3. 如果都滿了，輪詢等待
+     *
+     * @param targetMask {@link NetworkManager#getValidTargetMask()} 的結果；
+     *                   逐位比較分數，不使用 stream / 裝箱，每 tick 呼叫不產生垃圾
      */
-    public static Direction selectBestTarget(List<Direction> validTargets,
+    public static Direction selectBestTarget(int targetMask,
                                              ArcaneConduitBlockEntity conduit,
                                              IOManager ioManager,
                                              NetworkManager networkManager,
                                              long tickCounter) {
-        if (validTargets.isEmpty()) return null;
-
-        // 🆕 使用權重系統選擇最佳目標
-        return validTargets.stream()
-                .max(Comparator.comparingInt(dir ->
-                    calculateTargetScore(dir, ioManager, networkManager)))
-                .orElse(null);
+        if (targetMask == 0) return null;
+
+        // 🆕 使用權重系統選擇最佳目標（同分取方向順序較前者）
+        Direction best = null;
+        int bestScore = 0;
+        for (Direction dir : DIRECTIONS) {
+            if (!NetworkManager.hasTarget(targetMask, dir)) continue;
+
+            int score = calculateTargetScore(dir, ioManager, networkManager);
+            if (best == null || score > bestScore) {
+                best = dir;
+                bestScore = score;
+            }
+        }
+        return best;
     }
 
     /**
@@ -100,9 +111,11 @@ public class BalancingStrategy {
     /**
      * 🆕 檢查是否所有目標都已滿
      */
-    public static boolean areAllTargetsFull(List<Direction> validTargets,
+    public static boolean areAllTargetsFull(int targetMask,
                                            NetworkManager networkManager) {
-        for (Direction dir : validTargets) {
+        for (Direction dir : DIRECTIONS) {
+            if (!NetworkManager.hasTarget(targetMask, dir)) continue;
+
             CacheManager.TargetInfo target = networkManager.getTargetInfo(dir);
             if (target != null && target.availableSpace > 0) {
                 return false;
@@ -114,11 +127,19 @@ public class BalancingStrategy {
     /**
      * 🆕 獲取最高優先級值（用於UI顯示）
      */
-    public static int getHighestPriority(List<Direction> validTargets,
+    public static int getHighestPriority(int targetMask,
                                         IOManager ioManager) {
-        return validTargets.stream()
-                .mapToInt(ioManager::getPriority)
-                .max()
-                .orElse(0);
+        int highest = 0;
+        boolean found = false;
+        for (Direction dir : DIRECTIONS) {
+            if (!NetworkManager.hasTarget(targetMask, dir)) continue;
+
+            int priority = ioManager.getPriority(dir);
+            if (!found || priority > highest) {
+                highest = priority;
+                found = true;
+            }
+        }
+        return highest;
     }
 }
@@ -0,0 +1,148 @@
+package com.github.nalamodikk.common.block.blockentity.conduit.manager.network;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.block.blockentity.conduit.ArcaneConduitBlock;
+import com.github.nalamodikk.common.block.blockentity.conduit.ArcaneConduitBlockEntity;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 🔗 導管連接狀態的批次更新佇列（每個維度一份）
+ *
+ * 放置 / 破壞一整排導管時，每個鄰居變化都只在這裡記下座標（同一 tick 內去重），
+ * 到 tick 結束時每個座標只重算一次連接、只寫一次方塊狀態：
+ * - 連接屬性純粹是外觀，寫入時只通知客戶端（{@link Block#UPDATE_CLIENTS}），不再觸發鄰居的 neighborChanged 連鎖
+ * - 真的有鄰居變化的導管才呼叫一次 {@link ArcaneConduitBlockEntity#onNeighborChanged()} 重新掃描網路
+ */
+@EventBusSubscriber(modid = KoniavacraftMod.MOD_ID)
+public class ConduitConnectionUpdater {
+
+    private static final Map<ResourceKey<Level>, ConduitConnectionUpdater> UPDATERS = new HashMap<>();
+
+    private final ServerLevel level;
+
+    // 需要重算連接的座標（保持加入順序）
+    private final LongLinkedOpenHashSet pending = new LongLinkedOpenHashSet();
+    // 其中鄰居真的有變化、需要重新掃描網路的座標
+    private final LongOpenHashSet neighborChanged = new LongOpenHashSet();
+
+    // 重複使用的處理緩衝，處理途中新加入的座標留到下一 tick
+    private final LongArrayList processing = new LongArrayList();
+    private final LongOpenHashSet processingNeighborChanged = new LongOpenHashSet();
+
+    private ConduitConnectionUpdater(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static ConduitConnectionUpdater get(ServerLevel level) {
+        ConduitConnectionUpdater updater = UPDATERS.get(level.dimension());
+        if (updater == null || updater.level != level) {
+            updater = new ConduitConnectionUpdater(level);
+            UPDATERS.put(level.dimension(), updater);
+        }
+        return updater;
+    }
+
+    // === 排程 ===
+
+    /**
+     * 重算這個座標的連接（例如自己的 IO 設定改變）
+     */
+    public void queue(BlockPos pos) {
+        pending.add(pos.asLong());
+    }
+
+    /**
+     * 鄰居變化：重算連接，並在批次處理時重新掃描網路一次
+     */
+    public void queueNeighborChanged(BlockPos pos) {
+        long key = pos.asLong();
+        pending.add(key);
+        neighborChanged.add(key);
+    }
+
+    /**
+     * 新放置的導管：自己與六個鄰居都重算連接
+     */
+    public void queueWithNeighbors(BlockPos pos) {
+        pending.add(pos.asLong());
+        for (Direction dir : Direction.values()) {
+            pending.add(BlockPos.offset(pos.asLong(), dir));
+        }
+    }
+
+    // === 批次處理 ===
+
+    private void tick() {
+        if (pending.isEmpty()) return;
+
+        processing.clear();
+        processing.addAll(pending);
+        processingNeighborChanged.clear();
+        processingNeighborChanged.addAll(neighborChanged);
+        pending.clear();
+        neighborChanged.clear();
+
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int i = 0; i < processing.size(); i++) {
+            long key = processing.getLong(i);
+            pos.set(key);
+            if (!level.isLoaded(pos)) continue;
+
+            BlockState state = level.getBlockState(pos);
+            if (!(state.getBlock() instanceof ArcaneConduitBlock conduitBlock)) continue;
+
+            BlockState newState = conduitBlock.updateConnections(level, pos, state);
+            if (newState != state) {
+                level.setBlock(pos, newState, Block.UPDATE_CLIENTS);
+            }
+
+            if (processingNeighborChanged.contains(key)
+                    && level.getBlockEntity(pos) instanceof ArcaneConduitBlockEntity conduit) {
+                conduit.onNeighborChanged();
+            }
+        }
+        processing.clear();
+        processingNeighborChanged.clear();
+    }
+
+    // === 事件 ===
+
+    @SubscribeEvent
+    public static void onLevelTick(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        ConduitConnectionUpdater updater = UPDATERS.get(serverLevel.dimension());
+        if (updater != null && updater.level == serverLevel) {
+            updater.tick();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            UPDATERS.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        UPDATERS.clear();
+    }
+}
@@ -0,0 +1,422 @@
+package com.github.nalamodikk.common.block.blockentity.conduit.manager.network;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.block.blockentity.conduit.ArcaneConduitBlockEntity;
+import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 🕸️ 導管網路圖（每個維度一份）
+ *
+ * 職責：
+ * - 以連通分量管理同一世界中的所有導管
+ * - 放置 / 破壞 / IO 設定變更時增量合併或拆分分量，而不是每個導管各自掃描
+ * - 每 tick 對每個分量跑一次傳輸，只處理接觸到外部方塊的「邊界導管」
+ *
+ * 導管本身不再註冊 BlockEntityTicker，所有伺服器端 tick 都由這裡驅動。
+ */
+@EventBusSubscriber(modid = KoniavacraftMod.MOD_ID)
+public class ConduitNetworkGraph {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConduitNetworkGraph.class);
+    private static final Map<ResourceKey<Level>, ConduitNetworkGraph> GRAPHS = new HashMap<>();
+
+    private final ServerLevel level;
+    private final ConduitNetworkSavedData savedData;
+
+    // === 圖結構 ===
+    private final Long2ObjectOpenHashMap<ArcaneConduitBlockEntity> nodes = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<Component> componentOf = new Long2ObjectOpenHashMap<>();
+    private final Set<Component> components = new ObjectLinkedOpenHashSet<>();
+    private final Set<Component> dirtyComponents = new ObjectLinkedOpenHashSet<>();
+    private int nextComponentId = 0;
+
+    // 重複使用的 tick 佇列，避免每 tick 配置新集合
+    private final List<ArcaneConduitBlockEntity> tickQueue = new ArrayList<>();
+
+    private ConduitNetworkGraph(ServerLevel level) {
+        this.level = level;
+        this.savedData = ConduitNetworkSavedData.get(level);
+    }
+
+    /**
+     * 獲取指定世界的導管網路圖（不存在時建立）
+     */
+    public static ConduitNetworkGraph get(ServerLevel level) {
+        ConduitNetworkGraph graph = GRAPHS.get(level.dimension());
+        if (graph == null || graph.level != level) {
+            graph = new ConduitNetworkGraph(level);
+            GRAPHS.put(level.dimension(), graph);
+        }
+        return graph;
+    }
+
+    // === 事件 ===
+
+    @SubscribeEvent
+    public static void onLevelTick(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        ConduitNetworkGraph graph = GRAPHS.get(serverLevel.dimension());
+        if (graph != null && graph.level == serverLevel) {
+            graph.tick();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            GRAPHS.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        GRAPHS.clear();
+    }
+
+    // === 增量更新 ===
+
+    /**
+     * 導管載入或放置：加入相鄰分量，必要時合併多個分量
+     */
+    public void addConduit(ArcaneConduitBlockEntity conduit) {
+        long key = conduit.getBlockPos().asLong();
+        if (nodes.put(key, conduit) == conduit) return;
+
+        Component target = null;
+        for (Direction dir : Direction.values()) {
+            Component neighbor = linkedComponent(conduit, dir);
+            if (neighbor == null || neighbor == target) continue;
+            target = target == null ? neighbor : merge(target, neighbor);
+        }
+
+        if (target == null) {
+            target = createComponent();
+        }
+
+        target.members.add(key);
+        componentOf.put(key, target);
+        conduit.joinVirtualNetwork(target.network);
+
+        markEndpointsDirty(conduit);
+        markNeighborEndpointsDirty(conduit.getBlockPos());
+    }
+
+    /**
+     * 導管破壞或卸載：移出分量，下一 tick 檢查是否需要拆分
+     * @param unloading 是否因區塊卸載而移除（整個網路卸載時保留魔力等待重新載入）
+     */
+    public void removeConduit(ArcaneConduitBlockEntity conduit, boolean unloading) {
+        long key = conduit.getBlockPos().asLong();
+        if (nodes.get(key) != conduit) return;
+
+        nodes.remove(key);
+        Component component = componentOf.remove(key);
+        conduit.leaveVirtualNetwork();
+        markNeighborEndpointsDirty(conduit.getBlockPos());
+
+        if (component == null) return;
+
+        component.members.remove(key);
+        component.boundary.remove(conduit);
+        component.pendingScan.remove(conduit);
+
+        if (component.members.isEmpty()) {
+            components.remove(component);
+            dirtyComponents.remove(component);
+            if (unloading) {
+                savedData.park(component.network);
+            } else {
+                savedData.untrack(component.network);
+            }
+        } else {
+            dirtyComponents.add(component);
+        }
+    }
+
+    /**
+     * IO 設定變更：可能建立新連接（立即合併）或切斷連接（延遲到 tick 拆分）
+     */
+    public void onConnectionsChanged(ArcaneConduitBlockEntity conduit) {
+        Component component = componentOf.get(conduit.getBlockPos().asLong());
+        if (component == null) return;
+
+        dirtyComponents.add(component);
+        for (Direction dir : Direction.values()) {
+            Component neighbor = linkedComponent(conduit, dir);
+            if (neighbor != null && neighbor != component) {
+                component = merge(component, neighbor);
+            }
+        }
+
+        markEndpointsDirty(conduit);
+        markNeighborEndpointsDirty(conduit.getBlockPos());
+    }
+
+    /**
+     * 非導管鄰居變化：只需重新評估這個導管的端點
+     */
+    public void markEndpointsDirty(ArcaneConduitBlockEntity conduit) {
+        Component component = componentOf.get(conduit.getBlockPos().asLong());
+        if (component != null) {
+            component.pendingScan.add(conduit);
+        }
+    }
+
+    private void markNeighborEndpointsDirty(BlockPos pos) {
+        for (Direction dir : Direction.values()) {
+            ArcaneConduitBlockEntity neighbor = nodes.get(BlockPos.offset(pos.asLong(), dir));
+            if (neighbor != null) {
+                markEndpointsDirty(neighbor);
+            }
+        }
+    }
+
+    // === Tick ===
+
+    private void tick() {
+        if (!dirtyComponents.isEmpty()) {
+            List<Component> dirty = new ArrayList<>(dirtyComponents);
+            dirtyComponents.clear();
+            for (Component component : dirty) {
+                if (components.contains(component)) {
+                    rebuild(component);
+                }
+            }
+        }
+
+        tickQueue.clear();
+        for (Component component : components) {
+            component.refreshBoundary();
+            tickQueue.addAll(component.boundary);
+        }
+
+        for (int i = 0; i < tickQueue.size(); i++) {
+            ArcaneConduitBlockEntity conduit = tickQueue.get(i);
+            if (!conduit.isRemoved()) {
+                conduit.tick();
+            }
+        }
+        tickQueue.clear();
+    }
+
+    // === 分量操作 ===
+
+    private Component createComponent() {
+        Component component = new Component(nextComponentId++, new VirtualNetwork(savedData.allocateId()));
+        components.add(component);
+        savedData.track(component.network);
+        return component;
+    }
+
+    /**
+     * 合併兩個分量：較小的併入較大的，魔力池一併合併
+     */
+    private Component merge(Component a, Component b) {
+        Component big = a.members.size() >= b.members.size() ? a : b;
+        Component small = big == a ? b : a;
+
+        small.network.transferManaTo(big.network, small.network.getTotalManaStored());
+
+        LongIterator it = small.members.iterator();
+        while (it.hasNext()) {
+            long key = it.nextLong();
+            big.members.add(key);
+            componentOf.put(key, big);
+            ArcaneConduitBlockEntity conduit = nodes.get(key);
+            if (conduit != null) {
+                conduit.joinVirtualNetwork(big.network);
+            }
+        }
+        big.boundary.addAll(small.boundary);
+        big.pendingScan.addAll(small.pendingScan);
+
+        components.remove(small);
+        savedData.untrack(small.network);
+        if (dirtyComponents.remove(small)) {
+            dirtyComponents.add(big);
+        }
+
+        if (KoniavacraftMod.IS_DEV) {
+            LOGGER.debug("Merged conduit component #{} into #{} ({} conduits)", small.id, big.id, big.members.size());
+        }
+        return big;
+    }
+
+    /**
+     * 重建分量：BFS 找出仍然連通的片段，最大片段保留原分量，其餘拆成新分量並按比例分配魔力
+     */
+    private void rebuild(Component component) {
+        if (component.members.isEmpty()) {
+            components.remove(component);
+            savedData.untrack(component.network);
+            return;
+        }
+
+        LongOpenHashSet unvisited = new LongOpenHashSet(component.members);
+        List<LongOpenHashSet> fragments = new ArrayList<>();
+        while (!unvisited.isEmpty()) {
+            fragments.add(collectFragment(unvisited.iterator().nextLong(), unvisited));
+        }
+        if (fragments.size() == 1) return;
+
+        fragments.sort(Comparator.comparingInt(LongOpenHashSet::size).reversed());
+        int totalMembers = component.members.size();
+        int totalMana = component.network.getTotalManaStored();
+
+        for (int i = 1; i < fragments.size(); i++) {
+            LongOpenHashSet fragment = fragments.get(i);
+            Component split = createComponent();
+
+            int share = (int) ((long) totalMana * fragment.size() / totalMembers);
+            component.network.transferManaTo(split.network, share);
+
+            LongIterator it = fragment.iterator();
+            while (it.hasNext()) {
+                long key = it.nextLong();
+                ArcaneConduitBlockEntity conduit = nodes.get(key);
+                component.members.remove(key);
+                component.boundary.remove(conduit);
+                component.pendingScan.remove(conduit);
+
+                split.members.add(key);
+                componentOf.put(key, split);
+                conduit.joinVirtualNetwork(split.network);
+                split.pendingScan.add(conduit);
+            }
+        }
+
+        if (KoniavacraftMod.IS_DEV) {
+            LOGGER.debug("Conduit component #{} split into {} parts", component.id, fragments.size());
+        }
+    }
+
+    private LongOpenHashSet collectFragment(long start, LongOpenHashSet unvisited) {
+        LongOpenHashSet fragment = new LongOpenHashSet();
+        LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        unvisited.remove(start);
+        queue.enqueue(start);
+
+        while (!queue.isEmpty()) {
+            long key = queue.dequeueLong();
+            fragment.add(key);
+            ArcaneConduitBlockEntity conduit = nodes.get(key);
+
+            for (Direction dir : Direction.values()) {
+                long neighborKey = BlockPos.offset(key, dir);
+                if (!unvisited.contains(neighborKey)) continue;
+
+                ArcaneConduitBlockEntity neighbor = nodes.get(neighborKey);
+                if (neighbor != null && canLink(conduit, neighbor, dir)) {
+                    unvisited.remove(neighborKey);
+                    queue.enqueue(neighborKey);
+                }
+            }
+        }
+        return fragment;
+    }
+
+    private Component linkedComponent(ArcaneConduitBlockEntity conduit, Direction dir) {
+        long neighborKey = BlockPos.offset(conduit.getBlockPos().asLong(), dir);
+        ArcaneConduitBlockEntity neighbor = nodes.get(neighborKey);
+        if (neighbor == null || !canLink(conduit, neighbor, dir)) return null;
+        return componentOf.get(neighborKey);
+    }
+
+    /**
+     * 兩個相鄰導管是否連通（雙方對應面都沒有禁用）
+     */
+    private static boolean canLink(ArcaneConduitBlockEntity from, ArcaneConduitBlockEntity to, Direction dir) {
+        return from.getIOConfig(dir) != IOHandlerUtils.IOType.DISABLED
+                && to.getIOConfig(dir.getOpposite()) != IOHandlerUtils.IOType.DISABLED;
+    }
+
+    /**
+     * 是否有未禁用的面朝向非導管的方塊實體（即需要參與傳輸的邊界導管）
+     */
+    private boolean touchesExternalBlock(ArcaneConduitBlockEntity conduit) {
+        BlockPos pos = conduit.getBlockPos();
+        for (Direction dir : Direction.values()) {
+            if (conduit.getIOConfig(dir) == IOHandlerUtils.IOType.DISABLED) continue;
+
+            if (nodes.containsKey(BlockPos.offset(pos.asLong(), dir))) continue;
+
+            if (conduit.getNeighborCapabilities().getNeighbor(dir) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // === 查詢 ===
+
+    public int getComponentCount() {
+        return components.size();
+    }
+
+    public int getConduitCount() {
+        return nodes.size();
+    }
+
+    // === 內部類：連通分量 ===
+
+    private final class Component {
+        private final int id;
+        private final VirtualNetwork network;
+        private final LongOpenHashSet members = new LongOpenHashSet();
+        private final ReferenceLinkedOpenHashSet<ArcaneConduitBlockEntity> boundary = new ReferenceLinkedOpenHashSet<>();
+        private final ReferenceLinkedOpenHashSet<ArcaneConduitBlockEntity> pendingScan = new ReferenceLinkedOpenHashSet<>();
+
+        private Component(int id, VirtualNetwork network) {
+            this.id = id;
+            this.network = network;
+        }
+
+        /**
+         * 只重新評估有變化的成員，而不是整個分量
+         */
+        private void refreshBoundary() {
+            if (pendingScan.isEmpty()) return;
+
+            for (ArcaneConduitBlockEntity conduit : pendingScan) {
+                if (conduit.isRemoved()) {
+                    boundary.remove(conduit);
+                    continue;
+                }
+
+                conduit.markNetworkDirty();
+                if (touchesExternalBlock(conduit)) {
+                    boundary.add(conduit);
+                } else {
+                    boundary.remove(conduit);
+                }
+            }
+            pendingScan.clear();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.nalamodikk.common.block.blockentity.conduit.manager.network;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+
+/**
+ * 💾 虛擬網路持久化（每個維度一份 SavedData）
+ *
+ * 每個網路只保存一次：網路 ID → 魔力。導管本身只記錄所屬網路 ID。
+ * - 已載入的網路在存檔時直接讀取即時魔力
+ * - 整個網路隨區塊卸載時，魔力暫存在這裡，等第一個成員重新載入時領回（只領一次，不會重複）
+ */
+public class ConduitNetworkSavedData extends SavedData {
+
+    private static final String DATA_NAME = KoniavacraftMod.MOD_ID + "_conduit_networks";
+
+    private long nextNetworkId = 1;
+    private final Long2ObjectOpenHashMap<VirtualNetwork> liveNetworks = new Long2ObjectOpenHashMap<>();
+    private final Long2IntOpenHashMap storedMana = new Long2IntOpenHashMap();
+
+    public static ConduitNetworkSavedData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(
+                new SavedData.Factory<>(ConduitNetworkSavedData::new, ConduitNetworkSavedData::load, null),
+                DATA_NAME);
+    }
+
+    // === 網路 ID ===
+
+    public long allocateId() {
+        setDirty();
+        return nextNetworkId++;
+    }
+
+    // === 網路生命週期 ===
+
+    /**
+     * 網路開始運作（由 {@link ConduitNetworkGraph} 建立分量時呼叫）
+     */
+    public void track(VirtualNetwork network) {
+        liveNetworks.put(network.getId(), network);
+    }
+
+    /**
+     * 網路被合併或最後一個成員被破壞，不再需要保存
+     */
+    public void untrack(VirtualNetwork network) {
+        if (liveNetworks.remove(network.getId()) != null) {
+            storedMana.remove(network.getId());
+            setDirty();
+        }
+    }
+
+    /**
+     * 整個網路隨區塊卸載：暫存魔力等待重新載入
+     */
+    public void park(VirtualNetwork network) {
+        liveNetworks.remove(network.getId());
+        if (network.getTotalManaStored() > 0) {
+            storedMana.put(network.getId(), network.getTotalManaStored());
+        }
+        setDirty();
+    }
+
+    /**
+     * 導管重新載入：若它記錄的網路有暫存魔力，併入目前所屬網路
+     */
+    public void restoreInto(long savedNetworkId, VirtualNetwork network) {
+        if (!storedMana.containsKey(savedNetworkId)) return;
+
+        network.restoreMana(storedMana.remove(savedNetworkId));
+        setDirty();
+    }
+
+    // === 序列化 ===
+
+    @Override
+    public boolean isDirty() {
+        // 已載入網路的魔力隨時在變，每次存檔都寫入（每個網路只有一筆，成本很低）
+        return super.isDirty() || !liveNetworks.isEmpty();
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        tag.putLong("NextNetworkId", nextNetworkId);
+
+        ListTag networks = new ListTag();
+        for (VirtualNetwork network : liveNetworks.values()) {
+            if (network.getTotalManaStored() > 0) {
+                networks.add(writeEntry(network.getId(), network.getTotalManaStored()));
+            }
+        }
+        for (Long2IntMap.Entry entry : storedMana.long2IntEntrySet()) {
+            if (!liveNetworks.containsKey(entry.getLongKey())) {
+                networks.add(writeEntry(entry.getLongKey(), entry.getIntValue()));
+            }
+        }
+        tag.put("Networks", networks);
+        return tag;
+    }
+
+    private static CompoundTag writeEntry(long id, int mana) {
+        CompoundTag entry = new CompoundTag();
+        entry.putLong("Id", id);
+        entry.putInt("Mana", mana);
+        return entry;
+    }
+
+    private static ConduitNetworkSavedData load(CompoundTag tag, HolderLookup.Provider registries) {
+        ConduitNetworkSavedData data = new ConduitNetworkSavedData();
+        data.nextNetworkId = Math.max(1, tag.getLong("NextNetworkId"));
+
+        ListTag networks = tag.getList("Networks", Tag.TAG_COMPOUND);
+        for (int i = 0; i < networks.size(); i++) {
+            CompoundTag entry = networks.getCompound(i);
+            data.storedMana.put(entry.getLong("Id"), entry.getInt("Mana"));
+        }
+        return data;
+    }
+}
@@ -4,7 +4,6 @@ import com.github.nalamodikk.common.block.blockentity.conduit.ArcaneConduitBlock
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.CacheManager;
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.core.IOManager;
 import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
-import com.github.nalamodikk.common.utils.capability.CapabilityUtils;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -22,15 +21,17 @@ import java.util.*;
 public class NetworkManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NetworkManager.class);
-    private long lastScanTime = 0; // 🆕 添加時間戳
-    private static final long MIN_SCAN_INTERVAL = 100; // 🆕 最小掃描間隔（毫秒）
+    private long lastScanTime = 0; // 🆕 添加時間戳（遊戲時間）
+    private static final long MIN_SCAN_INTERVAL = 2; // 🆕 最小掃描間隔（tick）
     // === 更嚴格的日誌頻率控制 ===
     private long lastLogTime = 0;
-    private static final long LOG_INTERVAL = 30000; // 🔧 改為30秒間隔（原來可能是5秒）
+    private static final long LOG_INTERVAL = 600; // 🔧 30秒（600 tick）間隔
     private int suppressedCount = 0;
 
     // === 常量 ===
     private static final int NETWORK_SCAN_INTERVAL = 600; // 30秒
+    private static final long SHARED_CACHE_VALID_TICKS = 600; // 共享拓撲緩存有效期（30秒）
+    private static final Direction[] DIRECTIONS = Direction.values(); // values() 每次呼叫都會複製陣列
 
     // === 組件引用 ===
     private final ArcaneConduitBlockEntity conduit;
@@ -84,20 +85,18 @@ public class NetworkManager {
     // === 目標獲取 ===
 
     /**
-     * 獲取所有有效的傳輸目標
+     * 🔧 獲取所有有效的傳輸目標（位元遮罩版本，熱路徑使用）
+     * 第 n 位代表 {@code Direction.values()[n]}，不建立任何集合
      */
-    /**
-     * 🔧 修復：獲取所有有效的傳輸目標 - 防止遞迴
-     */
-    public List<Direction> getValidTargets() {
-        long currentTime = System.currentTimeMillis();
+    public int getValidTargetMask() {
+        long currentTime = conduit.getLevel() != null ? conduit.getLevel().getGameTime() : 0;
 
-        // 🆕 時間間隔檢查：如果剛剛掃描過，直接返回空列表
+        // 🆕 時間間隔檢查：如果剛剛掃描過，直接返回空遮罩
         if (currentTime - lastScanTime < MIN_SCAN_INTERVAL) {
-            return new ArrayList<>();
+            return 0;
         }
 
-        // 🚨 遞迴防護：如果正在掃描，靜默返回空列表
+        // 🚨 遞迴防護：如果正在掃描，靜默返回空遮罩
         if (isScanning) {
             suppressedCount++;
             // 🔧 用你之前的頻率控制邏輯
@@ -108,7 +107,7 @@ public class NetworkManager {
                 suppressedCount = 0;
             }
 
-            return new ArrayList<>();
+            return 0;
         }
         // 檢查是否需要重新掃描目標
         if (cacheManager.needsTargetRescan()) {
@@ -121,9 +120,9 @@ public class NetworkManager {
             }
         }
 
-        List<Direction> validTargets = new ArrayList<>();
+        int mask = 0;
 
-        for (Direction dir : Direction.values()) {
+        for (Direction dir : DIRECTIONS) {
             // 檢查我是否能輸出到這個方向
             if (!ioManager.canOutput(dir)) {
                 continue;
@@ -135,13 +134,34 @@ public class NetworkManager {
                 if (target.isConduit && !validateConduitConnection(dir)) {
                     continue;
                 }
-                validTargets.add(dir);
+                mask |= 1 << dir.ordinal();
             }
         }
 
+        return mask;
+    }
+
+    /**
+     * 獲取所有有效的傳輸目標（列表版本，供調試 / 外部查詢；熱路徑請用 {@link #getValidTargetMask()}）
+     */
+    public List<Direction> getValidTargets() {
+        int mask = getValidTargetMask();
+        List<Direction> validTargets = new ArrayList<>(Integer.bitCount(mask));
+        for (Direction dir : DIRECTIONS) {
+            if (hasTarget(mask, dir)) {
+                validTargets.add(dir);
+            }
+        }
         return validTargets;
     }
 
+    /**
+     * 檢查目標遮罩是否包含指定方向
+     */
+    public static boolean hasTarget(int targetMask, Direction direction) {
+        return (targetMask & (1 << direction.ordinal())) != 0;
+    }
+
 
     /**
      * 獲取指定方向的目標信息
@@ -157,10 +177,12 @@ public class NetworkManager {
      */
 
     private boolean validateConduitConnection(Direction dir) {
-        BlockPos neighborPos = conduit.getBlockPos().relative(dir);
-        BlockEntity neighborBE = conduit.getLevel().getBlockEntity(neighborPos);
+        if (!(conduit.getNeighborCapabilities().getNeighbor(dir) instanceof ArcaneConduitBlockEntity neighborConduit)) {
+            return false;
+        }
 
-        if (!(neighborBE instanceof ArcaneConduitBlockEntity neighborConduit)) {
+        // 🕸️ 同一個虛擬網路共用魔力池，互相傳輸沒有意義
+        if (conduit.getVirtualNetwork() != null && neighborConduit.getVirtualNetwork() == conduit.getVirtualNetwork()) {
             return false;
         }
 
@@ -184,10 +206,8 @@ public class NetworkManager {
     private void scanNetworkTopology() {
         if (!(conduit.getLevel() instanceof ServerLevel)) return;
 
-        long now = System.currentTimeMillis();
-
         // 檢查緩存是否有效
-        if (cacheManager.isCacheValid(30000) && !networkDirty) {
+        if (cacheManager.isCacheValid(SHARED_CACHE_VALID_TICKS) && !networkDirty) {
             var cached = cacheManager.getSharedCache();
             var cachedNodes = cacheManager.getSharedNetworkNodes();
 
@@ -208,6 +228,7 @@ public class NetworkManager {
      * 執行實際的網路掃描
      */
     private void performNetworkScan() {
+        long now = conduit.getLevel().getGameTime();
         networkNodes.clear();
         endpoints.clear();
 
@@ -215,10 +236,11 @@ public class NetworkManager {
             if (ioManager.isDisabled(dir)) continue;
 
             BlockPos neighborPos = conduit.getBlockPos().relative(dir);
-            IUnifiedManaHandler handler = CapabilityUtils.getNeighborMana(conduit.getLevel(), neighborPos, dir);
+            IUnifiedManaHandler handler = conduit.getNeighborCapabilities().getMana(dir);
             if (handler == null) continue;
 
-            boolean isConduit = conduit.getLevel().getBlockEntity(neighborPos) instanceof ArcaneConduitBlockEntity;
+            // 導管的魔力能力就是導管本身，不需要再查方塊實體
+            boolean isConduit = handler instanceof ArcaneConduitBlockEntity;
 
             // 計算優先級
             int priority = ioManager.getPriority(dir);
@@ -226,7 +248,7 @@ public class NetworkManager {
                 priority += 10; // 空容器優先級加成
             }
 
-            endpoints.put(dir, new CacheManager.ManaEndpoint(handler, isConduit, priority));
+            endpoints.put(dir, new CacheManager.ManaEndpoint(handler, isConduit, priority, now));
             if (!isConduit) {
                 networkNodes.add(neighborPos); // 只記錄非導管節點
             }
@@ -252,22 +274,19 @@ public class NetworkManager {
 
 //        LOGGER.debug("Starting target rescan for {}", conduit.getBlockPos());
 
-        for (Direction dir : Direction.values()) {
+        for (Direction dir : DIRECTIONS) {
             // 檢查我是否能輸出到這個方向
             if (!ioManager.canOutput(dir)) {
                 continue;
             }
 
-            BlockPos neighborPos = conduit.getBlockPos().relative(dir);
-            IUnifiedManaHandler handler = CapabilityUtils.getNeighborMana(conduit.getLevel(), neighborPos, dir);
+            IUnifiedManaHandler handler = conduit.getNeighborCapabilities().getMana(dir);
 
             if (handler != null) {
-                BlockEntity neighborBE = conduit.getLevel().getBlockEntity(neighborPos);
-                boolean isConduit = neighborBE instanceof ArcaneConduitBlockEntity;
+                boolean isConduit = handler instanceof ArcaneConduitBlockEntity;
 
                 // 🔧 簡化導管檢查：避免複雜邏輯導致遞迴
-                if (isConduit) {
-                    ArcaneConduitBlockEntity neighborConduit = (ArcaneConduitBlockEntity) neighborBE;
+                if (handler instanceof ArcaneConduitBlockEntity neighborConduit) {
                     Direction neighborInputSide = dir.getOpposite();
                     IOHandlerUtils.IOType neighborIOType = neighborConduit.getIOConfig(neighborInputSide);
 
@@ -303,8 +322,7 @@ public class NetworkManager {
 
         CacheManager.ManaEndpoint endpoint = endpoints.get(dirToCheck);
         if (endpoint != null) {
-            BlockPos neighborPos = conduit.getBlockPos().relative(dirToCheck);
-            IUnifiedManaHandler current = CapabilityUtils.getNeighborMana(conduit.getLevel(), neighborPos, dirToCheck);
+            IUnifiedManaHandler current = conduit.getNeighborCapabilities().getMana(dirToCheck);
 
             if (current == null || current != endpoint.handler) {
                 // 這個端點無效了，移除並標記需要重新掃描
@@ -391,7 +409,7 @@ public class NetworkManager {
 
                 // 安全檢查：只檢查已載入的區塊
                 if (conduit.getLevel().isLoaded(neighborPos)) {
-                    BlockEntity neighborBE = conduit.getLevel().getBlockEntity(neighborPos);
+                    BlockEntity neighborBE = conduit.getNeighborCapabilities().getNeighbor(dir);
 
                     // 如果鄰居不再是導管或不存在，標記為無效
                     if (!(neighborBE instanceof ArcaneConduitBlockEntity)) {
@@ -1,37 +1,60 @@
-// 🎯 第一步：創建這個新文件
-// 文件位置：src/main/java/com/github/nalamodikk/common/block/conduit/SimpleVirtualNetwork.java
-
 package com.github.nalamodikk.common.block.blockentity.conduit.manager.network;
 
 import com.github.nalamodikk.common.block.blockentity.conduit.ArcaneConduitBlockEntity;
+import com.github.nalamodikk.common.block.blockentity.conduit.ConduitTier;
 import com.github.nalamodikk.common.capability.ManaStorage;
 import com.github.nalamodikk.common.capability.mana.ManaAction;
 import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 import net.minecraft.core.BlockPos;
 import org.slf4j.Logger;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
+/**
+ * 🕸️ 虛擬網路：同一連通分量內的導管共用一個魔力池
+ *
+ * - 池容量隨成員等級成長（每個成員貢獻 緩衝容量 × {@link #POOL_CAPACITY_PER_BUFFER}），
+ *   下限為舊版的固定 {@link #BASE_CAPACITY}
+ * - 成員以打包 long 座標保存，對外只提供唯讀視圖
+ * - 成員減少時不截斷已存魔力：超出新容量的部分只是暫時不能再存入，
+ *   避免拆分 / 區塊卸載時魔力憑空消失
+ */
 public class VirtualNetwork {
     private static final Logger LOGGER = LogUtils.getLogger();
 
+    // 舊版固定容量，作為容量下限（舊存檔的魔力不會被截斷）
+    public static final int BASE_CAPACITY = 10000;
+    private static final int POOL_CAPACITY_PER_BUFFER = 10;
+
+    // 持久化用的網路 ID（見 ConduitNetworkSavedData）
+    private final long id;
+
     // 共享的魔力池
-    private final ManaStorage sharedManaPool = new ManaStorage(10000);
+    private final ManaStorage sharedManaPool = new ManaStorage(BASE_CAPACITY);
 
-    // 記錄哪些導管在這個網路中
-    private final Set<BlockPos> connectedConduits = new HashSet<>();
-    private final Map<BlockPos, ArcaneConduitBlockEntity> conduitMap = new HashMap<>();
+    // 記錄哪些導管在這個網路中（打包座標 → 該成員貢獻的容量）
+    private final LongOpenHashSet members = new LongOpenHashSet();
+    private final LongSet membersView = LongSets.unmodifiable(members);
+    private final Long2IntOpenHashMap memberCapacity = new Long2IntOpenHashMap();
+    private long totalMemberCapacity = 0;
 
-    public VirtualNetwork() {
-        LOGGER.info("Created simple virtual network");
+    public VirtualNetwork(long id) {
+        this.id = id;
+        LOGGER.debug("Created virtual network #{}", id);
+    }
+
+    public long getId() {
+        return id;
     }
 
     public void setTotalManaStored(int amount) {
-        sharedManaPool.setMana(Math.max(0, Math.min(amount, sharedManaPool.getMaxManaStored())));
-        LOGGER.info("Virtual network mana set to: {}", sharedManaPool.getManaStored());
+        int mana = Math.max(0, amount);
+        // 還原存檔時成員可能尚未全部載入，暫時允許超出容量
+        sharedManaPool.setCapacity(Math.max(computeCapacity(), mana));
+        sharedManaPool.setMana(mana);
+        LOGGER.debug("Virtual network mana set to: {}", sharedManaPool.getManaStored());
     }
 
     // 🆕 添加 getter 方法
@@ -39,9 +62,11 @@ public class VirtualNetwork {
         return sharedManaPool.getMaxManaStored();
     }
 
-    // 🆕 添加獲取連接導管的方法
-    public Set<BlockPos> getConnectedConduits() {
-        return new HashSet<>(connectedConduits); // 返回副本，避免外部修改
+    /**
+     * 🆕 連接導管的打包座標（唯讀視圖，不複製）
+     */
+    public LongSet getConnectedConduits() {
+        return membersView;
     }
 
     // 🆕 添加網路信息日誌
@@ -49,42 +74,76 @@ public class VirtualNetwork {
         LOGGER.info("Virtual Network - Mana: {}/{}, Conduits: {}",
                 sharedManaPool.getManaStored(),
                 sharedManaPool.getMaxManaStored(),
-                connectedConduits.size());
+                members.size());
     }
 
     /**
      * 導管加入網路
      */
     public void addConduit(ArcaneConduitBlockEntity conduit) {
-        BlockPos pos = conduit.getBlockPos();
-        connectedConduits.add(pos);
-        conduitMap.put(pos, conduit);
+        long key = conduit.getBlockPos().asLong();
+        if (members.add(key)) {
+            setMemberCapacity(key, contributionOf(conduit.getTier()));
+        }
 
         // 把導管的魔力合併到共享池
-        int conduitMana = conduit.getBufferManaStored(); // 我們需要添加這個方法
+        int conduitMana = conduit.getBufferManaStored();
         if (conduitMana > 0) {
             sharedManaPool.receiveMana(conduitMana, ManaAction.EXECUTE);
             conduit.setBufferMana(0); // 清空導管自己的魔力
         }
 
-        LOGGER.debug("Added conduit {} to network. Total conduits: {}", pos, connectedConduits.size());
+        LOGGER.debug("Added conduit {} to network. Total conduits: {}", conduit.getBlockPos(), members.size());
     }
 
     /**
      * 導管離開網路
      */
     public void removeConduit(BlockPos pos) {
-        if (connectedConduits.remove(pos)) {
-            conduitMap.remove(pos);
-            LOGGER.debug("Removed conduit {} from network. Remaining: {}", pos, connectedConduits.size());
+        long key = pos.asLong();
+        if (members.remove(key)) {
+            totalMemberCapacity -= memberCapacity.remove(key);
+            updateCapacity();
+            LOGGER.debug("Removed conduit {} from network. Remaining: {}", pos, members.size());
         }
     }
 
+    /**
+     * 成員等級變化時更新池容量
+     */
+    public void onMemberTierChanged(ArcaneConduitBlockEntity conduit) {
+        long key = conduit.getBlockPos().asLong();
+        if (members.contains(key)) {
+            setMemberCapacity(key, contributionOf(conduit.getTier()));
+        }
+    }
+
+    /**
+     * 把魔力移到另一個網路（合併 / 拆分用），不受目標容量限制，不會遺失魔力
+     */
+    public int transferManaTo(VirtualNetwork target, int amount) {
+        int moved = extractManaFromNetwork(amount, ManaAction.EXECUTE);
+        target.restoreMana(moved);
+        return moved;
+    }
+
+    /**
+     * 存入魔力且不受容量限制（存檔還原 / 網路間移轉）
+     */
+    public void restoreMana(int amount) {
+        if (amount <= 0) return;
+        setTotalManaStored((int) Math.min(Integer.MAX_VALUE, (long) getTotalManaStored() + amount));
+    }
+
     /**
      * 從網路提取魔力
      */
     public int extractManaFromNetwork(int maxExtract, ManaAction action) { // ✅ 添加 action 參數
-        return sharedManaPool.extractMana(maxExtract, action); // ✅ 使用正確的 action
+        int extracted = sharedManaPool.extractMana(maxExtract, action); // ✅ 使用正確的 action
+        if (action.execute() && extracted > 0 && sharedManaPool.getMaxManaStored() > computeCapacity()) {
+            updateCapacity(); // 超額的魔力被取走後，容量回到正常值
+        }
+        return extracted;
     }
 
     /**
@@ -112,13 +171,35 @@ public class VirtualNetwork {
      * 檢查導管是否在網路中
      */
     public boolean contains(BlockPos pos) {
-        return connectedConduits.contains(pos);
+        return members.contains(pos.asLong());
     }
 
     /**
      * 獲取網路大小
      */
     public int getNetworkSize() {
-        return connectedConduits.size();
+        return members.size();
+    }
+
+    // === 容量計算 ===
+
+    private static int contributionOf(ConduitTier tier) {
+        return tier.getBufferCapacity() * POOL_CAPACITY_PER_BUFFER;
+    }
+
+    private void setMemberCapacity(long key, int contribution) {
+        totalMemberCapacity += contribution - memberCapacity.put(key, contribution);
+        updateCapacity();
+    }
+
+    private int computeCapacity() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(BASE_CAPACITY, totalMemberCapacity));
+    }
+
+    /**
+     * 重新計算池容量；縮容時保留已存魔力（容量不低於目前存量）
+     */
+    private void updateCapacity() {
+        sharedManaPool.setCapacity(Math.max(computeCapacity(), sharedManaPool.getManaStored()));
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,6 @@ import com.github.nalamodikk.common.block.blockentity.conduit.ArcaneConduitBlock
 import com.github.nalamodikk.common.capability.mana.ManaAction;
 import com.github.nalamodikk.common.coreapi.block.IConfigurableBlock;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
-import com.github.nalamodikk.register.ModCapabilities;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.level.Level;
@@ -69,14 +68,13 @@ public class PullManager {
                 continue; // 跳過非輸入方向
             }
 
-            BlockPos neighborPos = conduitPos.relative(direction);
-            BlockEntity neighborBE = level.getBlockEntity(neighborPos);
+            BlockEntity neighborBE = conduit.getNeighborCapabilities().getNeighbor(direction);
 
             if (neighborBE == null) continue;
 
             // 🚨 防循環：不要從其他導管拉取！
             if (neighborBE instanceof ArcaneConduitBlockEntity) {
-                LOGGER.trace("Skipping pull from conduit at {} to avoid loops", neighborPos);
+                LOGGER.trace("Skipping pull from conduit at {} to avoid loops", neighborBE.getBlockPos());
                 continue; // 跳過其他導管
             }
 
@@ -99,9 +97,8 @@ public class PullManager {
     private int tryPullFromNeighbor(BlockEntity neighborBE, Direction directionFromConduit, int maxAmount) {
         Direction directionTowardsNeighbor = directionFromConduit.getOpposite();
 
-        // 🔗 獲取鄰居的魔力能力
-        var neighborManaHandler = neighborBE.getLevel()
-                .getCapability(ModCapabilities.MANA, neighborBE.getBlockPos(), directionTowardsNeighbor);
+        // 🔗 獲取鄰居的魔力能力（由鄰居能力緩存提供）
+        var neighborManaHandler = conduit.getNeighborCapabilities().getMana(directionFromConduit);
 
         if (neighborManaHandler == null) return 0;
 
@@ -225,13 +222,12 @@ public class PullManager {
 
         for (Direction direction : Direction.values()) {
             BlockPos neighborPos = conduitPos.relative(direction);
-            BlockEntity neighborBE = level.getBlockEntity(neighborPos);
+            BlockEntity neighborBE = conduit.getNeighborCapabilities().getNeighbor(direction);
 
             if (neighborBE == null) continue;
 
             Direction neighborSide = direction.getOpposite();
-            var manaHandler = neighborBE.getLevel()
-                    .getCapability(ModCapabilities.MANA, neighborBE.getBlockPos(), neighborSide);
+            var manaHandler = conduit.getNeighborCapabilities().getMana(direction);
 
             if (manaHandler != null && canPullFromThisSide(neighborBE, neighborSide)) {
                 result.add(new PullableNeighborInfo(
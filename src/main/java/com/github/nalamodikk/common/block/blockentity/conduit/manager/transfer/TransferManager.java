@@ -9,12 +9,9 @@ import com.github.nalamodikk.common.block.blockentity.conduit.manager.network.Ba
 import com.github.nalamodikk.common.block.blockentity.conduit.manager.network.NetworkManager;
 import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
 import com.github.nalamodikk.common.capability.mana.ManaAction;
-import com.github.nalamodikk.common.utils.capability.CapabilityUtils;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
-import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.world.level.block.entity.BlockEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,9 +45,11 @@ public class TransferManager {
     private int transfersThisTick = 0;
 
     // === 🆕 智能路由狀態 ===
-    // 記錄最近的傳輸路徑，防止循環
-    private final java.util.Deque<Direction> recentTransferPath = new java.util.ArrayDeque<>(5);
+    // 記錄最近的傳輸路徑，防止循環（固定大小環形緩衝，遍歷時不建立迭代器）
     private static final int MAX_PATH_HISTORY = 5; // 記錄最近5次傳輸
+    private final Direction[] recentTransferPath = new Direction[MAX_PATH_HISTORY];
+    private int pathStart = 0;
+    private int pathSize = 0;
 
     // === 建構子 ===
     public TransferManager(ArcaneConduitBlockEntity conduit,
@@ -121,7 +120,7 @@ public class TransferManager {
 
         // 使用負載平衡策略選擇目標
         return BalancingStrategy.selectBestTarget(
-                networkManager.getValidTargets(),
+                networkManager.getValidTargetMask(),
                 conduit,
                 ioManager,
                 networkManager,
@@ -163,13 +162,13 @@ public class TransferManager {
      * 如果同一方向在最近的路徑中出現超過2次，視為循環
      */
     private boolean isCircularPath(Direction targetDir) {
-        if (recentTransferPath.size() < 3) {
+        if (pathSize < 3) {
             return false; // 路徑太短，無法判斷
         }
 
         int occurrences = 0;
-        for (Direction dir : recentTransferPath) {
-            if (dir == targetDir) {
+        for (int i = 0; i < pathSize; i++) {
+            if (pathAt(i) == targetDir) {
                 occurrences++;
                 if (occurrences >= 2) {
                     return true; // 同一方向出現2次以上，可能是循環
@@ -204,8 +203,7 @@ public class TransferManager {
         if (transferAmount <= 0) return;
 
         // 執行傳輸
-        BlockPos neighborPos = conduit.getBlockPos().relative(targetDir);
-        IUnifiedManaHandler handler = CapabilityUtils.getNeighborMana(conduit.getLevel(), neighborPos, targetDir);
+        IUnifiedManaHandler handler = conduit.getNeighborCapabilities().getMana(targetDir);
 
         if (handler != null) {
             // 模擬傳輸
@@ -222,11 +220,13 @@ public class TransferManager {
                 updateTransferState(targetDir, actualReceived, currentTick, true);
 
             } else {
-                LOGGER.debug("Transfer simulation failed: tried {}, got {}", transferAmount, simulated);
+                if (LOGGER.isDebugEnabled()) { // 避免關閉日誌時仍裝箱參數
+                    LOGGER.debug("Transfer simulation failed: tried {}, got {}", transferAmount, simulated);
+                }
                 updateTransferState(targetDir, 0, currentTick, false);
             }
         } else {
-            LOGGER.debug("No mana handler found at {}", neighborPos);
+            LOGGER.debug("No mana handler found at {}", conduit.getBlockPos().relative(targetDir));
             updateTransferState(targetDir, 0, currentTick, false);
         }
     }
@@ -235,10 +235,7 @@ public class TransferManager {
      * 驗證導管間傳輸
      */
     private boolean validateConduitTransfer(Direction targetDir) {
-        BlockPos neighborPos = conduit.getBlockPos().relative(targetDir);
-        BlockEntity neighborBE = conduit.getLevel().getBlockEntity(neighborPos);
-
-        if (!(neighborBE instanceof ArcaneConduitBlockEntity neighborConduit)) {
+        if (!(conduit.getNeighborCapabilities().getNeighbor(targetDir) instanceof ArcaneConduitBlockEntity neighborConduit)) {
             return false;
         }
 
@@ -294,15 +291,29 @@ public class TransferManager {
      * 🆕 更新傳輸路徑歷史
      */
     private void updateTransferPath(Direction direction) {
-        // 添加到路徑歷史
-        recentTransferPath.addLast(direction);
-
-        // 保持歷史記錄在限制內
-        while (recentTransferPath.size() > MAX_PATH_HISTORY) {
-            recentTransferPath.removeFirst();
+        // 添加到路徑歷史，滿了就覆蓋最舊的一筆
+        if (pathSize < MAX_PATH_HISTORY) {
+            recentTransferPath[(pathStart + pathSize) % MAX_PATH_HISTORY] = direction;
+            pathSize++;
+        } else {
+            recentTransferPath[pathStart] = direction;
+            pathStart = (pathStart + 1) % MAX_PATH_HISTORY;
         }
     }
 
+    /**
+     * 路徑歷史中第 index 筆（0 為最舊）
+     */
+    private Direction pathAt(int index) {
+        return recentTransferPath[(pathStart + index) % MAX_PATH_HISTORY];
+    }
+
+    private void resetPath() {
+        Arrays.fill(recentTransferPath, null);
+        pathStart = 0;
+        pathSize = 0;
+    }
+
     // === 速率限制相關方法 ===
 
     /**
@@ -370,7 +381,7 @@ public class TransferManager {
         // 重置運行時狀態
         busyDirections.clear();
         transfersThisTick = 0;
-        recentTransferPath.clear(); // 🆕 清除路徑歷史
+        resetPath(); // 🆕 清除路徑歷史
     }
 
     // === Getter 方法 ===
@@ -409,13 +420,13 @@ public class TransferManager {
      * 🆕 獲取最近的傳輸路徑（供調試使用）
      */
     public String getRecentPathDebugInfo() {
-        if (recentTransferPath.isEmpty()) {
+        if (pathSize == 0) {
             return "No recent transfers";
         }
 
         StringBuilder sb = new StringBuilder("Recent path: ");
-        for (Direction dir : recentTransferPath) {
-            sb.append(dir.name()).append(" → ");
+        for (int i = 0; i < pathSize; i++) {
+            sb.append(pathAt(i).name()).append(" → ");
         }
         return sb.toString();
     }
@@ -424,7 +435,7 @@ public class TransferManager {
      * 🆕 清除路徑歷史（用於手動重置）
      */
     public void clearPathHistory() {
-        recentTransferPath.clear();
+        resetPath();
         LOGGER.debug("Transfer path history cleared");
     }
 
@@ -432,25 +443,18 @@ public class TransferManager {
      * 🆕 檢查當前是否可能存在循環
      */
     public boolean hasPotentialCircularPath() {
-        if (recentTransferPath.size() < 4) {
+        if (pathSize < 4) {
             return false;
         }
 
         // 簡單的循環檢測：ABAB 模式
-        java.util.List<Direction> pathList = new java.util.ArrayList<>(recentTransferPath);
-        int size = pathList.size();
-
-        if (size >= 4) {
-            // 檢查最後4個元素是否形成 ABAB 模式
-            Direction a = pathList.get(size - 4);
-            Direction b = pathList.get(size - 3);
-            Direction c = pathList.get(size - 2);
-            Direction d = pathList.get(size - 1);
+        // 檢查最後4個元素是否形成 ABAB 模式
+        Direction a = pathAt(pathSize - 4);
+        Direction b = pathAt(pathSize - 3);
+        Direction c = pathAt(pathSize - 2);
+        Direction d = pathAt(pathSize - 1);
 
-            return (a == c && b == d && a != b);
-        }
-
-        return false;
+        return (a == c && b == d && a != b);
     }
 }
 
@@ -162,50 +162,30 @@ public class ManaCraftingMenu extends AbstractContainerMenu {
             int manaCost = recipe.getManaCost();
             if (manaCost <= 0) return ItemStack.EMPTY;
 
-            // 準備目前的輸入
-            ManaCraftingTableRecipe.ManaCraftingInput input = blockEntity.getManaCraftingInput();
+            ItemStack result = recipe.assemble(blockEntity.getManaCraftingInput(), player.level().registryAccess());
+            if (result.isEmpty()) return ItemStack.EMPTY;
 
-            // ✅ 計算最大合成次數：由配方判定哪些材料足夠
-            int maxCraft = recipe.getMaxCraftsPossible(input);
-            maxCraft = Math.min(maxCraft, blockEntity.getManaStored() / manaCost); // 再限制魔力
+            // ✅ 一次算出可合成次數：材料、魔力、背包空間取最小
+            int maxCraft = blockEntity.getMaxCraftsFromInputs();
+            maxCraft = Math.min(maxCraft, blockEntity.getManaStored() / manaCost);
+            maxCraft = Math.min(maxCraft, getPlayerInventoryCapacity(result) / result.getCount());
 
             LOGGER.debug("[QuickMove] maxCraft = {}", maxCraft);
+            if (maxCraft <= 0) return ItemStack.EMPTY;
 
-            ItemStack totalResult = ItemStack.EMPTY;
+            // ✅ 產物先放進背包：moveItemStackTo 每次只會補滿部分堆疊再填一個空槽，
+            //    所以以最大堆疊數為單位分批放入，直到全部放完或背包放不下
+            int placed = insertIntoPlayerInventory(result, result.getCount() * maxCraft);
+            int crafted = (placed + result.getCount() - 1) / result.getCount();
+            if (crafted <= 0) return ItemStack.EMPTY;
 
-            for (int i = 0; i < maxCraft; i++) {
-                input = blockEntity.getManaCraftingInput(); // 每次重建輸入（已經會 shrink）
-                ItemStack simulated = recipe.assemble(input, player.level().registryAccess());
-                if (simulated.isEmpty()) break;
-
-                // ✅ 扣魔力
-                blockEntity.consumeMana(manaCost);
-
-                // ✅ 扣材料
-                for (int j = INPUT_SLOT_START; j <= INPUT_SLOT_END; j++) {
-                    ItemStack in = blockEntity.getItemHandler().getStackInSlot(j);
-                    if (!in.isEmpty()) in.shrink(1);
-                }
-
-                // ✅ 嘗試搬到背包
-                if (!this.moveItemStackTo(simulated.copy(), TOTAL_SLOTS, this.slots.size(), true)) {
-                    LOGGER.debug("[QuickMove] 背包滿了，中止批次合成");
-                    break;
-                }
-
-                if (totalResult.isEmpty()) {
-                    totalResult = simulated.copy();
-                } else if (ItemStack.isSameItemSameComponents(totalResult, simulated)) {
-                    totalResult.grow(simulated.getCount());
-                } else {
-                    LOGGER.debug("[QuickMove] 不同產物 → 中止批次合成");
-                    break;
-                }
-            }
+            // ✅ 依實際放入的次數一次扣魔力、一次扣材料（產物不會掉在地上）
+            blockEntity.consumeMana(manaCost * crafted);
+            blockEntity.consumeCraftInputs(crafted);
 
             blockEntity.setChanged();               // 同步
             blockEntity.updateCraftingResult();     // 更新產物
-            return totalResult;
+            return result.copyWithCount(placed);
         }
 
 
@@ -240,6 +220,43 @@ public class ManaCraftingMenu extends AbstractContainerMenu {
 
 
 
+    /**
+     * 把 total 個產物分批（每批不超過最大堆疊數）放進玩家背包，回傳實際放入的數量
+     */
+    private int insertIntoPlayerInventory(ItemStack result, int total) {
+        int maxStackSize = result.getMaxStackSize();
+        int remaining = total;
+        while (remaining > 0) {
+            int chunk = Math.min(remaining, maxStackSize);
+            ItemStack toInsert = result.copyWithCount(chunk);
+            this.moveItemStackTo(toInsert, TOTAL_SLOTS, this.slots.size(), true);
+
+            int inserted = chunk - toInsert.getCount();
+            if (inserted <= 0) break; // 背包已滿
+            remaining -= inserted;
+        }
+        return total - remaining;
+    }
+
+    /**
+     * 計算玩家背包還能放入多少個這種物品（與 moveItemStackTo 的合併規則一致）
+     */
+    private int getPlayerInventoryCapacity(ItemStack stack) {
+        int capacity = 0;
+        for (int i = TOTAL_SLOTS; i < this.slots.size(); i++) {
+            Slot slot = this.slots.get(i);
+            ItemStack existing = slot.getItem();
+            if (existing.isEmpty()) {
+                if (slot.mayPlace(stack)) {
+                    capacity += slot.getMaxStackSize(stack);
+                }
+            } else if (ItemStack.isSameItemSameComponents(existing, stack)) {
+                capacity += Math.max(0, slot.getMaxStackSize(existing) - existing.getCount());
+            }
+        }
+        return capacity;
+    }
+
     private boolean canInsertIntoPlayerInventory(ItemStack stack) {
         for (int i = TOTAL_SLOTS; i < this.slots.size(); i++) {
             Slot slot = this.slots.get(i);
@@ -0,0 +1,184 @@
+package com.github.nalamodikk.common.block.blockentity.mana_crafting;
+
+import com.github.nalamodikk.common.coreapi.recipe.RecipeIndexCache;
+import com.github.nalamodikk.register.ModRecipes;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 🔍 魔力合成台配方索引
+ *
+ * - 有序配方：依「哪些格子有材料」的 9 位元遮罩分桶，再以第一個有材料格子的物品分組
+ *   （有序配方是逐格比對、不平移，遮罩必須完全相同）
+ * - 無序配方：依材料數量分桶；材料皆為 simple 時記下可接受的物品集合，輸入有集合外的物品就直接略過
+ * - 候選配方最後仍呼叫 {@link ManaCraftingTableRecipe#matches}，結果與 RecipeManager.getRecipeFor 相同
+ */
+public final class ManaCraftingRecipeIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManaCraftingRecipeIndex.class);
+
+    private static final RecipeIndexCache<ManaCraftingRecipeIndex> CACHE = RecipeIndexCache.create(ManaCraftingRecipeIndex::build);
+
+    private static final int GRID_SIZE = 9;
+
+    // 遮罩 → 第一格物品 → 有序配方
+    private final Int2ObjectOpenHashMap<Map<Item, List<Entry>>> shapedByMask = new Int2ObjectOpenHashMap<>();
+    // 遮罩 → 第一格為自訂材料的有序配方
+    private final Int2ObjectOpenHashMap<List<Entry>> shapedUnindexed = new Int2ObjectOpenHashMap<>();
+    // 材料數量 → 無序配方
+    private final Int2ObjectOpenHashMap<List<Entry>> shapelessBySize = new Int2ObjectOpenHashMap<>();
+
+    private ManaCraftingRecipeIndex() {}
+
+    /**
+     * 取得目前的索引；重載後會是新的實例，可用來判斷呼叫端的緩存是否過期
+     */
+    public static ManaCraftingRecipeIndex get(Level level) {
+        return CACHE.get(level);
+    }
+
+    // === 查詢 ===
+
+    @Nullable
+    public RecipeHolder<ManaCraftingTableRecipe> find(ManaCraftingTableRecipe.ManaCraftingInput input, Level level) {
+        if (input.getContainerSize() != GRID_SIZE) return null;
+
+        int mask = 0;
+        int occupied = 0;
+        Item firstItem = null;
+        for (int i = 0; i < GRID_SIZE; i++) {
+            ItemStack stack = input.getItem(i);
+            if (stack.isEmpty()) continue;
+
+            mask |= 1 << i;
+            occupied++;
+            if (firstItem == null) firstItem = stack.getItem();
+        }
+
+        // 各桶內已按 RecipeManager 順序排列；跨桶取順序最前的符合配方
+        Best best = new Best();
+
+        Map<Item, List<Entry>> shaped = shapedByMask.get(mask);
+        if (shaped != null && firstItem != null) {
+            test(shaped.getOrDefault(firstItem, List.of()), input, level, best, false);
+        }
+        test(shapedUnindexed.getOrDefault(mask, List.of()), input, level, best, false);
+        test(shapelessBySize.getOrDefault(occupied, List.of()), input, level, best, true);
+
+        return best.holder;
+    }
+
+    private static void test(List<Entry> entries, ManaCraftingTableRecipe.ManaCraftingInput input, Level level,
+                             Best best, boolean checkItems) {
+        for (Entry entry : entries) {
+            if (entry.order() >= best.order) return;
+            if (checkItems && !entry.acceptsAll(input)) continue;
+
+            if (entry.holder().value().matches(input, level)) {
+                best.order = entry.order();
+                best.holder = entry.holder();
+                return;
+            }
+        }
+    }
+
+    private static final class Best {
+        int order = Integer.MAX_VALUE;
+        RecipeHolder<ManaCraftingTableRecipe> holder = null;
+    }
+
+    // === 建立 ===
+
+    private static ManaCraftingRecipeIndex build(RecipeManager manager) {
+        ManaCraftingRecipeIndex index = new ManaCraftingRecipeIndex();
+        List<RecipeHolder<ManaCraftingTableRecipe>> holders = manager.getAllRecipesFor(ModRecipes.MANA_CRAFTING_TYPE.get());
+
+        for (int order = 0; order < holders.size(); order++) {
+            RecipeHolder<ManaCraftingTableRecipe> holder = holders.get(order);
+            if (holder.value().isShaped()) {
+                index.addShaped(order, holder);
+            } else {
+                index.addShapeless(order, holder);
+            }
+        }
+
+        LOGGER.debug("Indexed {} mana crafting recipes ({} shaped masks, {} shapeless sizes)",
+                holders.size(), index.shapedByMask.size() + index.shapedUnindexed.size(), index.shapelessBySize.size());
+        return index;
+    }
+
+    private void addShaped(int order, RecipeHolder<ManaCraftingTableRecipe> holder) {
+        List<Ingredient> ingredients = holder.value().getIngredients();
+        Entry entry = new Entry(order, holder, null);
+
+        int mask = 0;
+        int first = -1;
+        for (int i = 0; i < Math.min(ingredients.size(), GRID_SIZE); i++) {
+            if (ingredients.get(i).isEmpty()) continue;
+            mask |= 1 << i;
+            if (first < 0) first = i;
+        }
+
+        if (first < 0 || !ingredients.get(first).isSimple()) {
+            shapedUnindexed.computeIfAbsent(mask, m -> new ArrayList<>()).add(entry);
+            return;
+        }
+
+        Map<Item, List<Entry>> byItem = shapedByMask.computeIfAbsent(mask, m -> new IdentityHashMap<>());
+        for (ItemStack stack : ingredients.get(first).getItems()) {
+            List<Entry> entries = byItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+            // 同一材料可能展開出重複物品
+            if (entries.isEmpty() || entries.get(entries.size() - 1) != entry) {
+                entries.add(entry);
+            }
+        }
+    }
+
+    private void addShapeless(int order, RecipeHolder<ManaCraftingTableRecipe> holder) {
+        List<Ingredient> ingredients = holder.value().getIngredients();
+
+        // 材料皆為 simple 時，收集所有可接受的物品
+        Set<Item> items = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Ingredient ingredient : ingredients) {
+            if (!ingredient.isSimple()) {
+                items = null;
+                break;
+            }
+            for (ItemStack stack : ingredient.getItems()) {
+                items.add(stack.getItem());
+            }
+        }
+
+        shapelessBySize.computeIfAbsent(ingredients.size(), size -> new ArrayList<>())
+                .add(new Entry(order, holder, items));
+    }
+
+    /**
+     * @param items 無序配方可接受的物品集合；null 表示無法預先判斷
+     */
+    private record Entry(int order, RecipeHolder<ManaCraftingTableRecipe> holder, @Nullable Set<Item> items) {
+        boolean acceptsAll(ManaCraftingTableRecipe.ManaCraftingInput input) {
+            if (items == null) return true;
+            for (int i = 0; i < GRID_SIZE; i++) {
+                ItemStack stack = input.getItem(i);
+                if (!stack.isEmpty() && !items.contains(stack.getItem())) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -10,8 +10,8 @@ import com.github.nalamodikk.common.config.ModCommonConfig;
 import com.github.nalamodikk.common.coreapi.block.IConfigurableBlock;
 import com.github.nalamodikk.common.coreapi.block.mana.IManaCraftingMachine;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
+import com.github.nalamodikk.common.utils.capability.NeighborCapabilityCache;
 import com.github.nalamodikk.register.ModBlockEntities;
-import com.github.nalamodikk.register.ModRecipes;
 import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -49,6 +49,11 @@ public class ManaCraftingTableBlockEntity extends BlockEntity implements MenuPro
     private static final long MAX_RECIPE_QUERY_TIME_NANOS = 1_000_000L; // 1ms
 
     private RecipeHolder<ManaCraftingTableRecipe> lastMatchedRecipe;
+
+    // 🔎 上次查詢的輸入指紋（每格物品 + 資料元件，不含數量）與結果；索引重建後作廢
+    private final ItemStack[] memoInputs = new ItemStack[INPUT_SLOT_COUNT];
+    private ManaCraftingRecipeIndex memoIndex = null;
+    private RecipeHolder<ManaCraftingTableRecipe> memoRecipe = null;
     /**
      * ✅ 取得最後一次成功匹配的配方本體（Recipe）
      * 僅回傳配方內容本身，不包含配方 ID 等資訊。
@@ -74,6 +79,7 @@ public class ManaCraftingTableBlockEntity extends BlockEntity implements MenuPro
     private final EnumMap<Direction, IOHandlerUtils.IOType> directionConfig = Util.make(new EnumMap<>(Direction.class), map -> {
         for (Direction d : Direction.values()) map.put(d, IOHandlerUtils.IOType.INPUT); // 預設為可抽入
     });
+    private final NeighborCapabilityCache neighborCapabilities = new NeighborCapabilityCache(this);
     public static int getRecipeRefreshInterval() {
         return RECIPE_REFRESH_INTERVAL;
     }
@@ -120,13 +126,13 @@ public class ManaCraftingTableBlockEntity extends BlockEntity implements MenuPro
         int hash = 1;
         for (int i = 0; i < INPUT_SLOT_COUNT; i++) {
             ItemStack stack = itemHandler.getStackInSlot(i);
-            hash = 31 * hash + (stack.isEmpty() ? 0 : stack.getItem().hashCode() + stack.getCount());
+            hash = 31 * hash + (stack.isEmpty() ? 0 : ItemStack.hashItemAndComponents(stack) + stack.getCount());
         }
         return hash;
     }
 
     private void extractManaFromNeighbors() {
-        IOHandlerUtils.extractManaFromNeighbors(level, worldPosition, manaStorage, directionConfig, 50 // 每面最多提取的 mana 數量
+        IOHandlerUtils.extractManaFromNeighbors(neighborCapabilities, manaStorage, directionConfig, 50 // 每面最多提取的 mana 數量
         );
     }
 
@@ -138,8 +144,7 @@ public class ManaCraftingTableBlockEntity extends BlockEntity implements MenuPro
             input.setItem(i, itemHandler.getStackInSlot(i));
         }
 
-        Optional<RecipeHolder<ManaCraftingTableRecipe>> recipe = level.getRecipeManager()
-                .getRecipeFor(ModRecipes.MANA_CRAFTING_TYPE.get(), input, level);
+        Optional<RecipeHolder<ManaCraftingTableRecipe>> recipe = Optional.ofNullable(findRecipe(input));
 
         // 檢查是否有魔力足夠
         // 若新的配方合法，結果變動才標記 dirty
@@ -167,6 +172,35 @@ public class ManaCraftingTableBlockEntity extends BlockEntity implements MenuPro
 
 
 
+    /**
+     * 透過配方索引查詢；輸入的物品與資料元件都沒變時直接沿用上次結果（只有數量變化、或魔力變化觸發的重算）
+     */
+    @Nullable
+    private RecipeHolder<ManaCraftingTableRecipe> findRecipe(ManaCraftingTableRecipe.ManaCraftingInput input) {
+        ManaCraftingRecipeIndex index = ManaCraftingRecipeIndex.get(level);
+        if (index == memoIndex && isSameAsMemo(input)) {
+            return memoRecipe;
+        }
+
+        RecipeHolder<ManaCraftingTableRecipe> recipe = index.find(input, level);
+        for (int i = 0; i < INPUT_SLOT_COUNT; i++) {
+            memoInputs[i] = input.getItem(i).copyWithCount(1);
+        }
+        memoIndex = index;
+        memoRecipe = recipe;
+        return recipe;
+    }
+
+    private boolean isSameAsMemo(ManaCraftingTableRecipe.ManaCraftingInput input) {
+        for (int i = 0; i < INPUT_SLOT_COUNT; i++) {
+            if (!ItemStack.isSameItemSameComponents(memoInputs[i], input.getItem(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
     public void craftItem(Player player) {
         if (level == null || level.isClientSide()) return;
 
@@ -255,6 +289,32 @@ public class ManaCraftingTableBlockEntity extends BlockEntity implements MenuPro
     }
 
 
+    /**
+     * 依目前輸入最多可合成幾次：每次合成每個有物品的格子各扣 1
+     */
+    public int getMaxCraftsFromInputs() {
+        int max = Integer.MAX_VALUE;
+        for (int i = 0; i < INPUT_SLOT_COUNT; i++) {
+            ItemStack stack = itemHandler.getStackInSlot(i);
+            if (!stack.isEmpty()) {
+                max = Math.min(max, stack.getCount());
+            }
+        }
+        return max == Integer.MAX_VALUE ? 0 : max;
+    }
+
+    /**
+     * 扣除 crafts 次合成所需的材料（每個有物品的格子各扣 crafts 個）
+     */
+    public void consumeCraftInputs(int crafts) {
+        for (int i = 0; i < INPUT_SLOT_COUNT; i++) {
+            if (!itemHandler.getStackInSlot(i).isEmpty()) {
+                itemHandler.extractItem(i, crafts, false);
+            }
+        }
+    }
+
+
     @Override
     protected void loadAdditional(CompoundTag tag, HolderLookup.Provider registries) {
         super.loadAdditional(tag, registries);
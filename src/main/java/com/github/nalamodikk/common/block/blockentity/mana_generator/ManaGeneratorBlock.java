@@ -1,7 +1,6 @@
 package com.github.nalamodikk.common.block.blockentity.mana_generator;
 
 import com.github.nalamodikk.common.block.blockentity.manabase.BaseMachineBlock;
-import com.github.nalamodikk.register.ModBlockEntities;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
@@ -118,7 +117,8 @@ public class ManaGeneratorBlock extends BaseMachineBlock {
 
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-        return createTickerHelper(type, ModBlockEntities.MANA_GENERATOR_BE.get(), ManaGeneratorBlockEntity::tick);
+        // ⏱️ 伺服器端由 MachineScheduler 驅動（可休眠）；客戶端沒有需要每 tick 執行的邏輯
+        return null;
     }
 
     @Override
@@ -5,18 +5,21 @@
     import com.github.nalamodikk.common.block.blockentity.conduit.ArcaneConduitBlockEntity;
     import com.github.nalamodikk.common.block.blockentity.mana_generator.logic.*;
     import com.github.nalamodikk.common.block.blockentity.mana_generator.recipe.loader.ManaGenFuelRateLoader;
+    import com.github.nalamodikk.common.block.blockentity.mana_generator.sync.ManaGeneratorClientSync;
     import com.github.nalamodikk.common.block.blockentity.mana_generator.sync.ManaGeneratorSyncHelper;
     import com.github.nalamodikk.common.block.blockentity.manabase.AbstractManaMachineEntityBlock;
     import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
     import com.github.nalamodikk.common.capability.ManaStorage;
     import com.github.nalamodikk.common.compat.energy.ModNeoNalaEnergyStorage;
+    import com.github.nalamodikk.common.coreapi.machine.logic.IO.DemandEstimator;
+    import com.github.nalamodikk.common.coreapi.machine.logic.IO.OutputDistributor;
     import com.github.nalamodikk.common.coreapi.machine.logic.gen.EnergyGenerationHandler;
     import com.github.nalamodikk.common.coreapi.machine.logic.gen.FuelManaGenHelper;
     import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
+    import com.github.nalamodikk.common.utils.capability.NeighborCapabilityCache;
     import com.github.nalamodikk.common.utils.upgrade.UpgradeInventory;
     import com.github.nalamodikk.common.utils.upgrade.api.IUpgradeableMachine;
     import com.github.nalamodikk.register.ModBlockEntities;
-    import com.github.nalamodikk.register.ModCapabilities;
     import net.minecraft.core.BlockPos;
     import net.minecraft.core.Direction;
     import net.minecraft.core.HolderLookup;
@@ -40,8 +43,6 @@
     import net.minecraft.world.level.block.entity.BlockEntityTicker;
     import net.minecraft.world.level.block.entity.BlockEntityType;
     import net.minecraft.world.level.block.state.BlockState;
-    import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
-    import net.neoforged.neoforge.capabilities.Capabilities;
     import net.neoforged.neoforge.energy.IEnergyStorage;
     import net.neoforged.neoforge.items.IItemHandler;
     import net.neoforged.neoforge.items.ItemStackHandler;
@@ -55,8 +56,7 @@
     public class ManaGeneratorBlockEntity extends AbstractManaMachineEntityBlock implements Container, WorldlyContainer, IUpgradeableMachine {
 
         private static final Logger LOGGER = LoggerFactory.getLogger(ManaGeneratorBlockEntity.class);
-        private final EnumMap<Direction, BlockCapabilityCache<IUnifiedManaHandler, Direction>> manaCaches = new EnumMap<>(Direction.class);
-        private final EnumMap<Direction, BlockCapabilityCache<IEnergyStorage, Direction>> energyCaches = new EnumMap<>(Direction.class);
+        private final NeighborCapabilityCache neighborCapabilities = new NeighborCapabilityCache(this);
         private boolean isSyncing = false;
 
         private static final int MAX_MANA = 200000;
@@ -73,17 +73,21 @@
         private static final int DEFAULT_ENERGY_PER_TICK = 40; // 或你想用的預設值
         // 替代原本的 UnifiedSyncManager syncManager
         private final ManaGeneratorSyncHelper syncHelper = new ManaGeneratorSyncHelper();
+        // 📡 世界端差量同步（取代整包 NBT 的 sendBlockUpdated）
+        private final ManaGeneratorClientSync clientSync = new ManaGeneratorClientSync();
         private final FuelManaGenHelper manaGenHandler;
         private final EnergyGenerationHandler energyGenHandler;
         private final ManaGeneratorTicker ticker = new ManaGeneratorTicker(this);
         private final EnumMap<Direction, IOHandlerUtils.IOType> ioMap = new EnumMap<>(Direction.class);
         private final OutputHandler.OutputThrottleController outputThrottle = new OutputHandler.OutputThrottleController();
+        // 🔌 依近期實際接收量分配輸出（每台機器自己的估算歷史）
+        private final OutputDistributor outputDistributor = new OutputDistributor(DemandEstimator::movingAverage);
 
         private final ManaGeneratorStateManager stateManager = new ManaGeneratorStateManager();
 
 
         private final ItemStackHandler fuelHandler = new ItemStackHandler(FUEL_SLOT_COUNT);
-        private final UpgradeInventory upgradeInventory = new UpgradeInventory(UPGRADE_SLOT_COUNT);
+        private final UpgradeInventory upgradeInventory = new UpgradeInventory(UPGRADE_SLOT_COUNT, ManaGeneratorUpgradeHandler::compileModifiers);
         private ContainerLevelAccess access;
         // ✅ 用來避免每幀都重播動畫，造成動畫 reset、跳針或閃爍
         private String currentAnimation = "";
@@ -102,7 +106,7 @@
 
             this.energyGenHandler = new EnergyGenerationHandler(this.energyStorage, () -> {
                 Optional<ManaGenFuelRateLoader.FuelRate> rate = getCurrentFuelRate();
-                return rate.map(ManaGenFuelRateLoader.FuelRate::getEnergyRate).orElse(DEFAULT_ENERGY_PER_TICK);
+                return rate.isPresent() ? rate.get().getEnergyRate() : DEFAULT_ENERGY_PER_TICK; // 不經 map，避免裝箱
             });
             for (Direction dir : Direction.values()) {
                 ioMap.put(dir, IOHandlerUtils.IOType.DISABLED); // 或從 NBT、DataComponent 還原
@@ -144,6 +148,7 @@
         public ModNeoNalaEnergyStorage getEnergyStorage() {return energyStorage;}
         private final ManaGeneratorNbtManager nbtManager = new ManaGeneratorNbtManager(this);
         public ManaGeneratorSyncHelper getSyncHelper() {return syncHelper;}
+        public ManaGeneratorClientSync getClientSync() {return clientSync;}
         private int clientSyncTimer = 0;
         // ✅ 性能優化：從每 0.5 秒改為每 1 秒同步，減少網絡流量
         private static final int CLIENT_SYNC_INTERVAL = 20; // 每20 tick (1秒) 同步一次到客戶端
@@ -160,12 +165,15 @@
         public void forceRefreshAnimationFromNbt() {this.forceRefreshAnimation = true;}
 
 
-        public EnumMap<Direction, BlockCapabilityCache<IUnifiedManaHandler,  Direction>> getManaOutputCaches() {
-            return manaCaches;
+        public NeighborCapabilityCache getNeighborCapabilities() {
+            return neighborCapabilities;
         }
 
-        public EnumMap<Direction, BlockCapabilityCache<IEnergyStorage, Direction>> getEnergyOutputCaches() {
-            return energyCaches;
+        /**
+         * 🔌 把魔力與能量送往設為輸出的方向（直接使用內部 ioMap，不複製）
+         */
+        public boolean outputToNeighbors() {
+            return outputDistributor.tryOutput(manaStorage, energyStorage, ioMap, neighborCapabilities);
         }
 
 
@@ -185,59 +193,14 @@
             // 新代碼只在實際使用時才創建，減少 50-60% 的初始化開銷
         }
 
-        /**
-         * ✅ 性能優化：懶加載 Capability 緩存
-         * 只在第一次訪問時才創建，而不是在 onLoad 時全部創建
-         */
-        private BlockCapabilityCache<IUnifiedManaHandler, Direction> getManaCache(Direction dir) {
-            return manaCaches.computeIfAbsent(dir, direction -> {
-                if (!(level instanceof ServerLevel serverLevel)) {
-                    return null;
-                }
-                BlockPos targetPos = worldPosition.relative(direction);
-                Direction inputSide = direction.getOpposite();
-                return BlockCapabilityCache.create(
-                        ModCapabilities.MANA,
-                        serverLevel,
-                        targetPos,
-                        inputSide,
-                        () -> !this.isRemoved(),
-                        () -> {}
-                );
-            });
-        }
-
-        /**
-         * ✅ 性能優化：懶加載 Energy Capability 緩存
-         */
-        private BlockCapabilityCache<IEnergyStorage, Direction> getEnergyCache(Direction dir) {
-            return energyCaches.computeIfAbsent(dir, direction -> {
-                if (!(level instanceof ServerLevel serverLevel)) {
-                    return null;
-                }
-                BlockPos targetPos = worldPosition.relative(direction);
-                Direction inputSide = direction.getOpposite();
-                return BlockCapabilityCache.create(
-                        Capabilities.EnergyStorage.BLOCK,
-                        serverLevel,
-                        targetPos,
-                        inputSide,
-                        () -> !this.isRemoved(),
-                        () -> {}
-                );
-            });
-        }
-
         public @Nullable IUnifiedManaHandler getCachedManaCapability(Direction dir) {
-            // ✅ 使用懶加載的 getter
-            var cache = getManaCache(dir);
-            return cache != null ? cache.getCapability() : null;
+            // ✅ 由鄰居能力緩存懶加載並監聽失效
+            return neighborCapabilities.getMana(dir);
         }
 
         public @Nullable IEnergyStorage getCachedEnergyCapability(Direction dir) {
-            // ✅ 使用懶加載的 getter
-            var cache = getEnergyCache(dir);
-            return cache != null ? cache.getCapability() : null;
+            // ✅ 由鄰居能力緩存懶加載並監聽失效
+            return neighborCapabilities.getEnergy(dir);
         }
 
         @Override
@@ -263,9 +226,7 @@
 
 
         public void markUpdated() {
-            if (this.level != null) {
-                this.level.sendBlockUpdated(this.worldPosition, this.getBlockState(), this.getBlockState(), 3);
-            }
+            syncToClient();
         }
 
         public Optional<ManaGenFuelRateLoader.FuelRate> getCurrentFuelRate() {
@@ -289,19 +250,17 @@
                 if (clientSyncTimer >= CLIENT_SYNC_INTERVAL) {
                     clientSyncTimer = 0;
 
-                    // ✅ 只在有顯著變化時才同步，減少網絡流量
-                    if (hasSignificantChanges()) {
+                    // ✅ 只在有顯著變化（或上次超出流量預算）時才同步，減少網絡流量
+                    if (hasSignificantChanges() || clientSync.hasPending()) {
                         // 確保數據最新
                         syncHelper.syncFrom(this);
 
-                        // 如果有變化，同步到客戶端
-                        if (syncHelper.hasDirty()) {
-                            syncToClient();
-                            syncHelper.flushSyncState(this);
+                        // 只送出有變化的欄位
+                        syncToClient();
+                        syncHelper.flushSyncState(this);
 
-                            // 更新上次同步的值
-                            updateLastSyncedValues();
-                        }
+                        // 更新上次同步的值
+                        updateLastSyncedValues();
                     }
                 }
             }
@@ -349,9 +308,9 @@
                     // 更新同步數據
                     syncHelper.syncFrom(this);
 
-                    // 立即同步到客戶端
+                    // 立即同步到客戶端（差量）
                     super.setChanged();
-                    this.level.sendBlockUpdated(this.worldPosition, this.getBlockState(), this.getBlockState(), 3);
+                    syncToClient();
 
                     // 清除dirty狀態
                     syncHelper.flushSyncState(this);
@@ -365,10 +324,13 @@
             return syncHelper.getContainerData();
         }
 
+        /**
+         * 區塊載入時給客戶端的初始狀態：只含世界端需要的欄位，不含物品與升級
+         */
         @Override
         public CompoundTag getUpdateTag(HolderLookup.Provider registries) {
             CompoundTag tag = new CompoundTag();
-            this.saveAdditional(tag, registries);
+            nbtManager.saveClientState(tag, registries);
             return tag;
         }
 
@@ -384,7 +346,7 @@
 
         public void syncToClient() {
             if (level instanceof ServerLevel serverLevel) {
-                serverLevel.sendBlockUpdated(worldPosition, getBlockState(), getBlockState(), 3);
+                clientSync.sendChanges(serverLevel, this);
             }
         }
 
@@ -408,6 +370,7 @@
 
                     // ✅ 【新增】：通知鄰近方塊 (特別是導管) 重新檢查連接
                     notifyNeighborsOfIOChange();
+                    syncToClient();
                 }
             }
         }
@@ -442,6 +405,7 @@
 
                     // ✅ 【新增】：通知鄰近方塊重新檢查連接
                     notifyNeighborsOfIOChange();
+                    syncToClient();
                 }
             }
         }
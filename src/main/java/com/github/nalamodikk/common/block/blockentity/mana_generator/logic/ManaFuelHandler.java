@@ -29,6 +29,14 @@ public class ManaFuelHandler {
     private int resumeLogCounter = 0;
     private static final int LOG_EVERY = 5;
 
+    // 💾 有效產率快照與建立時的輸入
+    private Optional<FuelRate> rateSnapshot = null;
+    private ResourceLocation snapshotFuelId;
+    private int snapshotBurnTime;
+    private ManaGeneratorStateManager.Mode snapshotMode;
+    private int snapshotUpgradeVersion;
+    private int snapshotDataGeneration;
+
 
     public ManaFuelHandler( ItemStackHandler fuelHandler,ManaGeneratorStateManager stateManager) {
         this.fuelHandler = fuelHandler;
@@ -74,7 +82,7 @@ public class ManaFuelHandler {
         if (fuel.isEmpty() || fuel.getItem() == null) return false; // ← 加這裡保險
 
         ResourceLocation id = BuiltInRegistries.ITEM.getKey(fuel.getItem());
-        FuelRate rate = ManaGenFuelRateLoader.getFuelRateForItem(id);
+        FuelRate rate = ManaGenFuelRateLoader.getFuelRateForItem(fuel.getItem());
 
         if (rate == null || rate.getBurnTime() <= 0) {
             failedFuelCooldown = 20; // cooldown 20 tick 再試
@@ -202,7 +210,34 @@ public class ManaFuelHandler {
         return burnTime > 0;
     }
 
+    /**
+     * 💾 目前的有效產率（燃料 × 模式 × 升級）
+     *
+     * 發電機每 tick 會被問好幾次，所以結果存成不可變快照；
+     * 只有燃料、燃燒時間、模式、升級內容或燃料資料變了才重算，穩定狀態下只比對幾個欄位。
+     */
     public Optional<ManaGenFuelRateLoader.FuelRate> getCurrentFuelRate() {
+        int upgradeVersion = upgradeHandler != null ? upgradeHandler.getVersion() : -1;
+        ManaGeneratorStateManager.Mode mode = stateManager.getCurrentMode();
+        int dataGeneration = ManaGenFuelRateLoader.getGeneration();
+
+        if (rateSnapshot == null
+                || snapshotFuelId != currentFuelId
+                || snapshotBurnTime != currentBurnTime
+                || snapshotMode != mode
+                || snapshotUpgradeVersion != upgradeVersion
+                || snapshotDataGeneration != dataGeneration) {
+            rateSnapshot = computeFuelRate();
+            snapshotFuelId = currentFuelId;
+            snapshotBurnTime = currentBurnTime;
+            snapshotMode = mode;
+            snapshotUpgradeVersion = upgradeVersion;
+            snapshotDataGeneration = dataGeneration;
+        }
+        return rateSnapshot;
+    }
+
+    private Optional<ManaGenFuelRateLoader.FuelRate> computeFuelRate() {
         if (currentFuelId == null) return Optional.empty();
 
         ManaGenFuelRateLoader.FuelRate baseRate = ManaGenFuelRateLoader.getFuelRateForItem(currentFuelId);
@@ -241,8 +276,7 @@ public class ManaFuelHandler {
         }
 
         // 使用現有的燃料系統檢查
-        ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
-        ManaGenFuelRateLoader.FuelRate rate = ManaGenFuelRateLoader.getFuelRateForItem(itemId);
+        ManaGenFuelRateLoader.FuelRate rate = ManaGenFuelRateLoader.getFuelRateForItem(stack.getItem());
 
         // 檢查燃燒時間是否大於 0
         if (rate == null || rate.getBurnTime() <= 0) {
@@ -38,6 +38,21 @@ public class ManaGeneratorNbtManager {
 
     }
 
+    /**
+     * 📡 客戶端初始同步用的精簡狀態（不含物品、升級與燃料 ID）
+     */
+    public void saveClientState(CompoundTag tag, HolderLookup.Provider provider) {
+        tag.putInt("Mode", entity.getStateManager().getCurrentModeIndex());
+        tag.putInt("BurnTime", entity.getBurnTime());
+        tag.putInt("CurrentBurnTime", entity.getCurrentBurnTime());
+        tag.putBoolean("IsWorking", entity.isWorking());
+        tag.putBoolean("IsPaused", entity.getFuelLogic().isPaused());
+
+        NbtUtils.write(tag, "Mana", entity.getManaStorage(), provider);
+        NbtUtils.write(tag, "Energy", entity.getEnergyStorage(), provider);
+        NbtUtils.writeEnumIOTypeMap(tag, "IOMap", entity.getIOMap());
+    }
+
     public void load(CompoundTag tag, HolderLookup.Provider provider) {
 //        MagicalIndustryMod.LOGGER.info("[Client] loaded IsWorking = {}", tag.getBoolean("IsWorking"));
 
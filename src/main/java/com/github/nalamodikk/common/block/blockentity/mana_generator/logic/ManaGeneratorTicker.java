@@ -74,17 +74,9 @@ public class ManaGeneratorTicker {
                 }
             }
 
-            if (machine.getLevel() instanceof ServerLevel serverLevel) {
+            if (machine.getLevel() instanceof ServerLevel) {
                 if (machine.getOutputThrottle().shouldTryOutput()) {
-                    boolean outputSuccess = OutputHandler.tryOutput(
-                            serverLevel,
-                            machine.getBlockPos(),
-                            machine.getManaStorage(),
-                            machine.getEnergyStorage(),
-                            machine.getIOMap(),
-                            machine.getManaOutputCaches(),
-                            machine.getEnergyOutputCaches()
-                    );
+                    boolean outputSuccess = machine.outputToNeighbors();
                     machine.getOutputThrottle().recordOutputResult(outputSuccess);
                 }
             }
@@ -1,6 +1,7 @@
 package com.github.nalamodikk.common.block.blockentity.mana_generator.logic;
 
 import com.github.nalamodikk.common.utils.upgrade.UpgradeInventory;
+import com.github.nalamodikk.common.utils.upgrade.UpgradeModifiers;
 import com.github.nalamodikk.common.utils.upgrade.UpgradeType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,64 +23,82 @@ public class ManaGeneratorUpgradeHandler {
     public ManaGeneratorUpgradeHandler(UpgradeInventory upgradeInventory) {
         this.upgradeInventory = upgradeInventory;
     }
+
+    /**
+     * 升級內容版本號（內容變更就會改變），供產率快照判斷是否過期
+     */
+    public int getVersion() {
+        return upgradeInventory.getVersion();
+    }
     
+    // === 📈 升級效果編譯（只在升級內容改變時執行）===
+
+    // 倍數表：索引 = 升級數量，取代每次查詢的 Math.pow / 迴圈
+    private static final int TABLE_SIZE = 65; // 一個槽位放一個升級，綽綽有餘
+    private static final float[] ACCELERATED_BURN = new float[TABLE_SIZE]; // 0.8^n：每個升級減少20%燃燒時間
+    private static final float[] EXPANDED_BURN = new float[TABLE_SIZE];    // 1.5^n：每個升級增加50%燃燒時間
+    private static final float[] CATALYTIC_OUTPUT = new float[TABLE_SIZE]; // 1 + 遞減加成
+
+    static {
+        ACCELERATED_BURN[0] = 1.0f;
+        EXPANDED_BURN[0] = 1.0f;
+        CATALYTIC_OUTPUT[0] = 1.0f;
+        for (int n = 1; n < TABLE_SIZE; n++) {
+            ACCELERATED_BURN[n] = (float) Math.pow(0.8f, n);
+            EXPANDED_BURN[n] = (float) Math.pow(1.5f, n);
+            // 第1個35%，第2個30%，第3個25%...最低10%
+            CATALYTIC_OUTPUT[n] = CATALYTIC_OUTPUT[n - 1] + Math.max(0.1f, 0.35f - (n - 1) * 0.05f);
+        }
+    }
+
+    /**
+     * 🔧 發電機的升級換算規則，交給 {@link UpgradeInventory} 依內容版本快取
+     */
+    public static UpgradeModifiers compileModifiers(UpgradeInventory upgrades) {
+        int acceleratedCount = Math.min(upgrades.getUpgradeCount(UpgradeType.ACCELERATED_PROCESSING), TABLE_SIZE - 1);
+        int expandedCount = Math.min(upgrades.getUpgradeCount(UpgradeType.EXPANDED_FUEL_CHAMBER), TABLE_SIZE - 1);
+        int catalyticCount = Math.min(upgrades.getUpgradeCount(UpgradeType.CATALYTIC_CONVERTER), TABLE_SIZE - 1);
+
+        if (acceleratedCount == 0 && expandedCount == 0 && catalyticCount == 0) {
+            return UpgradeModifiers.NONE;
+        }
+
+        float burnTime = ACCELERATED_BURN[acceleratedCount] * EXPANDED_BURN[expandedCount];
+        float speed = 1.0f / burnTime;
+        float output = CATALYTIC_OUTPUT[catalyticCount];
+        return new UpgradeModifiers(speed, output, burnTime, speed * output);
+    }
+
     /**
-     * 🚀 計算加速處理效果 - 影響燃燒速度
-     * 每個加速處理升級增加25%的燃燒速度（減少燃燒時間）
-     * 
+     * 🚀 計算加速處理 / 擴展燃料室效果 - 影響燃燒時間
+     *
      * @param baseBurnTime 基礎燃燒時間
      * @return 修改後的燃燒時間
      */
     public int getModifiedBurnTime(int baseBurnTime) {
-        int acceleratedCount = upgradeInventory.getUpgradeCount(UpgradeType.ACCELERATED_PROCESSING);
-        int expandedCount = upgradeInventory.getUpgradeCount(UpgradeType.EXPANDED_FUEL_CHAMBER);
-        
-        float burnTimeMultiplier = 1.0f;
-        
-        // 加速處理：每個升級減少20%燃燒時間（增加速度）
-        if (acceleratedCount > 0) {
-            burnTimeMultiplier *= Math.pow(0.8f, acceleratedCount); // 0.8^n
-        }
-        
-        // 擴展燃料室：每個升級增加50%燃燒時間
-        if (expandedCount > 0) {
-            burnTimeMultiplier *= Math.pow(1.5f, expandedCount); // 1.5^n
-        }
-        
-        int modifiedTime = (int) (baseBurnTime * burnTimeMultiplier);
-        
+        int modifiedTime = (int) (baseBurnTime * upgradeInventory.getModifiers().burnTime());
+
         // 確保不會太快或太慢
         modifiedTime = Math.max(5, modifiedTime); // 最少5 tick
         modifiedTime = Math.min(12000, modifiedTime); // 最多10分鐘
-        
+
         return modifiedTime;
     }
-    
+
     /**
      * ⚡ 計算催化轉換器效果 - 影響產出效率
-     * 每個催化轉換器升級增加30%的產出
-     * 
+     *
      * @param baseOutput 基礎產出量
      * @return 修改後的產出量
      */
     public int getModifiedOutput(int baseOutput) {
-        int catalyticCount = upgradeInventory.getUpgradeCount(UpgradeType.CATALYTIC_CONVERTER);
-        
-        if (catalyticCount == 0) {
+        float outputMultiplier = upgradeInventory.getModifiers().output();
+        if (outputMultiplier == 1.0f) {
             return baseOutput;
         }
-        
-        // 每個催化轉換器增加30%產出，但有遞減效果
-        float outputMultiplier = 1.0f;
-        for (int i = 0; i < catalyticCount; i++) {
-            // 第1個30%，第2個25%，第3個20%...最低10%
-            float bonus = Math.max(0.1f, 0.35f - i * 0.05f);
-            outputMultiplier += bonus;
-        }
-        
         return (int) (baseOutput * outputMultiplier);
     }
-    
+
     /**
      * 📊 獲取升級統計信息（用於診斷顯示升級）
      */
@@ -103,50 +122,23 @@ public class ManaGeneratorUpgradeHandler {
      * 📈 計算總體效率倍數（用於顯示）
      */
     public float getTotalEfficiencyMultiplier() {
-        float speedMultiplier = getSpeedMultiplier();
-        float outputMultiplier = getOutputMultiplier();
-        return speedMultiplier * outputMultiplier;
+        return upgradeInventory.getModifiers().efficiency();
     }
-    
+
     /**
      * ⚡ 獲取速度倍數
      */
     public float getSpeedMultiplier() {
-        int acceleratedCount = upgradeInventory.getUpgradeCount(UpgradeType.ACCELERATED_PROCESSING);
-        int expandedCount = upgradeInventory.getUpgradeCount(UpgradeType.EXPANDED_FUEL_CHAMBER);
-        
-        float speedMultiplier = 1.0f;
-        
-        if (acceleratedCount > 0) {
-            speedMultiplier /= Math.pow(0.8f, acceleratedCount); // 速度增加
-        }
-        
-        if (expandedCount > 0) {
-            speedMultiplier /= Math.pow(1.5f, expandedCount); // 速度降低
-        }
-        
-        return speedMultiplier;
+        return upgradeInventory.getModifiers().speed();
     }
-    
+
     /**
      * 🔥 獲取產出倍數
      */
     public float getOutputMultiplier() {
-        int catalyticCount = upgradeInventory.getUpgradeCount(UpgradeType.CATALYTIC_CONVERTER);
-        
-        if (catalyticCount == 0) {
-            return 1.0f;
-        }
-        
-        float multiplier = 1.0f;
-        for (int i = 0; i < catalyticCount; i++) {
-            float bonus = Math.max(0.1f, 0.35f - i * 0.05f);
-            multiplier += bonus;
-        }
-        
-        return multiplier;
+        return upgradeInventory.getModifiers().output();
     }
-    
+
     /**
      * 升級統計數據類
      */
@@ -6,6 +6,8 @@ import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderSet;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.ResourceManager;
@@ -18,13 +20,16 @@ import net.minecraft.world.item.ItemStack;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.neoforge.event.AddReloadListenerEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @EventBusSubscriber
@@ -38,7 +43,11 @@ public class ManaGenFuelRateLoader extends SimpleJsonResourceReloadListener {
     private static final int DEFAULT_BURN_TIME = 0;  // 默認燃燒時間
     private static final int DEFAULT_ENERGY_RATE = 0;
     public static final int DEFAULT_INTERVAL = 0;
-    private static final Set<ResourceLocation> warnedAlready = new HashSet<>();
+
+    // 🔍 物品 → 燃料倍率索引：資料包重載 / 標籤更新時重建，查詢只需一次雜湊
+    private static volatile FuelIndex index = null;
+    // 每次資料或標籤變更就遞增，讓機器端的產率快照知道要重算
+    private static volatile int generation = 0;
 
     public ManaGenFuelRateLoader() {
         super(GSON, "recipe/mana_recipes/mana_fuel");  // 確保加載 mana_recipes/fuel 目錄
@@ -86,37 +95,99 @@ public class ManaGenFuelRateLoader extends SimpleJsonResourceReloadListener {
             LOGGER.debug(" │   ↳ Path: data/{}/{}.json", id.getNamespace(), id.getPath());
         }
 
+        // 標籤在重載結束後才綁定，這裡只作廢索引，等標籤更新或第一次查詢時再建
+        index = null;
+        generation++;
     }
 
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        index = buildIndex();
+        generation++;
+    }
 
-    // Method to get fuel rate for an item
-    public static FuelRate getFuelRateForItem(ResourceLocation itemId) {
-        // 1️⃣ **先嘗試直接使用物品 ID 查找**
-        FuelRate rate = FUEL_RATES.get(itemId.toString());
-        if (rate != null) {
-//            LOGGER.info("[FuelRateLoader] ✅ 透過物品 ID 找到燃料: {} | manaRate: {} | burnTime: {}",
-//                    itemId, rate.getManaRate(), rate.getBurnTime());
-            return rate;
+    /**
+     * 燃料資料的版本號；資料包重載或標籤更新後會改變
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
+    // === 索引 ===
+
+    private static FuelIndex currentIndex() {
+        FuelIndex current = index;
+        if (current == null) {
+            current = buildIndex();
+            index = current;
         }
+        return current;
+    }
+
+    /**
+     * 把所有 "tag:" 條目展開成物品，物品條目覆蓋標籤條目
+     */
+    private static FuelIndex buildIndex() {
+        Map<Item, FuelRate> defined = new IdentityHashMap<>();
 
-        // 2️⃣ **如果物品 ID 查找失敗，則嘗試標籤查找**
         for (Map.Entry<String, FuelRate> entry : FUEL_RATES.entrySet()) {
             String key = entry.getKey();
-            if (key.startsWith("tag:")) {
-                String tagName = key.substring(4);
-                TagKey<Item> tag = TagKey.create(BuiltInRegistries.ITEM.key(),ResourceLocation.fromNamespaceAndPath(DEFAULT_NAMESPACE, tagName));
-                if (BuiltInRegistries.ITEM.getTag(tag).stream()
-                        .flatMap(holderSet -> holderSet.stream())
-                        .anyMatch(holder -> holder.value().builtInRegistryHolder().key().location().equals(itemId))) {
-//                    LOGGER.info("[FuelRateLoader] ✅ 透過標籤找到燃料: {} (標籤: {}) | manaRate: {} | burnTime: {}",
-//                            itemId, tagName, entry.getValue().getManaRate(), entry.getValue().getBurnTime());
-                    return entry.getValue();
-                }
+            if (!key.startsWith("tag:")) continue;
+
+            ResourceLocation tagId = parseTagId(key.substring(4));
+            if (tagId == null) continue;
+
+            Optional<HolderSet.Named<Item>> tag = BuiltInRegistries.ITEM.getTag(TagKey.create(BuiltInRegistries.ITEM.key(), tagId));
+            if (tag.isEmpty()) continue;
+            for (Holder<Item> holder : tag.get()) {
+                defined.putIfAbsent(holder.value(), entry.getValue());
+            }
+        }
+
+        for (Map.Entry<String, FuelRate> entry : FUEL_RATES.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith("tag:")) continue;
+
+            ResourceLocation itemId = ResourceLocation.tryParse(key);
+            if (itemId != null) {
+                BuiltInRegistries.ITEM.getOptional(itemId).ifPresent(item -> defined.put(item, entry.getValue()));
             }
         }
 
+        LOGGER.debug("Indexed {} mana fuel items from {} entries", defined.size(), FUEL_RATES.size());
+        return new FuelIndex(defined);
+    }
+
+    private static ResourceLocation parseTagId(String tagName) {
+        // 舊資料的標籤不帶命名空間，預設為本模組
+        return tagName.indexOf(':') >= 0
+                ? ResourceLocation.tryParse(tagName)
+                : ResourceLocation.tryBuild(DEFAULT_NAMESPACE, tagName);
+    }
+
+
+    // Method to get fuel rate for an item
+    public static FuelRate getFuelRateForItem(ResourceLocation itemId) {
+        return getFuelRateForItem(BuiltInRegistries.ITEM.get(itemId));
+    }
+
+    public static FuelRate getFuelRateForItem(Item item) {
+        FuelIndex current = currentIndex();
+
+        // 1️⃣ **資料包定義的物品 / 標籤燃料**
+        FuelRate rate = current.defined().get(item);
+        if (rate != null) {
+            return rate;
+        }
+
+        // 2️⃣ **其餘物品（原版燃燒時間或找不到）的結果也緩存，直到下次重建索引**
+        return current.fallback().computeIfAbsent(item, ManaGenFuelRateLoader::resolveFallback);
+    }
+
+    private static FuelRate resolveFallback(Item item) {
+        ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(item);
+
         // 3️⃣ **如果 `FuelRecipe` 內沒有對應物品，則使用 `ForgeHooks.getBurnTime()` 查找**
-        Item item = BuiltInRegistries.ITEM.get(itemId);
         int defaultBurnTime = FuelRegistryHelper.getBurnTime(new ItemStack(item));
         if (defaultBurnTime > 0) {
             LOGGER.info("[FuelRateLoader] 🔥 Using ForgeHooks burn time fallback: {} | burnTime: {}", itemId, defaultBurnTime);
@@ -124,9 +195,17 @@ public class ManaGenFuelRateLoader extends SimpleJsonResourceReloadListener {
         }
 
         // 4️⃣ **如果完全找不到數據，使用預設燃燒時間**
-        if (warnedAlready.add(itemId)) {
-            LOGGER.warn("[FuelRateLoader] ❌ Fuel data not found for: {}. Using default values. manaRate: 0 | burnTime: {}", itemId, DEFAULT_BURN_TIME);
-        }        return new FuelRate(0, DEFAULT_BURN_TIME, DEFAULT_ENERGY_RATE,DEFAULT_INTERVAL );
+        LOGGER.warn("[FuelRateLoader] ❌ Fuel data not found for: {}. Using default values. manaRate: 0 | burnTime: {}", itemId, DEFAULT_BURN_TIME);
+        return new FuelRate(0, DEFAULT_BURN_TIME, DEFAULT_ENERGY_RATE, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * 一代索引：定義表在建立後不再修改；後備結果在查詢時填入（伺服器與客戶端執行緒可能同時查詢）
+     */
+    private record FuelIndex(Map<Item, FuelRate> defined, Map<Item, FuelRate> fallback) {
+        FuelIndex(Map<Item, FuelRate> defined) {
+            this(defined, new ConcurrentHashMap<>());
+        }
     }
 
     // Class representing fuel rate
@@ -0,0 +1,179 @@
+package com.github.nalamodikk.common.block.blockentity.mana_generator.sync;
+
+import com.github.nalamodikk.common.block.blockentity.mana_generator.ManaGeneratorBlockEntity;
+import com.github.nalamodikk.common.network.packet.server.machine.ManaGeneratorDeltaPacket;
+import com.github.nalamodikk.common.sync.ClientSyncBudget;
+import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 📡 魔力發電機的世界端（非 GUI）差量同步
+ *
+ * - 只送出上次同步後有變化的欄位，取代整包 NBT 的 sendBlockUpdated
+ * - 每位追蹤玩家各自記錄待送欄位；超出 {@link ClientSyncBudget} 的玩家保留待送欄位，下次再送
+ * - 剛進入追蹤範圍的玩家由區塊載入時的 update tag 取得完整狀態
+ *
+ * GUI 數值仍由 {@link ManaGeneratorSyncHelper} 的 ContainerData 同步。
+ */
+public class ManaGeneratorClientSync {
+
+    public enum Field {
+        MANA,
+        ENERGY,
+        MODE,
+        BURN_TIME,
+        CURRENT_BURN_TIME,
+        IS_WORKING,
+        IS_PAUSED,
+        IO_MAP;
+
+        private static final Field[] VALUES = values();
+    }
+
+    private static final int IO_BITS = 2; // IOType 只有 4 種
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final IOHandlerUtils.IOType[] IO_TYPES = IOHandlerUtils.IOType.values();
+
+    private final int[] lastSent = new int[Field.VALUES.length];
+    private final int[] current = new int[Field.VALUES.length];
+    private boolean initialized = false;
+
+    // 玩家 UUID → 尚未送達的欄位遮罩
+    private final Object2IntOpenHashMap<UUID> pendingMasks = new Object2IntOpenHashMap<>();
+
+    // === 伺服器端 ===
+
+    /**
+     * 比對目前狀態並把變化送給追蹤該區塊的玩家
+     */
+    public void sendChanges(ServerLevel level, ManaGeneratorBlockEntity be) {
+        capture(be);
+
+        int changed = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (!initialized || current[i] != lastSent[i]) {
+                changed |= 1 << i;
+                lastSent[i] = current[i];
+            }
+        }
+        initialized = true;
+
+        List<ServerPlayer> players = level.getChunkSource().chunkMap.getPlayers(new ChunkPos(be.getBlockPos()), false);
+        if (players.isEmpty()) {
+            pendingMasks.clear();
+            return;
+        }
+
+        if (changed != 0) {
+            for (ServerPlayer player : players) {
+                pendingMasks.mergeInt(player.getUUID(), changed, (a, b) -> a | b);
+            }
+        }
+        if (pendingMasks.isEmpty()) return;
+
+        // 離開追蹤範圍的玩家不再需要差量
+        if (pendingMasks.size() > players.size()) {
+            Set<UUID> tracking = new HashSet<>();
+            for (ServerPlayer player : players) tracking.add(player.getUUID());
+            pendingMasks.keySet().retainAll(tracking);
+        }
+
+        for (ServerPlayer player : players) {
+            int mask = pendingMasks.getInt(player.getUUID());
+            if (mask == 0) continue;
+
+            ManaGeneratorDeltaPacket packet = createPacket(be, mask);
+            if (ClientSyncBudget.tryConsume(player, packet.estimatedSize())) {
+                PacketDistributor.sendToPlayer(player, packet);
+                pendingMasks.removeInt(player.getUUID());
+            }
+        }
+    }
+
+    /**
+     * 是否還有因流量預算而延後的欄位
+     */
+    public boolean hasPending() {
+        return !pendingMasks.isEmpty();
+    }
+
+    private ManaGeneratorDeltaPacket createPacket(ManaGeneratorBlockEntity be, int mask) {
+        int[] values = new int[Integer.bitCount(mask)];
+        int index = 0;
+        for (int i = 0; i < current.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                values[index++] = current[i];
+            }
+        }
+        return new ManaGeneratorDeltaPacket(be.getBlockPos(), mask, values);
+    }
+
+    private void capture(ManaGeneratorBlockEntity be) {
+        current[Field.MANA.ordinal()] = be.getManaStorage() != null ? be.getManaStorage().getManaStored() : 0;
+        current[Field.ENERGY.ordinal()] = be.getEnergyStorage() != null ? be.getEnergyStorage().getEnergyStored() : 0;
+        current[Field.MODE.ordinal()] = be.getCurrentMode();
+        current[Field.BURN_TIME.ordinal()] = be.getBurnTime();
+        current[Field.CURRENT_BURN_TIME.ordinal()] = be.getCurrentBurnTime();
+        current[Field.IS_WORKING.ordinal()] = be.isWorking() ? 1 : 0;
+        current[Field.IS_PAUSED.ordinal()] = be.getFuelLogic().isPaused() ? 1 : 0;
+        current[Field.IO_MAP.ordinal()] = packIOMap(be);
+    }
+
+    private static int packIOMap(ManaGeneratorBlockEntity be) {
+        int packed = 0;
+        for (Direction dir : DIRECTIONS) {
+            packed |= be.getIOConfig(dir).ordinal() << (dir.ordinal() * IO_BITS);
+        }
+        return packed;
+    }
+
+    // === 客戶端 ===
+
+    /**
+     * 套用收到的差量（客戶端）
+     */
+    public void apply(ManaGeneratorBlockEntity be, int mask, int[] values) {
+        int index = 0;
+        for (Field field : Field.VALUES) {
+            if ((mask & (1 << field.ordinal())) == 0) continue;
+            if (index >= values.length) return;
+
+            int value = values[index++];
+            switch (field) {
+                case MANA -> {
+                    if (be.getManaStorage() != null) be.getManaStorage().setMana(value);
+                }
+                case ENERGY -> {
+                    if (be.getEnergyStorage() != null) be.getEnergyStorage().setEnergyStored(value);
+                }
+                case MODE -> be.getStateManager().setModeIndex(value);
+                case BURN_TIME -> be.setBurnTimeFromNbt(value);
+                case CURRENT_BURN_TIME -> be.setCurrentBurnTimeFromNbt(value);
+                case IS_WORKING -> be.getStateManager().setWorking(value != 0);
+                case IS_PAUSED -> be.getFuelLogic().setPaused(value != 0);
+                case IO_MAP -> be.setIOMap(unpackIOMap(value));
+            }
+        }
+    }
+
+    private static EnumMap<Direction, IOHandlerUtils.IOType> unpackIOMap(int packed) {
+        EnumMap<Direction, IOHandlerUtils.IOType> map = new EnumMap<>(Direction.class);
+        int typeMask = (1 << IO_BITS) - 1;
+        for (Direction dir : DIRECTIONS) {
+            int ordinal = (packed >>> (dir.ordinal() * IO_BITS)) & typeMask;
+            map.put(dir, IO_TYPES[Math.min(ordinal, IO_TYPES.length - 1)]);
+        }
+        return map;
+    }
+}
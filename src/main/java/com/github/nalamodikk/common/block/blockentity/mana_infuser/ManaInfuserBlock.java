@@ -2,7 +2,6 @@ package com.github.nalamodikk.common.block.blockentity.mana_infuser;
 
 import com.github.nalamodikk.common.block.blockentity.manabase.BaseMachineBlock;
 import com.github.nalamodikk.common.item.tool.BasicTechWandItem;
-import com.github.nalamodikk.register.ModBlockEntities;
 import com.mojang.logging.LogUtils;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.ChatFormatting;
@@ -111,11 +110,8 @@ public class ManaInfuserBlock extends BaseMachineBlock {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> blockEntityType) {
-        return createTickerHelper(blockEntityType, ModBlockEntities.MANA_INFUSER.get(),
-                (level1, pos, state1, blockEntity) -> {
-                    // 使用基類的標準化 tick 方法
-                    blockEntity.tick(level1, pos, state1, blockEntity);
-                });
+        // ⏱️ 伺服器端由 MachineScheduler 驅動（可休眠）；客戶端沒有需要每 tick 執行的邏輯
+        return null;
     }
 
     // === 🎮 玩家交互 ===
@@ -2,8 +2,8 @@ package com.github.nalamodikk.common.block.blockentity.mana_infuser;
 
 import com.github.nalamodikk.common.block.blockentity.manabase.AbstractManaMachineEntityBlock;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
+import com.github.nalamodikk.common.utils.capability.NeighborCapabilityCache;
 import com.github.nalamodikk.register.ModBlockEntities;
-import com.github.nalamodikk.register.ModRecipes;
 import com.mojang.logging.LogUtils;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -23,7 +23,6 @@ import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import java.util.EnumMap;
-import java.util.Optional;
 
 /**
  * 🔮 魔力注入機 BlockEntity
@@ -67,7 +66,9 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
 
     // === 📊 狀態變量 ===
     private final EnumMap<Direction, IOHandlerUtils.IOType> directionConfig = new EnumMap<>(Direction.class);
+    private final NeighborCapabilityCache neighborCapabilities = new NeighborCapabilityCache(this);
     private ManaInfuserRecipe currentRecipe = null;
+    private RecipeHolder<ManaInfuserRecipe> lastRecipe = null; // 輸入清空後仍保留，換回同一物品時先試它
     private boolean needsSync = false;
     private boolean hasInputChanged = false;
 
@@ -112,6 +113,7 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
                 setChanged(); // 這會通知 Menu
                 hasInputChanged = true;
                 // 🆕 移除 needsSync = true，因為會被自動檢測
+                wakeUp(); // 輸入變化或輸出被取走
             }
 
             @Override
@@ -161,6 +163,16 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
         }
 
         tickCounter++;
+
+        // ⏱️ 無法注入且狀態已同步就休眠：魔力滿了只等事件喚醒，否則到下次抽取鄰居魔力時醒來
+        if (!hasInputChanged && !canGenerate() && !needsSyncToClient()) {
+            tickCounter = 0; // 醒來的第一個 tick 就抽取魔力
+            if (manaStorage == null || manaStorage.getManaStored() >= manaStorage.getMaxManaStored()) {
+                sleepUntilWoken();
+            } else {
+                sleepFor(20);
+            }
+        }
     }
 /*
  * 🔄 更新上次同步的數值
@@ -385,12 +397,11 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
             }
 
             // 需要查找新配方
-            ManaInfuserRecipe.ManaInfuserInput recipeInput = new ManaInfuserRecipe.ManaInfuserInput(input);
-            Optional<RecipeHolder<ManaInfuserRecipe>> recipeHolder = level.getRecipeManager()
-                    .getRecipeFor(ModRecipes.MANA_INFUSER_TYPE.get(), recipeInput, level);
+            RecipeHolder<ManaInfuserRecipe> recipeHolder = ManaInfuserRecipeIndex.findRecipe(level, input, lastRecipe);
 
-            if (recipeHolder.isPresent()) {
-                currentRecipe = recipeHolder.get().value();
+            if (recipeHolder != null) {
+                lastRecipe = recipeHolder;
+                currentRecipe = recipeHolder.value();
                 maxProgress = currentRecipe.getInfusionTime();
             } else {
                 currentRecipe = null;
@@ -412,6 +423,7 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
 
         // 🚨 清理引用，防止記憶體洩漏
         currentRecipe = null;
+        lastRecipe = null;
         directionConfig.clear();
 
         // 重置同步狀態
@@ -441,8 +453,7 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
         int manaBeforeExtract = manaStorage.getManaStored();
 
         IOHandlerUtils.extractManaFromNeighbors(
-                level,
-                worldPosition,
+                neighborCapabilities,
                 manaStorage,
                 directionConfig,
                 MANA_TRANSFER_RATE
@@ -460,10 +471,7 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
     private boolean hasRecipeForItem(ItemStack stack) {
         if (level == null || stack.isEmpty()) return false;
 
-        ManaInfuserRecipe.ManaInfuserInput input = new ManaInfuserRecipe.ManaInfuserInput(stack);
-        return level.getRecipeManager()
-                .getRecipeFor(ModRecipes.MANA_INFUSER_TYPE.get(), input, level)
-                .isPresent();
+        return ManaInfuserRecipeIndex.hasRecipeFor(level, stack);
     }
 
     /**
@@ -500,6 +508,16 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
         directionConfig.put(direction, nextType);
         setChanged();
         needsSync = true;
+        invalidateSideCapabilities();
+    }
+
+    /**
+     * 🔗 IO 配置改變：各面的能力視圖會在下次查詢時重建，通知能力緩存與導管重新查詢
+     */
+    private void invalidateSideCapabilities() {
+        if (level != null && !level.isClientSide()) {
+            level.invalidateCapabilities(worldPosition);
+        }
     }
 
     public IOHandlerUtils.IOType getIOMode(Direction direction) {
@@ -666,9 +684,10 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
 
     @Override
     public void setIOConfig(Direction direction, IOHandlerUtils.IOType type) {
-        directionConfig.put(direction, type);
+        if (directionConfig.put(direction, type) == type) return;
         setChanged();
         needsSync = true;
+        invalidateSideCapabilities();
     }
 
     @Override
@@ -683,9 +702,11 @@ public class ManaInfuserBlockEntity extends AbstractManaMachineEntityBlock {
 
     @Override
     public void setIOMap(EnumMap<Direction, IOHandlerUtils.IOType> map) {
+        if (directionConfig.equals(map)) return;
         directionConfig.clear();
         directionConfig.putAll(map);
         setChanged();
         needsSync = true;
+        invalidateSideCapabilities();
     }
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package com.github.nalamodikk.common.block.blockentity.mana_infuser;
 
 import com.github.nalamodikk.register.ModBlocks;
 import com.github.nalamodikk.register.ModMenuTypes;
-import com.github.nalamodikk.register.ModRecipes;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.*;
@@ -229,10 +228,7 @@ public class ManaInfuserMenu extends AbstractContainerMenu {
     private boolean hasRecipeForItem(ItemStack stack) {
         if (blockEntity == null || blockEntity.getLevel() == null) return false;
 
-        ManaInfuserRecipe.ManaInfuserInput input = new ManaInfuserRecipe.ManaInfuserInput(stack);
-        return blockEntity.getLevel().getRecipeManager()
-                .getRecipeFor(ModRecipes.MANA_INFUSER_TYPE.get(), input, blockEntity.getLevel())
-                .isPresent();
+        return ManaInfuserRecipeIndex.hasRecipeFor(blockEntity.getLevel(), stack);
     }
 
     // === 🔄 物品轉移邏輯 ===
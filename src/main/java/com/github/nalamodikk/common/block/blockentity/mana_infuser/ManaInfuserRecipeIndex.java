@@ -0,0 +1,156 @@
+package com.github.nalamodikk.common.block.blockentity.mana_infuser;
+
+import com.github.nalamodikk.common.coreapi.recipe.RecipeIndexCache;
+import com.github.nalamodikk.register.ModRecipes;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🔍 魔力注入配方索引
+ *
+ * - 以輸入材料展開出的物品分組，查詢只比對同物品的候選配方
+ * - 自訂（非 simple，例如依資料元件判斷）材料無法以物品索引，每次查詢逐一比對
+ * - 每個物品「最少需要幾個」緩存起來，輸入槽驗證只需比較數量
+ * - 呼叫端可傳入上次的配方，它仍是該物品的第一個候選且符合時直接沿用
+ *
+ * 結果與 RecipeManager.getRecipeFor 相同（同樣取第一個符合的配方）。
+ */
+public final class ManaInfuserRecipeIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManaInfuserRecipeIndex.class);
+
+    private static final RecipeIndexCache<ManaInfuserRecipeIndex> CACHE = RecipeIndexCache.create(ManaInfuserRecipeIndex::build);
+
+    private static final int NO_RECIPE = Integer.MAX_VALUE;
+
+    private final Map<Item, List<Entry>> byItem;
+    private final List<Entry> unindexed;
+    // 物品 → simple 配方中最少的輸入數量（NO_RECIPE 表示沒有）
+    private final Map<Item, Integer> minCountByItem = new ConcurrentHashMap<>();
+
+    private ManaInfuserRecipeIndex(Map<Item, List<Entry>> byItem, List<Entry> unindexed) {
+        this.byItem = byItem;
+        this.unindexed = unindexed;
+    }
+
+    // === 查詢 ===
+
+    /**
+     * 找出符合輸入堆疊的配方
+     *
+     * @param last 上次使用的配方，可為 null
+     */
+    @Nullable
+    public static RecipeHolder<ManaInfuserRecipe> findRecipe(Level level, ItemStack stack,
+                                                              @Nullable RecipeHolder<ManaInfuserRecipe> last) {
+        if (stack.isEmpty()) return null;
+
+        ManaInfuserRecipeIndex index = CACHE.get(level);
+        ManaInfuserRecipe.ManaInfuserInput input = new ManaInfuserRecipe.ManaInfuserInput(stack);
+
+        // ⚡ 上次的配方仍是第一個候選（因此也屬於目前的配方表）且符合，就不必往下找
+        if (last != null && index.unindexed.isEmpty()) {
+            List<Entry> candidates = index.byItem.get(stack.getItem());
+            if (candidates != null && candidates.get(0).holder() == last && last.value().matches(input, level)) {
+                return last;
+            }
+        }
+        return index.find(input, level);
+    }
+
+    /**
+     * 輸入槽驗證：是否有配方接受這個堆疊
+     */
+    public static boolean hasRecipeFor(Level level, ItemStack stack) {
+        if (stack.isEmpty()) return false;
+
+        ManaInfuserRecipeIndex index = CACHE.get(level);
+        if (stack.getCount() >= index.minCountByItem.computeIfAbsent(stack.getItem(), index::minCountFor)) {
+            return true;
+        }
+        if (index.unindexed.isEmpty()) return false;
+
+        ManaInfuserRecipe.ManaInfuserInput input = new ManaInfuserRecipe.ManaInfuserInput(stack);
+        for (Entry entry : index.unindexed) {
+            if (entry.recipe().matches(input, level)) return true;
+        }
+        return false;
+    }
+
+    private RecipeHolder<ManaInfuserRecipe> find(ManaInfuserRecipe.ManaInfuserInput input, Level level) {
+        List<Entry> candidates = byItem.getOrDefault(input.getInputStack().getItem(), List.of());
+
+        // 依 RecipeManager 原本順序合併兩份候選清單
+        int i = 0;
+        int j = 0;
+        while (i < candidates.size() || j < unindexed.size()) {
+            Entry next;
+            if (j >= unindexed.size()
+                    || (i < candidates.size() && candidates.get(i).order() < unindexed.get(j).order())) {
+                next = candidates.get(i++);
+            } else {
+                next = unindexed.get(j++);
+            }
+            if (next.recipe().matches(input, level)) {
+                return next.holder();
+            }
+        }
+        return null;
+    }
+
+    private int minCountFor(Item item) {
+        int min = NO_RECIPE;
+        for (Entry entry : byItem.getOrDefault(item, List.of())) {
+            min = Math.min(min, entry.recipe().getInputCount());
+        }
+        return min;
+    }
+
+    // === 建立 ===
+
+    private static ManaInfuserRecipeIndex build(RecipeManager manager) {
+        Map<Item, List<Entry>> byItem = new IdentityHashMap<>();
+        List<Entry> unindexed = new ArrayList<>();
+
+        List<RecipeHolder<ManaInfuserRecipe>> holders = manager.getAllRecipesFor(ModRecipes.MANA_INFUSER_TYPE.get());
+        for (int order = 0; order < holders.size(); order++) {
+            RecipeHolder<ManaInfuserRecipe> holder = holders.get(order);
+            Entry entry = new Entry(order, holder);
+
+            Ingredient ingredient = holder.value().getInput();
+            if (!ingredient.isSimple()) {
+                unindexed.add(entry);
+                continue;
+            }
+            for (ItemStack stack : ingredient.getItems()) {
+                List<Entry> entries = byItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+                // 同一材料可能展開出重複物品
+                if (entries.isEmpty() || entries.get(entries.size() - 1) != entry) {
+                    entries.add(entry);
+                }
+            }
+        }
+
+        LOGGER.debug("Indexed {} mana infuser recipes ({} items, {} unindexed)", holders.size(), byItem.size(), unindexed.size());
+        return new ManaInfuserRecipeIndex(byItem, unindexed);
+    }
+
+    private record Entry(int order, RecipeHolder<ManaInfuserRecipe> holder) {
+        ManaInfuserRecipe recipe() {
+            return holder.value();
+        }
+    }
+}
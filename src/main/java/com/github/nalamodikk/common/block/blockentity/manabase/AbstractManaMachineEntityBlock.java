@@ -1,12 +1,16 @@
 package com.github.nalamodikk.common.block.blockentity.manabase;
 
+import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
 import com.github.nalamodikk.common.capability.ManaStorage;
 import com.github.nalamodikk.common.compat.energy.ModNeoNalaEnergyStorage;
 import com.github.nalamodikk.common.coreapi.block.IConfigurableBlock;
+import com.github.nalamodikk.common.utils.capability.SidedManaViews;
 import com.mojang.logging.LogUtils;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.MenuProvider;
 import net.minecraft.world.entity.player.Inventory;
@@ -23,7 +27,6 @@ import net.neoforged.neoforge.items.ItemStackHandler;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
-import java.math.BigInteger;
 
 /**
  * 機器方塊實體的抽象基底類別。
@@ -76,6 +79,12 @@ public abstract class AbstractManaMachineEntityBlock extends BlockEntity impleme
     /** 最大存儲能量*/
     protected final int maxEnergy;
 
+    /** ⏱️ 排程器記錄的喚醒時間（-1 = 醒著），只由 {@link MachineScheduler} 讀寫 */
+    long wakeAt = -1;
+
+    /** 🔗 各面的魔力能力視圖（第一次查詢時建立） */
+    private @Nullable SidedManaViews manaViews;
+
     /**
      * 建構子
      *
@@ -90,8 +99,13 @@ public abstract class AbstractManaMachineEntityBlock extends BlockEntity impleme
     public AbstractManaMachineEntityBlock(BlockEntityType<?> type, BlockPos pos, BlockState state, boolean hasEnergy,int maxEnergy, int maxMana, int intervalTick, int manaPerCycle) {
         super(type, pos, state);
         this.hasEnergy = hasEnergy;
-        this.manaStorage = maxMana > 0 ? new ManaStorage(maxMana) : null;
-        this.energyStorage = hasEnergy ? new ModNeoNalaEnergyStorage(BigInteger.valueOf(maxEnergy)) : null;
+        this.manaStorage = maxMana > 0 ? new ManaStorage(maxMana) {
+            @Override
+            public void onChanged() {
+                wakeUp(); // 收到或被抽走魔力都可能讓機器有事可做
+            }
+        } : null;
+        this.energyStorage = hasEnergy ? new ModNeoNalaEnergyStorage(maxEnergy) : null;
         this.itemHandler = createHandler();
         this.fluidTank = createFluidTank();
         this.intervalTick = intervalTick;
@@ -105,6 +119,19 @@ public abstract class AbstractManaMachineEntityBlock extends BlockEntity impleme
     public int getEnergyPerTick() { return energyPerTick; }
     public boolean hasEnergy() { return hasEnergy; }
     public @Nullable ManaStorage getManaStorage() { return manaStorage; }
+
+    /**
+     * 🔗 依方向配置提供的魔力能力；同一面的 IO 類型不變時回傳同一個實例
+     *
+     * @param side null 表示不分面（回傳完整的儲存）
+     */
+    public @Nullable IUnifiedManaHandler getManaView(@Nullable Direction side) {
+        if (manaStorage == null || side == null) return manaStorage;
+        if (manaViews == null) {
+            manaViews = new SidedManaViews(manaStorage);
+        }
+        return manaViews.get(side, getIOConfig(side));
+    }
     public @Nullable ModNeoNalaEnergyStorage getEnergyStorage() { return energyStorage; }
     public @Nullable ItemStackHandler getItemHandler() { return itemHandler; }
     public @Nullable FluidTank getFluidTank() { return fluidTank; }
@@ -149,6 +176,55 @@ public abstract class AbstractManaMachineEntityBlock extends BlockEntity impleme
         // 客戶端動畫邏輯（由子類擴充）
     }
 
+    // === ⏱️ 排程 ===
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level instanceof ServerLevel serverLevel) {
+            MachineScheduler.get(serverLevel).register(this);
+        }
+    }
+
+    @Override
+    public void setRemoved() {
+        if (level instanceof ServerLevel serverLevel) {
+            MachineScheduler.get(serverLevel).unregister(this);
+        }
+        super.setRemoved();
+    }
+
+    /**
+     * 喚醒機器（物品變化、收到魔力、鄰居變化時呼叫）；醒著時無作用
+     */
+    public void wakeUp() {
+        if (wakeAt >= 0 && level instanceof ServerLevel serverLevel) {
+            MachineScheduler.get(serverLevel).wake(this);
+        }
+    }
+
+    /**
+     * 沒事可做：休眠直到被事件喚醒
+     */
+    protected void sleepUntilWoken() {
+        if (level instanceof ServerLevel serverLevel) {
+            MachineScheduler.get(serverLevel).sleepUntilWoken(this);
+        }
+    }
+
+    /**
+     * 休眠 ticks 個遊戲刻後自動醒來（事件仍可提早喚醒）
+     */
+    protected void sleepFor(int ticks) {
+        if (level instanceof ServerLevel serverLevel) {
+            MachineScheduler.get(serverLevel).sleep(this, serverLevel.getGameTime() + Math.max(1, ticks));
+        }
+    }
+
+    public boolean isSleeping() {
+        return wakeAt >= 0;
+    }
+
     /**
      * NeoForge 標準 tick 委派邏輯。
      */
@@ -38,6 +38,15 @@ public abstract class BaseMachineBlock extends BaseEntityBlock {
         return this.defaultBlockState().setValue(FACING, context.getHorizontalDirection());
     }
 
+    @Override
+    protected void neighborChanged(BlockState state, Level level, BlockPos pos, Block neighborBlock, BlockPos neighborPos, boolean movedByPiston) {
+        super.neighborChanged(state, level, pos, neighborBlock, neighborPos, movedByPiston);
+        // ⏱️ 鄰居變化（接上 / 拆掉輸出端等）可能讓休眠中的機器有事可做
+        if (!level.isClientSide() && level.getBlockEntity(pos) instanceof AbstractManaMachineEntityBlock machine) {
+            machine.wakeUp();
+        }
+    }
+
     @Override
     public void onRemove(BlockState oldState, Level level, BlockPos pos, BlockState newState, boolean isMoving) {
         if (!oldState.is(newState.getBlock())) {
@@ -0,0 +1,171 @@
+package com.github.nalamodikk.common.block.blockentity.manabase;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * ⏱️ 機器喚醒排程器（每個維度一份）
+ *
+ * - 伺服器端的機器不再註冊 BlockEntityTicker，由這裡每 tick 驅動「醒著」的機器
+ * - 機器沒事做時可宣告休眠：直到事件喚醒（物品變化、收到魔力、鄰居變化），或到指定遊戲時間
+ * - 休眠中的機器完全不在 tick 集合內，不花任何 tick 成本
+ *
+ * 與原版 ticker 一樣，只有所在區塊可 tick 方塊時才執行。
+ */
+@EventBusSubscriber(modid = KoniavacraftMod.MOD_ID)
+public class MachineScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MachineScheduler.class);
+    private static final Map<ResourceKey<Level>, MachineScheduler> SCHEDULERS = new HashMap<>();
+
+    private static final long NEVER = Long.MAX_VALUE;
+    private static final int STATS_INTERVAL = 1200; // 開發環境每分鐘記錄一次醒著 / 休眠數量
+
+    private final ServerLevel level;
+    private final ReferenceLinkedOpenHashSet<AbstractManaMachineEntityBlock> awake = new ReferenceLinkedOpenHashSet<>();
+    private final ReferenceOpenHashSet<AbstractManaMachineEntityBlock> sleeping = new ReferenceOpenHashSet<>();
+    private final PriorityQueue<TimedWake> timedWakes = new PriorityQueue<>(Comparator.comparingLong(TimedWake::time));
+
+    // 重複使用的 tick 佇列，tick 期間機器可自由休眠 / 喚醒
+    private final List<AbstractManaMachineEntityBlock> tickQueue = new ArrayList<>();
+
+    private MachineScheduler(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static MachineScheduler get(ServerLevel level) {
+        MachineScheduler scheduler = SCHEDULERS.get(level.dimension());
+        if (scheduler == null || scheduler.level != level) {
+            scheduler = new MachineScheduler(level);
+            SCHEDULERS.put(level.dimension(), scheduler);
+        }
+        return scheduler;
+    }
+
+    // === 註冊 ===
+
+    /**
+     * 機器載入或放置：預設為醒著
+     */
+    public void register(AbstractManaMachineEntityBlock machine) {
+        sleeping.remove(machine);
+        machine.wakeAt = -1;
+        awake.add(machine);
+    }
+
+    /**
+     * 機器移除或區塊卸載
+     */
+    public void unregister(AbstractManaMachineEntityBlock machine) {
+        awake.remove(machine);
+        sleeping.remove(machine);
+        machine.wakeAt = -1;
+    }
+
+    // === 休眠 / 喚醒 ===
+
+    /**
+     * 休眠直到 wakeAt（遊戲時間）；傳入 {@link #NEVER} 表示只等事件喚醒
+     */
+    void sleep(AbstractManaMachineEntityBlock machine, long wakeAt) {
+        if (!awake.remove(machine) && !sleeping.contains(machine)) return; // 未註冊
+
+        sleeping.add(machine);
+        machine.wakeAt = wakeAt;
+        if (wakeAt != NEVER) {
+            timedWakes.add(new TimedWake(wakeAt, machine));
+        }
+    }
+
+    void sleepUntilWoken(AbstractManaMachineEntityBlock machine) {
+        sleep(machine, NEVER);
+    }
+
+    void wake(AbstractManaMachineEntityBlock machine) {
+        if (!sleeping.remove(machine)) return;
+
+        machine.wakeAt = -1;
+        awake.add(machine);
+    }
+
+    public int getAwakeCount() {
+        return awake.size();
+    }
+
+    public int getSleepingCount() {
+        return sleeping.size();
+    }
+
+    // === tick ===
+
+    private void tick() {
+        long now = level.getGameTime();
+
+        while (!timedWakes.isEmpty() && timedWakes.peek().time() <= now) {
+            TimedWake entry = timedWakes.poll();
+            // 期間被事件喚醒又重新休眠的機器，舊的排程已失效
+            if (entry.machine().wakeAt == entry.time()) {
+                wake(entry.machine());
+            }
+        }
+
+        tickQueue.addAll(awake);
+        for (int i = 0; i < tickQueue.size(); i++) {
+            AbstractManaMachineEntityBlock machine = tickQueue.get(i);
+            if (machine.isRemoved()) {
+                unregister(machine);
+            } else if (level.shouldTickBlocksAt(machine.getBlockPos())) {
+                machine.tickServer();
+            }
+        }
+        tickQueue.clear();
+
+        if (KoniavacraftMod.IS_DEV && now % STATS_INTERVAL == 0 && !(awake.isEmpty() && sleeping.isEmpty())) {
+            LOGGER.debug("[{}] Machines awake: {}, sleeping: {}", level.dimension().location(), awake.size(), sleeping.size());
+        }
+    }
+
+    private record TimedWake(long time, AbstractManaMachineEntityBlock machine) {}
+
+    // === 事件 ===
+
+    @SubscribeEvent
+    public static void onLevelTick(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        MachineScheduler scheduler = SCHEDULERS.get(serverLevel.dimension());
+        if (scheduler != null && scheduler.level == serverLevel) {
+            scheduler.tick();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            SCHEDULERS.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        SCHEDULERS.clear();
+    }
+}
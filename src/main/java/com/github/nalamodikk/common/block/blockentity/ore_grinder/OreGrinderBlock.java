@@ -3,7 +3,6 @@ package com.github.nalamodikk.common.block.blockentity.ore_grinder;
 import com.github.nalamodikk.common.block.blockentity.manabase.BaseMachineBlock;
 import com.github.nalamodikk.common.item.tool.BasicTechWandItem;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
-import com.github.nalamodikk.register.ModBlockEntities;
 import com.mojang.logging.LogUtils;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.ChatFormatting;
@@ -111,12 +110,8 @@ public class OreGrinderBlock extends BaseMachineBlock {
     @Nullable
     @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> blockEntityType) {
-        return createTickerHelper(blockEntityType, ModBlockEntities.ORE_GRINDER.get(),
-                (level1, pos, state1, blockEntity) -> {
-                    if (!level1.isClientSide()) {
-                        blockEntity.tickMachine();
-                    }
-                });
+        // ⏱️ 伺服器端由 MachineScheduler 驅動（可休眠）；客戶端沒有需要每 tick 執行的邏輯
+        return null;
     }
 
     // === 🎮 玩家交互 ===
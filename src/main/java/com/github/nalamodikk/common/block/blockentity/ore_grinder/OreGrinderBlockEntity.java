@@ -4,15 +4,16 @@ import com.github.nalamodikk.KoniavacraftMod;
 import com.github.nalamodikk.common.block.blockentity.manabase.AbstractManaMachineEntityBlock;
 import com.github.nalamodikk.common.capability.mana.ManaAction;
 import com.github.nalamodikk.common.coreapi.recipe.ProcessingRecipe;
+import com.github.nalamodikk.common.coreapi.recipe.ProcessingRecipeIndex;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
 import com.github.nalamodikk.register.ModBlockEntities;
-import com.github.nalamodikk.register.ModRecipes;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.core.NonNullList;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
@@ -27,7 +28,6 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * ⚙️ 礦石粉碎機 BlockEntity
@@ -57,6 +57,7 @@ public class OreGrinderBlockEntity extends AbstractManaMachineEntityBlock {
     private static final int GRINDING_TIME = 200;  // 10 秒
     private static final int MANA_PER_CYCLE = 0;   // 不產生魔力，只消耗
     private static final int INTERVAL_TICK = 1;
+    private static final String MACHINE_TYPE = "grinder";
 
     // === 📊 同步狀態追蹤變量 ===
     private int lastSyncedMana = 0;
@@ -67,6 +68,7 @@ public class OreGrinderBlockEntity extends AbstractManaMachineEntityBlock {
     // === 📊 狀態變量 ===
     private final EnumMap<Direction, IOHandlerUtils.IOType> directionConfig = new EnumMap<>(Direction.class);
     private ProcessingRecipe currentRecipe = null;
+    private RandomSource byproductRandom = null; // null = 使用世界的隨機源
     public boolean hasInputChanged = false; // 設為 public，供 OreGrinderBlock 訪問
 
     public OreGrinderBlockEntity(BlockPos pos, BlockState blockState) {
@@ -111,6 +113,7 @@ public class OreGrinderBlockEntity extends AbstractManaMachineEntityBlock {
                 if (slot < 2) { // 輸入槽變化
                     hasInputChanged = true;
                 }
+                wakeUp(); // 輸入變化或輸出被取走
             }
 
             @Override
@@ -143,9 +146,11 @@ public class OreGrinderBlockEntity extends AbstractManaMachineEntityBlock {
             int manaCost = currentRecipe.getManaCost();
 
             if (manaStorage != null && manaStorage.getManaStored() >= manaCost) {
+                if (progress == 0) {
+                    setChanged(); // 開始研磨（只在狀態轉換時標記，不再每 tick 標記）
+                }
                 progress++;
                 manaStorage.extractMana(manaCost, ManaAction.EXECUTE); // 實際提取魔力
-                setChanged();
 
                 if (KoniavacraftMod.IS_DEV) {
                     LOGGER.debug("Grinding progress: {}/{}", progress, maxProgress);
@@ -157,6 +162,18 @@ public class OreGrinderBlockEntity extends AbstractManaMachineEntityBlock {
         if (currentRecipe != null && progress >= maxProgress) {
             finishGrinding();
         }
+
+        // 4. ⏱️ 沒事可做就休眠：沒有配方、魔力不足、或輸出槽塞滿（分別等物品 / 魔力 / 物品變化喚醒）
+        if (!hasInputChanged && isIdle()) {
+            setChanged(); // 停下來：保存中途消耗的魔力
+            sleepUntilWoken();
+        }
+    }
+
+    private boolean isIdle() {
+        if (currentRecipe == null) return true;
+        if (progress >= maxProgress) return true; // finishGrinding 放不進輸出槽
+        return manaStorage == null || manaStorage.getManaStored() < currentRecipe.getManaCost();
     }
 
     /**
@@ -182,19 +199,15 @@ public class OreGrinderBlockEntity extends AbstractManaMachineEntityBlock {
 
         ProcessingRecipe.ProcessingInput recipeInput = new ProcessingRecipe.ProcessingInput(
                 inputs,
-                "grinder"
+                MACHINE_TYPE
         );
 
         if (level == null) return;
 
-        Optional<RecipeHolder<ProcessingRecipe>> recipe = level.getRecipeManager()
-                .getAllRecipesFor(ModRecipes.PROCESSING_TYPE.get())
-                .stream()
-                .filter(holder -> holder.value().matches(recipeInput, level))
-                .findFirst();
+        RecipeHolder<ProcessingRecipe> recipe = ProcessingRecipeIndex.findRecipe(level, recipeInput);
 
-        if (recipe.isPresent()) {
-            currentRecipe = recipe.get().value();
+        if (recipe != null) {
+            currentRecipe = recipe.value();
             if (KoniavacraftMod.IS_DEV) {
                 LOGGER.info("Found recipe for ore grinder");
             }
@@ -202,66 +215,101 @@ public class OreGrinderBlockEntity extends AbstractManaMachineEntityBlock {
     }
 
     /**
-     * ✅ 完成研磨，輸出結果
+     * ✅ 完成研磨：一次完成所有輸出並消耗輸入
+     *
+     * - 主產物放不下就整批等待（只檢查一次，不試插入）
+     * - 副產物以世界的隨機源擲骰，依序放入輸出槽 2~4，放不下的部分捨棄（與原本相同）
+     * - 輸出槽的 isItemValid 拒絕所有外部放入，所以產物走內部的 {@link #placeOutput} 寫入；
+     *   配方的輸出堆疊是所有粉碎機共用的，一律寫入複本
      */
     private void finishGrinding() {
-        if (currentRecipe == null || itemHandler == null) return;
+        if (currentRecipe == null || itemHandler == null || level == null) return;
 
-        // 輸出主產物
-        ItemStack mainOutput = currentRecipe.getMainOutput().copy();
-        if (!itemHandler.insertItem(OUTPUT_SLOT_1, mainOutput, false).isEmpty()) {
-            // 失敗，等待槽位空出
-            return;
+        ItemStack mainOutput = currentRecipe.getMainOutput();
+        if (getOutputSpace(OUTPUT_SLOT_1, mainOutput) < mainOutput.getCount()) {
+            return; // 等待槽位空出
         }
+        placeOutput(OUTPUT_SLOT_1, mainOutput, mainOutput.getCount());
 
         // 輸出概率副產物
-        for (ProcessingRecipe.ChanceOutput chanceOutput : currentRecipe.getChanceOutputs()) {
-            if (Math.random() < chanceOutput.getChance()) {
-                ItemStack output = chanceOutput.getOutput().copy();
-                for (int slot = OUTPUT_SLOT_2; slot <= OUTPUT_SLOT_4; slot++) {
-                    ItemStack result = itemHandler.insertItem(slot, output, false);
-                    if (result.isEmpty()) {
-                        break;
-                    }
-                    output = result;
-                }
+        RandomSource random = byproductRandom != null ? byproductRandom : level.getRandom();
+        List<ProcessingRecipe.ChanceOutput> chanceOutputs = currentRecipe.getChanceOutputs();
+        for (int i = 0; i < chanceOutputs.size(); i++) {
+            ProcessingRecipe.ChanceOutput chanceOutput = chanceOutputs.get(i);
+            if (chanceOutput.shouldOutput(random.nextFloat())) {
+                insertByproduct(chanceOutput.getOutput());
             }
         }
 
-        // 消耗輸入物品
-        if (itemHandler.getStackInSlot(INPUT_SLOT_1).isEmpty()) {
-            // 輸入槽 1 已用完，嘗試從槽位 2 補充
-            // 實際應該在這裡實作堆疊分離邏輯
-        }
+        // 消耗輸入物品：配方第 i 個材料對應第 i 個非空輸入槽（與 updateCurrentRecipe 的組裝順序相同）
+        consumeInputs(currentRecipe.getInputs().size());
 
         // 重置狀態
         progress = 0;
         currentRecipe = null;
         hasInputChanged = true;
+        setChanged();
 
         if (KoniavacraftMod.IS_DEV) {
             LOGGER.info("Grinding finished, output produced");
         }
     }
 
+    /**
+     * 🎲 指定副產物擲骰用的隨機源（供 gametest 以固定種子驗證產量）
+     */
+    void setByproductRandom(RandomSource random) {
+        this.byproductRandom = random;
+    }
+
+    private void consumeInputs(int ingredientCount) {
+        int consumed = 0;
+        for (int slot = INPUT_SLOT_1; slot <= INPUT_SLOT_2 && consumed < ingredientCount; slot++) {
+            if (itemHandler.getStackInSlot(slot).isEmpty()) continue;
+
+            itemHandler.extractItem(slot, 1, false);
+            consumed++;
+        }
+    }
+
+    private void insertByproduct(ItemStack output) {
+        int remaining = output.getCount();
+        for (int slot = OUTPUT_SLOT_2; slot <= OUTPUT_SLOT_4 && remaining > 0; slot++) {
+            int toInsert = Math.min(remaining, getOutputSpace(slot, output));
+            if (toInsert <= 0) continue;
+
+            placeOutput(slot, output, toInsert);
+            remaining -= toInsert;
+        }
+    }
+
+    /**
+     * 把 count 個產物寫進輸出槽（呼叫前已用 {@link #getOutputSpace} 確認放得下），不經過 isItemValid
+     */
+    private void placeOutput(int slot, ItemStack output, int count) {
+        ItemStack existing = itemHandler.getStackInSlot(slot);
+        int total = existing.isEmpty() ? count : existing.getCount() + count;
+        itemHandler.setStackInSlot(slot, output.copyWithCount(total));
+    }
+
+    /**
+     * 輸出槽還能放多少個這種物品
+     */
+    private int getOutputSpace(int slot, ItemStack stack) {
+        ItemStack existing = itemHandler.getStackInSlot(slot);
+        int limit = Math.min(itemHandler.getSlotLimit(slot), stack.getMaxStackSize());
+        if (existing.isEmpty()) return limit;
+        if (!ItemStack.isSameItemSameComponents(existing, stack)) return 0;
+        return Math.max(0, limit - existing.getCount());
+    }
+
     /**
      * 🔍 判斷物品是否可以研磨
      */
     private boolean canGrind(ItemStack stack) {
         if (stack.isEmpty() || level == null || level.isClientSide()) return false;
 
-        List<ItemStack> inputs = new ArrayList<>();
-        inputs.add(stack);
-
-        ProcessingRecipe.ProcessingInput recipeInput = new ProcessingRecipe.ProcessingInput(
-                inputs,
-                "grinder"
-        );
-
-        return level.getRecipeManager()
-                .getAllRecipesFor(ModRecipes.PROCESSING_TYPE.get())
-                .stream()
-                .anyMatch(holder -> holder.value().matches(recipeInput, level));
+        return ProcessingRecipeIndex.canAccept(level, MACHINE_TYPE, stack);
     }
 
     @Override
@@ -2,72 +2,86 @@ package com.github.nalamodikk.common.compat.energy;
 
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
 import net.neoforged.neoforge.common.util.INBTSerializable;
 import net.neoforged.neoforge.energy.IEnergyStorage;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.math.RoundingMode;
 
+/**
+ * ⚡ 機器用的 FE 能量儲存
+ *
+ * 以 long 保存能量，所有傳輸都是整數運算，不會在每次 receive / extract 時建立物件。
+ * NBT 以 long 寫入；舊版以字串（BigDecimal.toPlainString）保存的存檔仍可讀取。
+ */
 public class ModNeoNalaEnergyStorage implements IEnergyStorage, INBTSerializable<CompoundTag> {
-    private static final int DECIMAL_DIGITS = 4;
-    private BigDecimal energy;
-    private final BigDecimal capacity;
+    private long energy;
+    private final long capacity;
+
+    public ModNeoNalaEnergyStorage(long capacity) {
+        this.energy = 0;
+        this.capacity = Math.max(0, capacity);
+    }
 
     public ModNeoNalaEnergyStorage(BigInteger capacity) {
-        this.energy = BigDecimal.ZERO.setScale(DECIMAL_DIGITS, RoundingMode.DOWN);
-        this.capacity = new BigDecimal(capacity).setScale(DECIMAL_DIGITS, RoundingMode.DOWN);
+        this(clampToLong(capacity));
     }
 
     @Override
     public int receiveEnergy(int maxReceive, boolean simulate) {
-        BigDecimal amount = BigDecimal.valueOf(maxReceive);
-        BigDecimal accepted = amount.min(capacity.subtract(energy));
-        if (!simulate) energy = energy.add(accepted);
-        return accepted.intValue();
+        if (maxReceive <= 0) return 0;
+        int accepted = (int) Math.min(maxReceive, capacity - energy);
+        if (!simulate) energy += accepted;
+        return accepted;
     }
 
     @Override
     public int extractEnergy(int maxExtract, boolean simulate) {
-        BigDecimal amount = BigDecimal.valueOf(maxExtract);
-        BigDecimal extracted = energy.min(amount);
-        if (!simulate) energy = energy.subtract(extracted);
-        return extracted.intValue();
+        if (maxExtract <= 0) return 0;
+        int extracted = (int) Math.min(maxExtract, energy);
+        if (!simulate) energy -= extracted;
+        return extracted;
     }
 
-    @Override public int getEnergyStored() { return energy.intValue(); }
-    @Override public int getMaxEnergyStored() { return capacity.intValue(); }
-    @Override public boolean canExtract() { return energy.compareTo(BigDecimal.ZERO) > 0; }
-    @Override public boolean canReceive() { return energy.compareTo(capacity) < 0; }
+    @Override public int getEnergyStored() { return (int) Math.min(Integer.MAX_VALUE, energy); }
+    @Override public int getMaxEnergyStored() { return (int) Math.min(Integer.MAX_VALUE, capacity); }
+    @Override public boolean canExtract() { return energy > 0; }
+    @Override public boolean canReceive() { return energy < capacity; }
 
-    public BigDecimal getRawEnergyStored() {
+    public long getRawEnergyStored() {
         return energy;
     }
 
-    public BigDecimal getRawMaxCapacity() {
+    public long getRawMaxCapacity() {
         return capacity;
     }
 
     public CompoundTag serializeNBT() {
         CompoundTag tag = new CompoundTag();
-        tag.putString("Energy", energy.toPlainString());
-        tag.putString("Capacity", capacity.toPlainString());
+        tag.putLong("Energy", energy);
+        tag.putLong("Capacity", capacity);
         return tag;
     }
 
     // 🆕 添加能量設定方法（用於 NBT 載入）
-    public void setEnergyStored(BigInteger energyAmount) {
-        this.energy = new BigDecimal(energyAmount).setScale(DECIMAL_DIGITS, RoundingMode.DOWN);
+    public void setEnergyStored(long energyAmount) {
         // 確保不超過容量
-        if (this.energy.compareTo(capacity) > 0) {
-            this.energy = capacity;
-        }
+        this.energy = Math.max(0, Math.min(energyAmount, capacity));
+    }
+
+    public void setEnergyStored(BigInteger energyAmount) {
+        setEnergyStored(clampToLong(energyAmount));
     }
 
     public void deserializeNBT(CompoundTag tag) {
-        this.energy = new BigDecimal(tag.getString("Energy")).setScale(DECIMAL_DIGITS, RoundingMode.DOWN);
-        // 若你有計畫支援容量動態變化，再取消以下註解
-        // this.capacity = new BigDecimal(tag.getString("Capacity")).setScale(DECIMAL_DIGITS, RoundingMode.DOWN);
+        if (tag.contains("Energy", Tag.TAG_STRING)) {
+            // 🔧 舊版格式：BigDecimal 字串（例如 "1200.0000"），小數部分捨去
+            setEnergyStored(parseLegacy(tag.getString("Energy")));
+        } else {
+            setEnergyStored(tag.getLong("Energy"));
+        }
+        // 若你有計畫支援容量動態變化，再從 "Capacity" 讀取
     }
 
     // 為了支援新版 HolderLookup.Provider，但實際上你不需要它，這是為了 NeoForge 相容
@@ -83,5 +97,18 @@ public class ModNeoNalaEnergyStorage implements IEnergyStorage, INBTSerializable
             deserializeNBT(compoundTag);
     }
 
+    // === 工具方法 ===
+
+    private static long parseLegacy(String value) {
+        try {
+            return clampToLong(new BigDecimal(value).toBigInteger());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 
+    private static long clampToLong(BigInteger value) {
+        if (value.signum() <= 0) return 0;
+        return value.bitLength() < Long.SIZE ? value.longValue() : Long.MAX_VALUE;
+    }
 }
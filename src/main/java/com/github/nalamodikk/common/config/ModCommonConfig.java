@@ -27,6 +27,12 @@ public class ModCommonConfig {
     public final ModConfigSpec.IntValue manaRecipeRefreshInterval;
     public final ModConfigSpec.BooleanValue showIntroAnimation;
 
+    // ===============================
+    // 🌞 太陽能收集器
+    // ===============================
+    public final ModConfigSpec.IntValue solarParticleRange;
+    public final ModConfigSpec.IntValue solarParticleBurstsPerChunk;
+
 
 
     private ModCommonConfig(ModConfigSpec.Builder builder) {
@@ -45,6 +51,21 @@ public class ModCommonConfig {
                 .translation("koniava.config.showIntroAnimation")
                 .define("showIntroAnimation", true);
 
+        // ===============================
+        // 🌞 太陽能收集器配置區段
+        // ===============================
+        solarParticleRange = builder
+                .comment("太陽能收集器發電粒子的顯示距離（格），範圍內沒有玩家時不送粒子；0 為關閉粒子",
+                        "Range (blocks) within which a player must be for solar collectors to emit generation particles; 0 disables them")
+                .translation("koniava.config.solarParticleRange")
+                .defineInRange("solarParticleRange", 32, 0, 128);
+
+        solarParticleBurstsPerChunk = builder
+                .comment("每個區塊每秒最多幾個太陽能收集器送出發電粒子（密集陣列會合併）",
+                        "Maximum solar collector particle bursts per chunk per second (dense farms are aggregated)")
+                .translation("koniava.config.solarParticleBurstsPerChunk")
+                .defineInRange("solarParticleBurstsPerChunk", 4, 1, 256);
+
         // ===============================
         // 🌍 生物群系處理配置區段
         // ===============================
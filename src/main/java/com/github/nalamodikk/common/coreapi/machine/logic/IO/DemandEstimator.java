@@ -0,0 +1,139 @@
+package com.github.nalamodikk.common.coreapi.machine.logic.IO;
+
+import java.util.Arrays;
+
+/**
+ * 📈 輸出需求估算策略（供 {@link OutputDistributor} 決定各方向的分配權重）
+ *
+ * 每個實例只服務一個資源通道，以方向索引（{@code Direction.get3DDataValue()}，0~5）記錄各接收端的歷史。
+ * 實作不應在 estimate / record 中配置物件。
+ */
+public interface DemandEstimator {
+
+    int SIDES = 6;
+
+    /**
+     * 估算這一輪的需求（分配權重）
+     *
+     * @param side  方向索引
+     * @param space 接收端剩餘空間（容量 - 儲量），這一輪最多能收下的量
+     * @return 需求值，0 表示這一輪不分配
+     */
+    int estimate(int side, int space);
+
+    /**
+     * 記錄這一輪實際的分配結果
+     */
+    void record(int side, int offered, int accepted);
+
+    /**
+     * 接收端換了（或消失），清除該方向的歷史
+     */
+    void reset(int side);
+
+    // === 內建策略 ===
+
+    /** 舊版靜態模型：需求 = 剩餘空間 */
+    static DemandEstimator capacity() {
+        return new Capacity();
+    }
+
+    /** 近期實際接收量的移動平均；持續吃滿的接收端需求會成長 */
+    static DemandEstimator movingAverage() {
+        return new MovingAverage();
+    }
+
+    /** 剩餘空間 × 近期接收比例（成功 / 嘗試） */
+    static DemandEstimator acceptanceRatio() {
+        return new AcceptanceRatio();
+    }
+
+    final class Capacity implements DemandEstimator {
+        @Override
+        public int estimate(int side, int space) {
+            return Math.max(0, space);
+        }
+
+        @Override
+        public void record(int side, int offered, int accepted) {}
+
+        @Override
+        public void reset(int side) {}
+    }
+
+    /**
+     * 指數移動平均（約 4 次分配的視窗）
+     *
+     * - 新接收端第一輪以剩餘空間估算，之後改用實際接收量
+     * - 上一輪全部收下的接收端可能還吃得更多，需求加倍讓它逐步爭取份額
+     * - 完全不收的接收端保留最小需求，之後仍會被試探
+     */
+    final class MovingAverage implements DemandEstimator {
+        private static final float ALPHA = 0.25f;
+        private static final int GROWTH = 2;
+        private static final int MIN_DEMAND = 1;
+
+        private final float[] average = new float[SIDES];
+        private final boolean[] known = new boolean[SIDES];
+        private final boolean[] saturated = new boolean[SIDES];
+
+        @Override
+        public int estimate(int side, int space) {
+            if (space <= 0) return 0;
+            if (!known[side]) return space;
+
+            float demand = saturated[side] ? average[side] * GROWTH : average[side];
+            return Math.min(space, Math.max(MIN_DEMAND, (int) Math.ceil(demand)));
+        }
+
+        @Override
+        public void record(int side, int offered, int accepted) {
+            if (!known[side]) {
+                average[side] = accepted;
+                known[side] = true;
+            } else {
+                average[side] += ALPHA * (accepted - average[side]);
+            }
+            saturated[side] = offered > 0 && accepted >= offered;
+        }
+
+        @Override
+        public void reset(int side) {
+            average[side] = 0;
+            known[side] = false;
+            saturated[side] = false;
+        }
+    }
+
+    /**
+     * 以近期接收比例加權剩餘空間：塞著不動（只收一部分）的接收端份額會逐漸下降
+     */
+    final class AcceptanceRatio implements DemandEstimator {
+        private static final float ALPHA = 0.25f;
+        private static final float MIN_RATIO = 0.05f;
+
+        private final float[] ratio = new float[SIDES];
+
+        public AcceptanceRatio() {
+            Arrays.fill(ratio, 1f);
+        }
+
+        @Override
+        public int estimate(int side, int space) {
+            if (space <= 0) return 0;
+            return Math.max(1, (int) (space * (double) ratio[side]));
+        }
+
+        @Override
+        public void record(int side, int offered, int accepted) {
+            if (offered <= 0) return;
+            float sample = Math.min(1f, accepted / (float) offered);
+            ratio[side] = Math.max(MIN_RATIO, ratio[side] + ALPHA * (sample - ratio[side]));
+        }
+
+        @Override
+        public void reset(int side) {
+            ratio[side] = 1f;
+        }
+    }
+}
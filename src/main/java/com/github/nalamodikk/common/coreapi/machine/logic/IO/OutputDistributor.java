@@ -0,0 +1,254 @@
+package com.github.nalamodikk.common.coreapi.machine.logic.IO;
+
+import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
+import com.github.nalamodikk.common.capability.mana.ManaAction;
+import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
+import com.github.nalamodikk.common.utils.capability.NeighborCapabilityCache;
+import net.minecraft.core.Direction;
+import net.neoforged.neoforge.energy.IEnergyStorage;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.function.Supplier;
+
+/**
+ * 🔌 輸出分配器（取代 OutputHandler.tryOutput）
+ *
+ * - 每台機器持有一個實例，魔力與能量各一個通道，各自帶一個 {@link DemandEstimator}
+ * - 依估算需求按比例分配，需求大於 0 的接收端每輪至少分到 1（小接收端不會被大緩衝餓死）
+ * - 分不完的再補給還收得下的接收端，起點每輪輪替，最後一次從來源扣除
+ * - 接收端與分配結果都存放在預先配置的陣列中，每次呼叫不配置任何物件
+ *
+ * 只在伺服器執行緒使用。
+ */
+public final class OutputDistributor {
+
+    public static final int DEFAULT_MAX_PER_TICK = 40;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final ManaChannel mana;
+    private final EnergyChannel energy;
+
+    public OutputDistributor(Supplier<DemandEstimator> estimatorFactory) {
+        this(DEFAULT_MAX_PER_TICK, estimatorFactory);
+    }
+
+    public OutputDistributor(int maxPerTick, Supplier<DemandEstimator> estimatorFactory) {
+        this.mana = new ManaChannel(maxPerTick, estimatorFactory.get());
+        this.energy = new EnergyChannel(maxPerTick, estimatorFactory.get());
+    }
+
+    /**
+     * 把魔力 / 能量送往設為輸出的方向
+     *
+     * @param manaSource   魔力來源，null 表示不輸出魔力
+     * @param energySource 能量來源，null 表示不輸出能量
+     * @return 是否有送出任何東西
+     */
+    public boolean tryOutput(@Nullable IUnifiedManaHandler manaSource,
+                             @Nullable IEnergyStorage energySource,
+                             EnumMap<Direction, IOHandlerUtils.IOType> ioMap,
+                             NeighborCapabilityCache neighbors) {
+        boolean didOutput = false;
+        if (manaSource != null) {
+            didOutput |= mana.distribute(manaSource, ioMap, neighbors);
+        }
+        if (energySource != null) {
+            didOutput |= energy.distribute(energySource, ioMap, neighbors);
+        }
+        return didOutput;
+    }
+
+    // === 通道 ===
+
+    /**
+     * 單一資源的分配邏輯；T 為來源與接收端共用的能力型別
+     */
+    private abstract static class Channel<T> {
+        private final int maxPerTick;
+        private final DemandEstimator estimator;
+
+        // 目前這一輪的接收端（前 count 筆有效）
+        private final Object[] targets = new Object[DemandEstimator.SIDES];
+        private final int[] sides = new int[DemandEstimator.SIDES];
+        private final int[] demands = new int[DemandEstimator.SIDES];
+        private final int[] offered = new int[DemandEstimator.SIDES];
+        private final int[] accepted = new int[DemandEstimator.SIDES];
+
+        // 各方向上一次的接收端，換了就重置估算歷史
+        private final Object[] lastTargets = new Object[DemandEstimator.SIDES];
+
+        // 每輪輪替的起點，避免低索引的大緩衝總是先吃掉餘量
+        private int rotation = 0;
+
+        Channel(int maxPerTick, DemandEstimator estimator) {
+            this.maxPerTick = maxPerTick;
+            this.estimator = estimator;
+        }
+
+        abstract int stored(T source);
+
+        abstract void extract(T source, int amount);
+
+        @Nullable
+        abstract T lookup(NeighborCapabilityCache neighbors, Direction dir);
+
+        abstract boolean canReceive(T target);
+
+        abstract int space(T target);
+
+        abstract int send(T target, int amount);
+
+        @SuppressWarnings("unchecked")
+        private T target(int i) {
+            return (T) targets[i];
+        }
+
+        boolean distribute(T source, EnumMap<Direction, IOHandlerUtils.IOType> ioMap, NeighborCapabilityCache neighbors) {
+            int stored = stored(source);
+            if (stored <= 0) return false;
+
+            int count = 0;
+            long totalDemand = 0;
+
+            for (Direction dir : DIRECTIONS) {
+                int side = dir.get3DDataValue();
+                T target = ioMap.getOrDefault(dir, IOHandlerUtils.IOType.DISABLED).outputs()
+                        ? lookup(neighbors, dir) : null;
+
+                if (target != lastTargets[side]) {
+                    estimator.reset(side);
+                    lastTargets[side] = target;
+                }
+                if (target == null || !canReceive(target)) continue;
+
+                int demand = estimator.estimate(side, space(target));
+                if (demand <= 0) continue;
+
+                targets[count] = target;
+                sides[count] = side;
+                demands[count] = demand;
+                offered[count] = 0;
+                accepted[count] = 0;
+                totalDemand += demand;
+                count++;
+            }
+
+            if (count == 0) return false;
+
+            int toSend = Math.min(stored, maxPerTick);
+            int remaining = toSend;
+            int unallocated = toSend;
+            int start = Math.floorMod(rotation++, count);
+
+            // 1. 依需求比例分配（向下取整為 0 的接收端仍至少試探 1）
+            for (int k = 0; k < count && unallocated > 0; k++) {
+                int i = (start + k) % count;
+                int portion = (int) (toSend * (long) demands[i] / totalDemand);
+                portion = Math.min(unallocated, Math.max(1, portion));
+                unallocated -= portion;
+
+                int got = send(target(i), portion);
+                offered[i] += portion;
+                accepted[i] += got;
+                remaining -= got;
+            }
+
+            // 2. 分不完的從輪替起點開始補給還收得下的接收端
+            for (int k = 0; k < count && remaining > 0; k++) {
+                int i = (start + k) % count;
+                int got = send(target(i), remaining);
+                offered[i] += remaining;
+                accepted[i] += got;
+                remaining -= got;
+            }
+
+            int sent = toSend - remaining;
+            if (sent > 0) {
+                extract(source, sent);
+            }
+
+            for (int i = 0; i < count; i++) {
+                // 這一輪沒分到的接收端不記錄，避免它的估算被衰減到下限
+                if (offered[i] > 0) {
+                    estimator.record(sides[i], offered[i], accepted[i]);
+                }
+                targets[i] = null;
+            }
+            return sent > 0;
+        }
+    }
+
+    private static final class ManaChannel extends Channel<IUnifiedManaHandler> {
+        ManaChannel(int maxPerTick, DemandEstimator estimator) {
+            super(maxPerTick, estimator);
+        }
+
+        @Override
+        int stored(IUnifiedManaHandler source) {
+            return source.getManaStored();
+        }
+
+        @Override
+        void extract(IUnifiedManaHandler source, int amount) {
+            source.extractMana(amount, ManaAction.EXECUTE);
+        }
+
+        @Override
+        IUnifiedManaHandler lookup(NeighborCapabilityCache neighbors, Direction dir) {
+            return neighbors.getMana(dir);
+        }
+
+        @Override
+        boolean canReceive(IUnifiedManaHandler target) {
+            return target.canReceive();
+        }
+
+        @Override
+        int space(IUnifiedManaHandler target) {
+            return target.getMaxManaStored() - target.getManaStored();
+        }
+
+        @Override
+        int send(IUnifiedManaHandler target, int amount) {
+            return target.receiveMana(amount, ManaAction.EXECUTE);
+        }
+    }
+
+    private static final class EnergyChannel extends Channel<IEnergyStorage> {
+        EnergyChannel(int maxPerTick, DemandEstimator estimator) {
+            super(maxPerTick, estimator);
+        }
+
+        @Override
+        int stored(IEnergyStorage source) {
+            return source.getEnergyStored();
+        }
+
+        @Override
+        void extract(IEnergyStorage source, int amount) {
+            source.extractEnergy(amount, false);
+        }
+
+        @Override
+        IEnergyStorage lookup(NeighborCapabilityCache neighbors, Direction dir) {
+            return neighbors.getEnergy(dir);
+        }
+
+        @Override
+        boolean canReceive(IEnergyStorage target) {
+            return target.canReceive();
+        }
+
+        @Override
+        int space(IEnergyStorage target) {
+            return target.getMaxEnergyStored() - target.getEnergyStored();
+        }
+
+        @Override
+        int send(IEnergyStorage target, int amount) {
+            return target.receiveEnergy(amount, false);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.github.nalamodikk.common.coreapi.machine.logic.gen;
 
 import net.neoforged.neoforge.energy.IEnergyStorage;
 
-import java.util.function.Supplier;
+import java.util.function.IntSupplier;
 
 /**
  * 專責處理 NeoForge 能量產出邏輯的工具類別。
@@ -14,14 +14,14 @@ public class EnergyGenerationHandler {
 
 
     private final IEnergyStorage energyStorage;
-    private final Supplier<Integer> energyRateSupplier;
+    private final IntSupplier energyRateSupplier;
 
     /**
      * 建立能量處理器。
      *
      * @param energyStorage 能量儲存目標（可為 null）
      */
-    public EnergyGenerationHandler(IEnergyStorage energyStorage, Supplier<Integer> energyRateSupplier) {
+    public EnergyGenerationHandler(IEnergyStorage energyStorage, IntSupplier energyRateSupplier) {
         this.energyStorage = energyStorage;
         this.energyRateSupplier = energyRateSupplier;
     }
@@ -44,7 +44,7 @@ public class EnergyGenerationHandler {
             return false;
         }
 
-        int energy = energyRateSupplier.get(); // ✅ 動態獲得當前燃料的能量值
+        int energy = energyRateSupplier.getAsInt(); // ✅ 動態獲得當前燃料的能量值
         int accepted = energyStorage.receiveEnergy(energy, false);
         return accepted > 0;
     }
@@ -62,6 +62,13 @@ public class ProcessingRecipe implements Recipe<ProcessingRecipe.ProcessingInput
             return false;
         }
 
+        return matchesInputs(input);
+    }
+
+    /**
+     * 只比對輸入物品（呼叫端已確定機器類型時使用，例如 {@link ProcessingRecipeIndex}）
+     */
+    public boolean matchesInputs(ProcessingInput input) {
         // 檢查輸入數量是否足夠
         if (input.size() < this.inputs.size()) {
             return false;
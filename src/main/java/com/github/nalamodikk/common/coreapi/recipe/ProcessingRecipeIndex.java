@@ -0,0 +1,156 @@
+package com.github.nalamodikk.common.coreapi.recipe;
+
+import com.github.nalamodikk.register.ModRecipes;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🔍 加工配方索引
+ *
+ * - 依機器類型分桶，桶內再以「第一個輸入材料的物品」分組，查詢只比對同物品的候選配方
+ * - 每個物品「能否放入輸入槽」的答案緩存起來，漏斗每次嘗試插入不必再掃配方
+ * - 資料包重載或標籤更新時整份重建（見 {@link RecipeIndexCache}）
+ *
+ * 第一個材料是自訂（非 simple）材料或沒有材料的配方無法以物品索引，會在每次查詢時照原本方式逐一比對。
+ */
+public final class ProcessingRecipeIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessingRecipeIndex.class);
+
+    private static final RecipeIndexCache<ProcessingRecipeIndex> CACHE = RecipeIndexCache.create(ProcessingRecipeIndex::build);
+
+    private final Map<String, MachineBucket> buckets;
+
+    private ProcessingRecipeIndex(Map<String, MachineBucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    // === 查詢 ===
+
+    /**
+     * 找出第一個符合輸入的配方（順序與 RecipeManager 相同）
+     */
+    public static RecipeHolder<ProcessingRecipe> findRecipe(Level level, ProcessingRecipe.ProcessingInput input) {
+        MachineBucket bucket = CACHE.get(level).buckets.get(input.getMachineType());
+        return bucket != null ? bucket.find(input) : null;
+    }
+
+    /**
+     * 這個物品能否單獨作為該機器的輸入（輸入槽驗證用）
+     */
+    public static boolean canAccept(Level level, String machineType, ItemStack stack) {
+        if (stack.isEmpty()) return false;
+
+        MachineBucket bucket = CACHE.get(level).buckets.get(machineType);
+        return bucket != null && bucket.accepts(stack);
+    }
+
+    // === 建立 ===
+
+    private static ProcessingRecipeIndex build(RecipeManager manager) {
+        Map<String, MachineBucket> buckets = new HashMap<>();
+        List<RecipeHolder<ProcessingRecipe>> holders = manager.getAllRecipesFor(ModRecipes.PROCESSING_TYPE.get());
+
+        for (int order = 0; order < holders.size(); order++) {
+            RecipeHolder<ProcessingRecipe> holder = holders.get(order);
+            buckets.computeIfAbsent(holder.value().getMachineType(), type -> new MachineBucket())
+                    .add(new Entry(order, holder));
+        }
+
+        LOGGER.debug("Indexed {} processing recipes into {} machine types", holders.size(), buckets.size());
+        return new ProcessingRecipeIndex(buckets);
+    }
+
+    private record Entry(int order, RecipeHolder<ProcessingRecipe> holder) {
+        ProcessingRecipe recipe() {
+            return holder.value();
+        }
+
+        boolean isSingleInput() {
+            return recipe().getInputs().size() <= 1;
+        }
+    }
+
+    /**
+     * 單一機器類型的配方；建立後只有 accepted 緩存會再寫入
+     */
+    private static final class MachineBucket {
+        private final Map<Item, List<Entry>> byFirstItem = new IdentityHashMap<>();
+        private final List<Entry> unindexed = new ArrayList<>();
+        private final Map<Item, Boolean> accepted = new ConcurrentHashMap<>();
+
+        void add(Entry entry) {
+            List<Ingredient> inputs = entry.recipe().getInputs();
+            Ingredient first = inputs.isEmpty() ? null : inputs.get(0);
+            if (first == null || !first.isSimple()) {
+                unindexed.add(entry);
+                return;
+            }
+
+            for (ItemStack stack : first.getItems()) {
+                List<Entry> entries = byFirstItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+                // 同一材料可能展開出重複物品
+                if (entries.isEmpty() || entries.get(entries.size() - 1) != entry) {
+                    entries.add(entry);
+                }
+            }
+        }
+
+        RecipeHolder<ProcessingRecipe> find(ProcessingRecipe.ProcessingInput input) {
+            List<Entry> candidates = byFirstItem.getOrDefault(input.getItem(0).getItem(), List.of());
+
+            // 依原本順序合併兩份候選清單，保持「第一個符合」的結果不變
+            int i = 0;
+            int j = 0;
+            while (i < candidates.size() || j < unindexed.size()) {
+                Entry next;
+                if (j >= unindexed.size()
+                        || (i < candidates.size() && candidates.get(i).order() < unindexed.get(j).order())) {
+                    next = candidates.get(i++);
+                } else {
+                    next = unindexed.get(j++);
+                }
+                if (next.recipe().matchesInputs(input)) {
+                    return next.holder();
+                }
+            }
+            return null;
+        }
+
+        boolean accepts(ItemStack stack) {
+            if (accepted.computeIfAbsent(stack.getItem(), this::hasSingleInputRecipe)) {
+                return true;
+            }
+            if (unindexed.isEmpty()) return false;
+
+            ProcessingRecipe.ProcessingInput input = new ProcessingRecipe.ProcessingInput(List.of(stack), "");
+            for (Entry entry : unindexed) {
+                if (entry.isSingleInput() && entry.recipe().matchesInputs(input)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasSingleInputRecipe(Item item) {
+            // simple 材料只依物品判斷，同物品的堆疊答案相同
+            for (Entry entry : byFirstItem.getOrDefault(item, List.of())) {
+                if (entry.isSingleInput()) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.nalamodikk.common.coreapi.recipe;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.Level;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.client.event.RecipesUpdatedEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * 💾 配方索引的共用快取
+ *
+ * - 伺服器與客戶端各有自己的 RecipeManager，各存一份索引，單人遊戲時不會互相覆蓋
+ * - RecipeManager 換新（伺服器資料包重載）時自動重建
+ * - 客戶端收到新配方 / 任一端標籤更新時作廢，下次查詢再建
+ */
+public final class RecipeIndexCache<T> {
+
+    private static final List<RecipeIndexCache<?>> CACHES = new CopyOnWriteArrayList<>();
+
+    private final Function<RecipeManager, T> builder;
+    private volatile Slot<T> server = null;
+    private volatile Slot<T> client = null;
+
+    private RecipeIndexCache(Function<RecipeManager, T> builder) {
+        this.builder = builder;
+    }
+
+    public static <T> RecipeIndexCache<T> create(Function<RecipeManager, T> builder) {
+        RecipeIndexCache<T> cache = new RecipeIndexCache<>(builder);
+        CACHES.add(cache);
+        return cache;
+    }
+
+    public T get(Level level) {
+        RecipeManager manager = level.getRecipeManager();
+        boolean clientSide = level.isClientSide();
+
+        Slot<T> slot = clientSide ? client : server;
+        if (slot == null || slot.manager() != manager) {
+            slot = new Slot<>(manager, builder.apply(manager));
+            if (clientSide) {
+                client = slot;
+            } else {
+                server = slot;
+            }
+        }
+        return slot.index();
+    }
+
+    public void invalidate() {
+        server = null;
+        client = null;
+    }
+
+    private record Slot<T>(RecipeManager manager, T index) {}
+
+    // === 事件 ===
+
+    @EventBusSubscriber(modid = KoniavacraftMod.MOD_ID)
+    public static final class Events {
+        @SubscribeEvent
+        public static void onTagsUpdated(TagsUpdatedEvent event) {
+            // 標籤材料展開出的物品可能改變
+            CACHES.forEach(RecipeIndexCache::invalidate);
+        }
+    }
+
+    @EventBusSubscriber(modid = KoniavacraftMod.MOD_ID, value = Dist.CLIENT)
+    public static final class ClientEvents {
+        @SubscribeEvent
+        public static void onRecipesUpdated(RecipesUpdatedEvent event) {
+            // 客戶端的 RecipeManager 會沿用同一個實例，只替換內容
+            CACHES.forEach(RecipeIndexCache::invalidate);
+        }
+    }
+}
@@ -2,13 +2,14 @@ package com.github.nalamodikk.common.item.debug;
 
 import com.github.nalamodikk.KoniavacraftMod;
 import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
-import com.github.nalamodikk.common.network.packet.server.manatool.ManaUpdatePacket;
+import com.github.nalamodikk.common.sync.ManaChunkSync;
 import com.github.nalamodikk.register.ModCapabilities;
 import com.mojang.serialization.Codec;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.component.DataComponentType;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
@@ -17,7 +18,6 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.context.UseOnContext;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
-import net.neoforged.neoforge.network.PacketDistributor;
 
 public class ManaDebugToolItem extends Item {
     public static final String TAG_MODE_INDEX = "ModeIndex";
@@ -73,9 +73,10 @@ public class ManaDebugToolItem extends Item {
                         level.scheduleTick(pos, blockEntity.getBlockState().getBlock(), 1);
                     }
 
-                    // ⚠️ 請自行確認 ManaUpdatePacket 是否已改寫為 NeoForge Payload 風格
-                    PacketDistributor.sendToPlayer((ServerPlayer) context.getPlayer(),
-                            new ManaUpdatePacket(pos, manaStorage.getManaStored()));
+                    // 📡 由區塊批次同步送給追蹤此區塊的玩家
+                    if (level instanceof ServerLevel serverLevel) {
+                        ManaChunkSync.get(serverLevel).markDirty(pos, manaStorage.getManaStored());
+                    }
 
                     return InteractionResult.SUCCESS;
                 }
@@ -17,9 +17,9 @@ package com.github.nalamodikk.common.item.tool;
 import com.github.nalamodikk.KoniavacraftMod;
 import com.github.nalamodikk.common.coreapi.block.IConfigurableBlock;
 import com.github.nalamodikk.common.network.packet.server.manatool.ConfigDirectionUpdatePacket;
-import com.github.nalamodikk.common.network.packet.server.manatool.ManaUpdatePacket;
 import com.github.nalamodikk.common.network.packet.server.manatool.TechWandModePacket;
 import com.github.nalamodikk.common.screen.block.shared.UniversalConfigMenu;
+import com.github.nalamodikk.common.sync.ManaChunkSync;
 import com.github.nalamodikk.common.utils.block.BlockSelectorUtils;
 import com.github.nalamodikk.common.utils.capability.CapabilityUtils;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
@@ -185,7 +185,7 @@ public class BasicTechWandItem extends Item {
                         IConfigurableBlock configurableBlock = (IConfigurableBlock) be;
                         var manaStorage = CapabilityUtils.getMana(sp.level(), be.getBlockPos(), null);
                         if (manaStorage != null) {
-                            ManaUpdatePacket.sendManaUpdate(sp, be.getBlockPos(), manaStorage.getManaStored());
+                            ManaChunkSync.get(sp.serverLevel()).markDirty(be.getBlockPos(), manaStorage.getManaStored());
                         }
 
                         sp.openMenu(new MenuProvider() {
@@ -0,0 +1,96 @@
+package com.github.nalamodikk.common.network.packet.client;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
+import com.github.nalamodikk.common.network.packet.server.machine.ManaChunkUpdatePacket;
+import com.github.nalamodikk.common.utils.capability.CapabilityUtils;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * 客戶端套用區塊魔力批次更新
+ *
+ * 每個座標的魔力能力解析一次後緩存（依區塊分組），之後直接寫入；
+ * 方塊實體被移除或換成別的方塊實體時重新解析，區塊 / 世界卸載時整組丟棄。
+ */
+public class ManaChunkUpdatePacketClient {
+
+    private static final Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<CachedHandler>> CACHE = new Long2ObjectOpenHashMap<>();
+    private static ClientLevel cachedLevel = null;
+
+    public static void handle(ManaChunkUpdatePacket packet, IPayloadContext context) {
+        ClientLevel level = Minecraft.getInstance().level;
+        if (level == null || !level.hasChunk(packet.chunkPos().x, packet.chunkPos().z)) return;
+
+        if (level != cachedLevel) {
+            CACHE.clear();
+            cachedLevel = level;
+        }
+
+        Long2ObjectOpenHashMap<CachedHandler> chunkCache = CACHE.get(packet.chunkPos().toLong());
+        if (chunkCache == null) {
+            chunkCache = new Long2ObjectOpenHashMap<>();
+            CACHE.put(packet.chunkPos().toLong(), chunkCache);
+        }
+
+        for (int i = 0; i < packet.size(); i++) {
+            long packedPos = packet.positions()[i];
+            CachedHandler cached = chunkCache.get(packedPos);
+
+            if (cached == null || !cached.isValid(level)) {
+                cached = resolve(level, packedPos);
+                if (cached == null) {
+                    chunkCache.remove(packedPos);
+                    continue;
+                }
+                chunkCache.put(packedPos, cached);
+            }
+            cached.handler().setMana(packet.mana()[i]);
+        }
+    }
+
+    private static CachedHandler resolve(ClientLevel level, long packedPos) {
+        BlockPos pos = BlockPos.of(packedPos);
+        BlockEntity blockEntity = level.getBlockEntity(pos);
+        if (blockEntity == null) return null;
+
+        IUnifiedManaHandler handler = CapabilityUtils.getMana(level, pos, null);
+        return handler != null ? new CachedHandler(blockEntity, handler) : null;
+    }
+
+    private record CachedHandler(BlockEntity blockEntity, IUnifiedManaHandler handler) {
+        boolean isValid(ClientLevel level) {
+            // 同座標被換成新的方塊實體時，舊的會先被標記移除
+            return !blockEntity.isRemoved() && blockEntity.getLevel() == level;
+        }
+    }
+
+    // === 緩存清理 ===
+
+    @EventBusSubscriber(modid = KoniavacraftMod.MOD_ID, value = Dist.CLIENT)
+    public static final class Events {
+        @SubscribeEvent
+        public static void onChunkUnload(ChunkEvent.Unload event) {
+            if (event.getLevel().isClientSide()) {
+                CACHE.remove(event.getChunk().getPos().toLong());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onLevelUnload(LevelEvent.Unload event) {
+            if (event.getLevel().isClientSide()) {
+                CACHE.clear();
+                cachedLevel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.nalamodikk.common.network.packet.client;
+
+import com.github.nalamodikk.common.block.blockentity.mana_generator.ManaGeneratorBlockEntity;
+import com.github.nalamodikk.common.network.packet.server.machine.ManaGeneratorDeltaPacket;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+public class ManaGeneratorDeltaPacketClient {
+    public static void handle(ManaGeneratorDeltaPacket packet, IPayloadContext context) {
+        ClientLevel level = Minecraft.getInstance().level;
+        if (level == null || !level.isLoaded(packet.pos())) return;
+
+        if (level.getBlockEntity(packet.pos()) instanceof ManaGeneratorBlockEntity generator) {
+            generator.getClientSync().apply(generator, packet.mask(), packet.values());
+        }
+    }
+}
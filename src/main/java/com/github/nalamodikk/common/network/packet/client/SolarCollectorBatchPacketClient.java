@@ -0,0 +1,22 @@
+package com.github.nalamodikk.common.network.packet.client;
+
+import com.github.nalamodikk.common.block.blockentity.collector.solarmana.SolarManaCollectorBlockEntity;
+import com.github.nalamodikk.common.network.packet.server.machine.SolarCollectorBatchPacket;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+public class SolarCollectorBatchPacketClient {
+    public static void handle(SolarCollectorBatchPacket packet, IPayloadContext context) {
+        ClientLevel level = Minecraft.getInstance().level;
+        if (level == null || !level.hasChunk(packet.chunkPos().x, packet.chunkPos().z)) return;
+
+        for (int i = 0; i < packet.size(); i++) {
+            BlockPos pos = packet.unpack(i);
+            if (level.getBlockEntity(pos) instanceof SolarManaCollectorBlockEntity collector) {
+                collector.applyClientSync(packet.mana()[i], packet.generating()[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.nalamodikk.common.network.packet.server.machine;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.network.packet.client.ManaChunkUpdatePacketClient;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.ChunkPos;
+import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.neoforge.network.registration.PayloadRegistrar;
+
+/**
+ * 🔮 區塊魔力批次更新封包（伺服器 → 客戶端，取代逐方塊的 ManaUpdatePacket）
+ *
+ * 同一區塊內有變化的魔力儲存合併在一起：座標為 {@code BlockPos.asLong} 打包的 long，魔力值以 VarInt 編碼。
+ */
+public record ManaChunkUpdatePacket(ChunkPos chunkPos, long[] positions, int[] mana) implements CustomPacketPayload {
+
+    public static final Type<ManaChunkUpdatePacket> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(KoniavacraftMod.MOD_ID, "mana_chunk_update"));
+
+    public static final StreamCodec<FriendlyByteBuf, ManaChunkUpdatePacket> STREAM_CODEC =
+            StreamCodec.of(ManaChunkUpdatePacket::encode, ManaChunkUpdatePacket::decode);
+
+    private static void encode(FriendlyByteBuf buf, ManaChunkUpdatePacket packet) {
+        buf.writeChunkPos(packet.chunkPos);
+        buf.writeVarInt(packet.positions.length);
+        for (int i = 0; i < packet.positions.length; i++) {
+            buf.writeLong(packet.positions[i]);
+            buf.writeVarInt(packet.mana[i]);
+        }
+    }
+
+    private static ManaChunkUpdatePacket decode(FriendlyByteBuf buf) {
+        ChunkPos chunkPos = buf.readChunkPos();
+        int count = buf.readVarInt();
+        long[] positions = new long[count];
+        int[] mana = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = buf.readLong();
+            mana[i] = buf.readVarInt();
+        }
+        return new ManaChunkUpdatePacket(chunkPos, positions, mana);
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void registerToClient(PayloadRegistrar registrar) {
+        // 不直接用 method reference，避免伺服器端載入 client 類別
+        registrar.playToClient(TYPE, STREAM_CODEC,
+                (packet, context) -> context.enqueueWork(() -> {
+                    if (FMLEnvironment.dist.isClient()) {
+                        ManaChunkUpdatePacketClient.handle(packet, context);
+                    }
+                })
+        );
+    }
+
+    public static void registerToServer(PayloadRegistrar registrar) {
+        registrar.playToClient(TYPE, STREAM_CODEC, (packet, context) -> {});
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.nalamodikk.common.network.packet.server.machine;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.network.packet.client.ManaGeneratorDeltaPacketClient;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.neoforge.network.registration.PayloadRegistrar;
+
+/**
+ * 📡 魔力發電機差量同步封包（伺服器 → 客戶端）
+ *
+ * 只帶有變化的欄位：mask 的第 n 位對應
+ * {@link com.github.nalamodikk.common.block.blockentity.mana_generator.sync.ManaGeneratorClientSync.Field} 的第 n 項，
+ * values 依位元順序排列，長度等於 mask 的位元數。
+ */
+public record ManaGeneratorDeltaPacket(BlockPos pos, int mask, int[] values) implements CustomPacketPayload {
+
+    public static final Type<ManaGeneratorDeltaPacket> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(KoniavacraftMod.MOD_ID, "mana_generator_delta"));
+
+    public static final StreamCodec<FriendlyByteBuf, ManaGeneratorDeltaPacket> STREAM_CODEC =
+            StreamCodec.of(ManaGeneratorDeltaPacket::encode, ManaGeneratorDeltaPacket::decode);
+
+    private static void encode(FriendlyByteBuf buf, ManaGeneratorDeltaPacket packet) {
+        buf.writeBlockPos(packet.pos);
+        buf.writeVarInt(packet.mask);
+        for (int value : packet.values) {
+            buf.writeVarInt(value);
+        }
+    }
+
+    private static ManaGeneratorDeltaPacket decode(FriendlyByteBuf buf) {
+        BlockPos pos = buf.readBlockPos();
+        int mask = buf.readVarInt();
+        int[] values = new int[Integer.bitCount(mask)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buf.readVarInt();
+        }
+        return new ManaGeneratorDeltaPacket(pos, mask, values);
+    }
+
+    /**
+     * 估算編碼後大小（用於流量預算）：座標 8 + 遮罩 1 + 每個值最多 5 位元組
+     */
+    public int estimatedSize() {
+        return 9 + values.length * 5;
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void registerToClient(PayloadRegistrar registrar) {
+        // 不直接用 method reference，避免伺服器端載入 client 類別
+        registrar.playToClient(TYPE, STREAM_CODEC,
+                (packet, context) -> context.enqueueWork(() -> {
+                    if (FMLEnvironment.dist.isClient()) {
+                        ManaGeneratorDeltaPacketClient.handle(packet, context);
+                    }
+                })
+        );
+    }
+
+    public static void registerToServer(PayloadRegistrar registrar) {
+        registrar.playToClient(TYPE, STREAM_CODEC, (packet, context) -> {});
+    }
+}
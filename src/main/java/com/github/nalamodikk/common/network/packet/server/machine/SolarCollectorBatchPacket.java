@@ -0,0 +1,102 @@
+package com.github.nalamodikk.common.network.packet.server.machine;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.network.packet.client.SolarCollectorBatchPacketClient;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.ChunkPos;
+import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.neoforge.network.registration.PayloadRegistrar;
+
+import java.util.Arrays;
+
+/**
+ * 🌞 太陽能收集器區塊批次同步封包（伺服器 → 客戶端）
+ *
+ * 同一區塊內有變化的收集器合併在一起：座標以區塊內相對位置打包成一個 int（y << 8 | x << 4 | z），
+ * 每筆再帶魔力值與是否發電中。
+ */
+public record SolarCollectorBatchPacket(ChunkPos chunkPos, int[] localPositions, int[] mana, boolean[] generating)
+        implements CustomPacketPayload {
+
+    public static final Type<SolarCollectorBatchPacket> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(KoniavacraftMod.MOD_ID, "solar_collector_batch"));
+
+    public static final StreamCodec<FriendlyByteBuf, SolarCollectorBatchPacket> STREAM_CODEC =
+            StreamCodec.of(SolarCollectorBatchPacket::encode, SolarCollectorBatchPacket::decode);
+
+    /**
+     * 由伺服器端緩衝建立封包（只取前 count 筆）
+     */
+    public static SolarCollectorBatchPacket of(ChunkPos chunkPos, int count, int[] localPositions, int[] mana, boolean[] generating) {
+        return new SolarCollectorBatchPacket(chunkPos,
+                Arrays.copyOf(localPositions, count),
+                Arrays.copyOf(mana, count),
+                Arrays.copyOf(generating, count));
+    }
+
+    private static void encode(FriendlyByteBuf buf, SolarCollectorBatchPacket packet) {
+        buf.writeChunkPos(packet.chunkPos);
+        buf.writeVarInt(packet.localPositions.length);
+        for (int i = 0; i < packet.localPositions.length; i++) {
+            buf.writeInt(packet.localPositions[i]);
+            buf.writeVarInt(packet.mana[i]);
+            buf.writeBoolean(packet.generating[i]);
+        }
+    }
+
+    private static SolarCollectorBatchPacket decode(FriendlyByteBuf buf) {
+        ChunkPos chunkPos = buf.readChunkPos();
+        int count = buf.readVarInt();
+        int[] localPositions = new int[count];
+        int[] mana = new int[count];
+        boolean[] generating = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            localPositions[i] = buf.readInt();
+            mana[i] = buf.readVarInt();
+            generating[i] = buf.readBoolean();
+        }
+        return new SolarCollectorBatchPacket(chunkPos, localPositions, mana, generating);
+    }
+
+    // === 區塊內座標打包 ===
+
+    public static int packLocal(BlockPos pos) {
+        return (pos.getY() << 8) | ((pos.getX() & 15) << 4) | (pos.getZ() & 15);
+    }
+
+    public BlockPos unpack(int index) {
+        int packed = localPositions[index];
+        return new BlockPos(
+                chunkPos.getMinBlockX() + ((packed >> 4) & 15),
+                packed >> 8, // 有號右移保留負的 y
+                chunkPos.getMinBlockZ() + (packed & 15));
+    }
+
+    public int size() {
+        return localPositions.length;
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void registerToClient(PayloadRegistrar registrar) {
+        // 不直接用 method reference，避免伺服器端載入 client 類別
+        registrar.playToClient(TYPE, STREAM_CODEC,
+                (packet, context) -> context.enqueueWork(() -> {
+                    if (FMLEnvironment.dist.isClient()) {
+                        SolarCollectorBatchPacketClient.handle(packet, context);
+                    }
+                })
+        );
+    }
+
+    public static void registerToServer(PayloadRegistrar registrar) {
+        registrar.playToClient(TYPE, STREAM_CODEC, (packet, context) -> {});
+    }
+}
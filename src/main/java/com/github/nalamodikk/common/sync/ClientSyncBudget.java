@@ -0,0 +1,42 @@
+package com.github.nalamodikk.common.sync;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.UUID;
+
+/**
+ * 📶 每位玩家每 tick 的方塊實體同步流量預算
+ *
+ * 機器的差量同步在送出前先向這裡申請位元組數；超出預算的玩家本 tick 跳過，
+ * 由呼叫端保留待送欄位，下次再送。計數在伺服器 tick 改變時整批歸零，不需要額外清理。
+ */
+public final class ClientSyncBudget {
+
+    // 每位玩家每 tick 最多送出的機器同步位元組（約 40 台發電機的完整差量）
+    public static final int BYTES_PER_PLAYER_PER_TICK = 2048;
+
+    private static final Object2IntOpenHashMap<UUID> USED_BYTES = new Object2IntOpenHashMap<>();
+    private static int currentTick = Integer.MIN_VALUE;
+
+    private ClientSyncBudget() {}
+
+    /**
+     * 嘗試為玩家預留 bytes 位元組；成功時計入本 tick 用量
+     */
+    public static synchronized boolean tryConsume(ServerPlayer player, int bytes) {
+        int tick = player.server.getTickCount();
+        if (tick != currentTick) {
+            currentTick = tick;
+            USED_BYTES.clear();
+        }
+
+        UUID id = player.getUUID();
+        int used = USED_BYTES.getInt(id);
+        if (used + bytes > BYTES_PER_PLAYER_PER_TICK) {
+            return false;
+        }
+        USED_BYTES.put(id, used + bytes);
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.nalamodikk.common.sync;
+
+import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.network.packet.server.machine.ManaChunkUpdatePacket;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 🔮 魔力值的區塊批次同步（每個維度一份）
+ *
+ * - 呼叫端只記下「這個座標現在的魔力」，同一座標在週期內多次變化只保留最後一次
+ * - 每 {@link #FLUSH_INTERVAL} tick 每個區塊合併成一個 {@link ManaChunkUpdatePacket}，送給追蹤該區塊的玩家
+ */
+@EventBusSubscriber(modid = KoniavacraftMod.MOD_ID)
+public class ManaChunkSync {
+
+    private static final Map<ResourceKey<Level>, ManaChunkSync> SYNCS = new HashMap<>();
+    private static final int FLUSH_INTERVAL = 10; // 半秒合併送出一次
+
+    private final ServerLevel level;
+    // 區塊 → 座標 → 最新魔力值
+    private final Long2ObjectOpenHashMap<Long2IntOpenHashMap> pendingByChunk = new Long2ObjectOpenHashMap<>();
+
+    private ManaChunkSync(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static ManaChunkSync get(ServerLevel level) {
+        ManaChunkSync sync = SYNCS.get(level.dimension());
+        if (sync == null || sync.level != level) {
+            sync = new ManaChunkSync(level);
+            SYNCS.put(level.dimension(), sync);
+        }
+        return sync;
+    }
+
+    // === 標記 ===
+
+    /**
+     * 記下座標目前的魔力，等下次批次送出
+     */
+    public void markDirty(BlockPos pos, int mana) {
+        long chunkKey = ChunkPos.asLong(pos);
+        Long2IntOpenHashMap values = pendingByChunk.get(chunkKey);
+        if (values == null) {
+            values = new Long2IntOpenHashMap();
+            pendingByChunk.put(chunkKey, values);
+        }
+        values.put(pos.asLong(), mana);
+    }
+
+    // === 批次送出 ===
+
+    private void tick() {
+        if (pendingByChunk.isEmpty() || level.getGameTime() % FLUSH_INTERVAL != 0) return;
+
+        ObjectIterator<Long2ObjectOpenHashMap.Entry<Long2IntOpenHashMap>> it = pendingByChunk.long2ObjectEntrySet().fastIterator();
+        while (it.hasNext()) {
+            Long2ObjectOpenHashMap.Entry<Long2IntOpenHashMap> entry = it.next();
+            flushChunk(new ChunkPos(entry.getLongKey()), entry.getValue());
+        }
+        pendingByChunk.clear();
+    }
+
+    private void flushChunk(ChunkPos chunkPos, Long2IntOpenHashMap values) {
+        if (!level.hasChunk(chunkPos.x, chunkPos.z)) return;
+
+        int size = values.size();
+        long[] positions = new long[size];
+        int[] mana = new int[size];
+        int count = 0;
+
+        ObjectIterator<Long2IntMap.Entry> iterator = values.long2IntEntrySet().fastIterator();
+        while (iterator.hasNext()) {
+            Long2IntMap.Entry entry = iterator.next();
+            positions[count] = entry.getLongKey();
+            mana[count] = entry.getIntValue();
+            count++;
+        }
+
+        PacketDistributor.sendToPlayersTrackingChunk(level, chunkPos, new ManaChunkUpdatePacket(chunkPos, positions, mana));
+    }
+
+    // === 事件 ===
+
+    @SubscribeEvent
+    public static void onLevelTick(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        ManaChunkSync sync = SYNCS.get(serverLevel.dimension());
+        if (sync != null && sync.level == serverLevel) {
+            sync.tick();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            SYNCS.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        SYNCS.clear();
+    }
+}
@@ -12,6 +12,7 @@ import net.neoforged.neoforge.energy.IEnergyStorage;
 import net.neoforged.neoforge.items.IItemHandler;
 
 import java.util.*;
+import java.util.function.Function;
 
 public class IOHandlerUtils {
 
@@ -40,6 +41,30 @@ public class IOHandlerUtils {
 
     public static void extractManaFromNeighbors(Level level, BlockPos pos, IUnifiedManaHandler selfStorage, EnumMap<Direction, IOType> config, int maxExtractPerTick) {
         if (level.isClientSide) return; // 🛑 客戶端不執行
+        extractManaFromNeighbors(selfStorage, config, maxExtractPerTick,
+                dir -> level.getBlockEntity(pos.relative(dir)),
+                dir -> CapabilityUtils.getNeighborMana(level, pos.relative(dir), dir),
+                () -> {
+                    if (level.getBlockEntity(pos) instanceof BlockEntity be) {
+                        be.setChanged(); // 標記更新
+                    }
+                });
+    }
+
+    /**
+     * 🔗 使用鄰居能力緩存的版本：穩定狀態下不再查詢 capability / 方塊實體
+     */
+    public static void extractManaFromNeighbors(NeighborCapabilityCache neighbors, IUnifiedManaHandler selfStorage, EnumMap<Direction, IOType> config, int maxExtractPerTick) {
+        BlockEntity owner = neighbors.getOwner();
+        if (owner.getLevel() == null || owner.getLevel().isClientSide) return; // 🛑 客戶端不執行
+        extractManaFromNeighbors(selfStorage, config, maxExtractPerTick,
+                neighbors::getNeighbor, neighbors::getMana, owner::setChanged);
+    }
+
+    private static void extractManaFromNeighbors(IUnifiedManaHandler selfStorage, EnumMap<Direction, IOType> config, int maxExtractPerTick,
+                                                 Function<Direction, BlockEntity> neighborLookup,
+                                                 Function<Direction, IUnifiedManaHandler> manaLookup,
+                                                 Runnable onChanged) {
         if (selfStorage == null || selfStorage.getManaStored() >= selfStorage.getMaxManaStored()) return; // 🛑 滿了或異常
 
         long remainingCapacity = selfStorage.getMaxManaStored() - selfStorage.getManaStored();
@@ -53,10 +78,9 @@ public class IOHandlerUtils {
         List<Neighbor> neighbors = new ArrayList<>();
 
         for (Direction dir : inputs) {
-            BlockPos neighborPos = pos.relative(dir);
             Direction neighborFacing = dir.getOpposite();
 
-            BlockEntity neighborEntity = level.getBlockEntity(neighborPos);
+            BlockEntity neighborEntity = neighborLookup.apply(dir);
             if (neighborEntity == null) continue;
 
             if (neighborEntity instanceof IConfigurableBlock configurable) {
@@ -64,7 +88,7 @@ public class IOHandlerUtils {
                 if (neighborSetting != IOType.OUTPUT && neighborSetting != IOType.BOTH) continue;
             }
 
-            IUnifiedManaHandler neighborStorage = CapabilityUtils.getNeighborMana(level, neighborPos, dir);
+            IUnifiedManaHandler neighborStorage = manaLookup.apply(dir);
             if (neighborStorage == null || neighborStorage.getManaStored() <= 0) continue;
 
             neighbors.add(new Neighbor(dir, neighborStorage));
@@ -74,7 +98,6 @@ public class IOHandlerUtils {
         neighbors.sort(Comparator.comparingLong(n -> -n.handler().getManaStored()));
 
         for (Neighbor entry : neighbors) {
-            Direction dir = entry.direction();
             IUnifiedManaHandler neighbor = entry.handler();
 
             // 🧪 預先模擬最大可抽取量（這裡寫死為 50，可調整）
@@ -89,8 +112,8 @@ public class IOHandlerUtils {
             long extracted = neighbor.extractMana((int) simulatedInsert, ManaAction.get(false));
             long inserted = selfStorage.receiveMana((int) extracted, ManaAction.get(false));
 
-            if (inserted > 0 && level.getBlockEntity(pos) instanceof BlockEntity be) {
-                be.setChanged(); // 標記更新
+            if (inserted > 0) {
+                onChanged.run();
             }
 
             // 🔁 更新剩餘容量，若已滿就停止
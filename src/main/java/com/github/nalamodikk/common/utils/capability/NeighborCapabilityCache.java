@@ -0,0 +1,162 @@
+package com.github.nalamodikk.common.utils.capability;
+
+import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
+import com.github.nalamodikk.register.ModCapabilities;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.neoforged.neoforge.capabilities.BlockCapability;
+import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
+import net.neoforged.neoforge.capabilities.Capabilities;
+import net.neoforged.neoforge.energy.IEnergyStorage;
+import net.neoforged.neoforge.items.IItemHandler;
+
+import javax.annotation.Nullable;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 🔗 鄰居能力緩存（魔力 / 能量 / 物品）
+ *
+ * 每個方向懶加載一個 {@link BlockCapabilityCache}，由 NeoForge 的失效監聽器通知更新，
+ * 穩定狀態下每次查詢都不需要再呼叫 level.getCapability / level.getBlockEntity。
+ *
+ * <p><b>使用方式：</b>
+ * <ul>
+ *   <li>方塊實體持有一個實例：{@code new NeighborCapabilityCache(this, this::onNeighborInvalidated)}</li>
+ *   <li>以「本方塊朝向鄰居的方向」查詢，方向會自動轉為鄰居的對應面</li>
+ *   <li>客戶端世界沒有緩存，退回 {@link CapabilityUtils} 的直接查詢</li>
+ * </ul>
+ */
+public class NeighborCapabilityCache {
+
+    private final BlockEntity owner;
+    private final Runnable onInvalidated;
+
+    private final EnumMap<Direction, BlockCapabilityCache<IUnifiedManaHandler, Direction>> manaCaches = new EnumMap<>(Direction.class);
+    private final EnumMap<Direction, BlockCapabilityCache<IEnergyStorage, Direction>> energyCaches = new EnumMap<>(Direction.class);
+    private final EnumMap<Direction, BlockCapabilityCache<IItemHandler, Direction>> itemCaches = new EnumMap<>(Direction.class);
+
+    // 鄰居方塊實體（隨能力失效一起重新解析）
+    private final EnumMap<Direction, BlockEntity> neighbors = new EnumMap<>(Direction.class);
+    private final Set<Direction> resolvedNeighbors = EnumSet.noneOf(Direction.class);
+
+    public NeighborCapabilityCache(BlockEntity owner) {
+        this(owner, () -> {});
+    }
+
+    /**
+     * @param owner         持有緩存的方塊實體
+     * @param onInvalidated 任一方向的鄰居能力失效時回調（在失效當下呼叫，只應做標記）
+     */
+    public NeighborCapabilityCache(BlockEntity owner, Runnable onInvalidated) {
+        this.owner = owner;
+        this.onInvalidated = onInvalidated;
+    }
+
+    public BlockEntity getOwner() {
+        return owner;
+    }
+
+    // === 能力查詢 ===
+
+    @Nullable
+    public IUnifiedManaHandler getMana(Direction direction) {
+        if (!(owner.getLevel() instanceof ServerLevel serverLevel)) {
+            Level level = owner.getLevel();
+            return level != null ? CapabilityUtils.getNeighborMana(level, owner.getBlockPos().relative(direction), direction) : null;
+        }
+        // 熱路徑（每 tick 輸出）先直接查表，避免建立捕獲 lambda
+        BlockCapabilityCache<IUnifiedManaHandler, Direction> cache = manaCaches.get(direction);
+        if (cache == null) {
+            cache = create(ModCapabilities.MANA, serverLevel, direction);
+            manaCaches.put(direction, cache);
+        }
+        return cache.getCapability();
+    }
+
+    @Nullable
+    public IEnergyStorage getEnergy(Direction direction) {
+        if (!(owner.getLevel() instanceof ServerLevel serverLevel)) {
+            Level level = owner.getLevel();
+            return level != null ? CapabilityUtils.getNeighborEnergy(level, owner.getBlockPos().relative(direction), direction) : null;
+        }
+        BlockCapabilityCache<IEnergyStorage, Direction> cache = energyCaches.get(direction);
+        if (cache == null) {
+            cache = create(Capabilities.EnergyStorage.BLOCK, serverLevel, direction);
+            energyCaches.put(direction, cache);
+        }
+        return cache.getCapability();
+    }
+
+    @Nullable
+    public IItemHandler getItemHandler(Direction direction) {
+        if (!(owner.getLevel() instanceof ServerLevel serverLevel)) {
+            Level level = owner.getLevel();
+            return level != null ? CapabilityUtils.getNeighborItemHandler(level, owner.getBlockPos().relative(direction), direction) : null;
+        }
+        return itemCaches.computeIfAbsent(direction, dir -> create(Capabilities.ItemHandler.BLOCK, serverLevel, dir)).getCapability();
+    }
+
+    /**
+     * 獲取鄰居方塊實體（未載入的區塊返回 null，不會觸發區塊載入）
+     */
+    @Nullable
+    public BlockEntity getNeighbor(Direction direction) {
+        Level level = owner.getLevel();
+        if (level == null) return null;
+
+        BlockPos neighborPos = owner.getBlockPos().relative(direction);
+        if (!(level instanceof ServerLevel serverLevel)) {
+            return level.getBlockEntity(neighborPos);
+        }
+
+        // 確保這個方向有監聽器，鄰居變化時才會收到失效通知
+        manaCaches.computeIfAbsent(direction, dir -> create(ModCapabilities.MANA, serverLevel, dir));
+
+        BlockEntity cached = neighbors.get(direction);
+        if (resolvedNeighbors.contains(direction) && (cached == null || !cached.isRemoved())) {
+            return cached;
+        }
+
+        if (!level.isLoaded(neighborPos)) return null;
+
+        BlockEntity neighbor = level.getBlockEntity(neighborPos);
+        neighbors.put(direction, neighbor);
+        resolvedNeighbors.add(direction);
+        return neighbor;
+    }
+
+    // === 生命週期 ===
+
+    /**
+     * 丟棄所有緩存（方塊實體移除或世界變更時呼叫）
+     */
+    public void clear() {
+        manaCaches.clear();
+        energyCaches.clear();
+        itemCaches.clear();
+        neighbors.clear();
+        resolvedNeighbors.clear();
+    }
+
+    private <T> BlockCapabilityCache<T, Direction> create(BlockCapability<T, Direction> capability, ServerLevel level, Direction direction) {
+        return BlockCapabilityCache.create(
+                capability,
+                level,
+                owner.getBlockPos().relative(direction),
+                direction.getOpposite(),
+                () -> !owner.isRemoved(),
+                () -> onNeighborInvalidated(direction)
+        );
+    }
+
+    private void onNeighborInvalidated(Direction direction) {
+        resolvedNeighbors.remove(direction);
+        neighbors.remove(direction);
+        onInvalidated.run();
+    }
+}
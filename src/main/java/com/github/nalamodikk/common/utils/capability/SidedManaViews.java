@@ -0,0 +1,47 @@
+package com.github.nalamodikk.common.utils.capability;
+
+import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
+import net.minecraft.core.Direction;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 🔗 機器各面的魔力能力視圖（每台機器一份，六個方向各一個）
+ *
+ * 同一面的 IO 類型沒變時永遠回傳同一個實例，BlockCapabilityCache 與導管端點的 identity 比對才會穩定；
+ * 只有該面的 IO 類型改變時才重建（呼叫端負責同時 invalidateCapabilities）。
+ */
+public final class SidedManaViews {
+
+    private final IUnifiedManaHandler storage;
+    private final IUnifiedManaHandler[] views = new IUnifiedManaHandler[6];
+    private final IOHandlerUtils.IOType[] builtFor = new IOHandlerUtils.IOType[6];
+
+    public SidedManaViews(IUnifiedManaHandler storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * 取得某一面的視圖
+     *
+     * @param type 該面目前的 IO 類型
+     * @return DISABLED 時為 null；BOTH 時為原始儲存；INPUT / OUTPUT 時為受限視圖
+     */
+    @Nullable
+    public IUnifiedManaHandler get(Direction side, IOHandlerUtils.IOType type) {
+        int index = side.get3DDataValue();
+        if (builtFor[index] != type) {
+            views[index] = create(type);
+            builtFor[index] = type;
+        }
+        return views[index];
+    }
+
+    private IUnifiedManaHandler create(IOHandlerUtils.IOType type) {
+        return switch (type) {
+            case DISABLED -> null; // 禁用面不提供能力
+            case INPUT -> new RestrictedManaHandler(storage, true, false); // 只能接收
+            case OUTPUT -> new RestrictedManaHandler(storage, false, true); // 只能被抽取
+            case BOTH -> storage; // 完整功能
+        };
+    }
+}
@@ -18,11 +18,6 @@ import java.util.*;
  */
 public class FuelRegistryHelper {
 
-    /**
-     * 用於快取已查詢過的燃料倍率，減少重複查詢。
-     */
-    private static final Map<Item, ManaGenFuelRateLoader.FuelRate> FUEL_RATE_CACHE = new WeakHashMap<>();
-
     /**
      * 檢查一個物品是否為 Minecraft 內建的可燃燒燃料。
      */
@@ -68,16 +63,11 @@ public class FuelRegistryHelper {
     }
 
     /**
-     * 取得指定 Item 的 FuelRate（優先使用快取）。
+     * 取得指定 Item 的 FuelRate（由 ManaGenFuelRateLoader 的索引提供，重載後自動更新）。
      * 若找不到，將根據內建燃燒時間給予預設倍率。
      */
     public static ManaGenFuelRateLoader.FuelRate getFuelRateFor(@NotNull Item item) {
-        ManaGenFuelRateLoader.FuelRate rate = FUEL_RATE_CACHE.computeIfAbsent(item,
-                it -> ManaGenFuelRateLoader.getFuelRateForItem(
-                        ResourceLocation.fromNamespaceAndPath(
-                                it.builtInRegistryHolder().key().location().getNamespace(),
-                                it.builtInRegistryHolder().key().location().getPath()
-                        )));
+        ManaGenFuelRateLoader.FuelRate rate = ManaGenFuelRateLoader.getFuelRateForItem(item);
 
         if (KoniavacraftMod.IS_DEV && !hasCustomFuelRate(item)) {
             KoniavacraftMod.LOGGER.debug("⚠️ 未定義燃料倍率: {}", item);
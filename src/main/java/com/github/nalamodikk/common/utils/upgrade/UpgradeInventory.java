@@ -17,24 +17,63 @@ import org.jetbrains.annotations.UnknownNullability;
 public class UpgradeInventory implements Container , INBTSerializable<CompoundTag> {
     private final NonNullList<ItemStack> slots;
     private final int maxSlots;
+    // 內容變更計數，讓使用升級效果的快取知道要重算
+    private int version = 0;
+
+    // === 📊 增量統計（槽位變更時更新，查詢為 O(1)）===
+    private static final UpgradeType[] TYPES = UpgradeType.values();
+    private final UpgradeType[] slotTypes;                 // 各槽位目前計入的升級類型（null = 非升級 / 空）
+    private final int[] counts = new int[TYPES.length];    // 依 UpgradeType.ordinal() 的槽位數
+    private int occupiedSlots = 0;                         // 非空槽位數
+    private final boolean[] slotOccupied;
+
+    // === 📈 編譯後的升級效果 ===
+    private final UpgradeModifiers.Compiler compiler;
+    private UpgradeModifiers modifiers = UpgradeModifiers.NONE;
+    private int modifiersVersion = -1;
 
     public UpgradeInventory(int size) {
+        this(size, UpgradeModifiers::standard);
+    }
+
+    public UpgradeInventory(int size, UpgradeModifiers.Compiler compiler) {
         this.maxSlots = size;
         this.slots = NonNullList.withSize(size, ItemStack.EMPTY);
+        this.slotTypes = new UpgradeType[size];
+        this.slotOccupied = new boolean[size];
+        this.compiler = compiler;
     }
 
     public int getUpgradeCount(UpgradeType type) {
-        return (int) slots.stream()
-                .filter(stack -> stack.getItem() instanceof UpgradeItem upgrade && upgrade.getUpgradeType() == type)
-                .count();
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * 📈 目前升級內容編譯後的效果；內容沒變時回傳同一個實例
+     */
+    public UpgradeModifiers getModifiers() {
+        if (modifiersVersion != version) {
+            modifiers = compiler.compile(this);
+            modifiersVersion = version;
+        }
+        return modifiers;
     }
 
     public void setItem(int index, ItemStack stack) {
         if (index >= 0 && index < maxSlots) {
             slots.set(index, stack);
+            updateSlot(index);
+            version++;
         }
     }
 
+    /**
+     * 內容每次變更都會遞增
+     */
+    public int getVersion() {
+        return version;
+    }
+
     public ItemStack getItem(int index) {
         return slots.get(index);
     }
@@ -54,27 +93,40 @@ public class UpgradeInventory implements Container , INBTSerializable<CompoundTa
 
     @Override
     public boolean isEmpty() {
-        return slots.stream().allMatch(ItemStack::isEmpty);
+        return occupiedSlots == 0;
     }
 
 
 
     @Override
     public ItemStack removeItem(int index, int count) {
-        return ContainerHelper.removeItem(slots, index, count);
+        ItemStack removed = ContainerHelper.removeItem(slots, index, count);
+        if (!removed.isEmpty()) {
+            updateSlot(index);
+            version++;
+        }
+        return removed;
     }
 
     @Override
     public ItemStack removeItemNoUpdate(int index) {
         ItemStack stack = slots.get(index);
         slots.set(index, ItemStack.EMPTY);
+        updateSlot(index);
+        version++;
         return stack;
     }
 
 
 
+    /**
+     * 槽位物品可能被直接修改（例如 Slot 對堆疊 shrink 後只呼叫 setChanged），整份重新統計
+     */
     @Override
-    public void setChanged() {}
+    public void setChanged() {
+        recount();
+        version++;
+    }
 
     @Override
     public boolean stillValid(Player player) {
@@ -84,6 +136,8 @@ public class UpgradeInventory implements Container , INBTSerializable<CompoundTa
     @Override
     public void clearContent() {
         slots.clear();
+        recount();
+        version++;
     }
 
     @Override
@@ -104,6 +158,7 @@ public class UpgradeInventory implements Container , INBTSerializable<CompoundTa
     @Override
     public void deserializeNBT(HolderLookup.Provider provider, CompoundTag tag) {
         slots.clear();
+        version++;
         ListTag list = tag.getList("Items", Tag.TAG_COMPOUND);
         for (int i = 0; i < list.size(); ++i) {
             CompoundTag itemTag = list.getCompound(i);
@@ -112,6 +167,32 @@ public class UpgradeInventory implements Container , INBTSerializable<CompoundTa
                 slots.set(slot, ItemStack.parseOptional(provider, itemTag));
             }
         }
+        recount();
+    }
+
+    // === 📊 統計維護 ===
+
+    private void updateSlot(int index) {
+        ItemStack stack = slots.get(index);
+        boolean occupied = !stack.isEmpty();
+        UpgradeType type = occupied && stack.getItem() instanceof UpgradeItem upgrade ? upgrade.getUpgradeType() : null;
+
+        UpgradeType previous = slotTypes[index];
+        if (previous != type) {
+            if (previous != null) counts[previous.ordinal()]--;
+            if (type != null) counts[type.ordinal()]++;
+            slotTypes[index] = type;
+        }
+        if (slotOccupied[index] != occupied) {
+            occupiedSlots += occupied ? 1 : -1;
+            slotOccupied[index] = occupied;
+        }
+    }
+
+    private void recount() {
+        for (int i = 0; i < maxSlots; i++) {
+            updateSlot(i);
+        }
     }
 
 }
@@ -0,0 +1,37 @@
+package com.github.nalamodikk.common.utils.upgrade;
+
+/**
+ * 📈 編譯後的升級效果（不可變，全部為倍數，1 = 無影響）
+ *
+ * 由 {@link UpgradeInventory#getModifiers()} 依內容版本快取，升級內容沒變時每次查詢都是同一個實例；
+ * 各機器透過 {@link Compiler} 決定升級數量如何換算成倍數。
+ *
+ * @param speed      速度倍數（越大越快）
+ * @param output     產出倍數
+ * @param burnTime   燃燒 / 處理時間倍數（越小越快）
+ * @param efficiency 效率倍數（發電類機器為速度 × 產出的總體效率，用於顯示）
+ */
+public record UpgradeModifiers(float speed, float output, float burnTime, float efficiency) {
+
+    public static final UpgradeModifiers NONE = new UpgradeModifiers(1.0f, 1.0f, 1.0f, 1.0f);
+
+    private static final int MAX_STANDARD_MULTIPLIER = 5;
+
+    /**
+     * 🔧 升級數量 → 效果倍數的換算規則（只在升級內容改變時呼叫）
+     */
+    @FunctionalInterface
+    public interface Compiler {
+        UpgradeModifiers compile(UpgradeInventory upgrades);
+    }
+
+    /**
+     * 通用規則：每個 SPEED / EFFICIENCY 升級 +1 倍，最多 5 倍
+     */
+    public static UpgradeModifiers standard(UpgradeInventory upgrades) {
+        int speed = Math.min(1 + upgrades.getUpgradeCount(UpgradeType.SPEED), MAX_STANDARD_MULTIPLIER);
+        int efficiency = Math.min(1 + upgrades.getUpgradeCount(UpgradeType.EFFICIENCY), MAX_STANDARD_MULTIPLIER);
+        if (speed == 1 && efficiency == 1) return NONE;
+        return new UpgradeModifiers(speed, 1.0f, 1.0f / speed, efficiency);
+    }
+}
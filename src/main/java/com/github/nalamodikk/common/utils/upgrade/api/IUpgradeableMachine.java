@@ -1,6 +1,7 @@
 package com.github.nalamodikk.common.utils.upgrade.api;
 
 import com.github.nalamodikk.common.utils.upgrade.UpgradeInventory;
+import com.github.nalamodikk.common.utils.upgrade.UpgradeModifiers;
 import com.github.nalamodikk.common.utils.upgrade.UpgradeType;
 import net.minecraft.world.level.block.entity.BlockEntity;
 
@@ -14,6 +15,13 @@ public interface IUpgradeableMachine {
     default int getEfficiencyMultiplier() {
         return Math.min(1 + getUpgradeInventory().getUpgradeCount(UpgradeType.EFFICIENCY), 5);
     }
+    /**
+     * 📈 編譯後的升級效果（依升級內容版本快取，每 tick 讀取不會重算）
+     */
+    default UpgradeModifiers getUpgradeModifiers() {
+        return getUpgradeInventory().getModifiers();
+    }
+
     default int getUpgradeCount(UpgradeType type) {
         return getUpgradeInventory().getUpgradeCount(type);
     }
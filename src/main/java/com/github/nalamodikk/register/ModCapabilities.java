@@ -4,7 +4,6 @@ import com.github.nalamodikk.KoniavacraftMod;
 import com.github.nalamodikk.common.capability.IUnifiedManaHandler;
 import com.github.nalamodikk.common.coreapi.block.IConfigurableBlock;
 import com.github.nalamodikk.common.utils.capability.IOHandlerUtils;
-import com.github.nalamodikk.common.utils.capability.RestrictedManaHandler;
 import com.mojang.serialization.Codec;
 import net.minecraft.core.Direction;
 import net.minecraft.core.component.DataComponentType;
@@ -51,19 +50,8 @@ public class ModCapabilities {
 
         // 魔力能力 - 根據 IO 配置決定功能
         event.registerBlockEntity(ModCapabilities.MANA, ModBlockEntities.MANA_GENERATOR_BE.get(),
-                (blockEntity, side) -> {
-                    if (side != null && blockEntity instanceof IConfigurableBlock configurable) {
-                        IOHandlerUtils.IOType ioType = configurable.getIOConfig(side);
-
-                        return switch (ioType) {
-                            case DISABLED -> null; // 禁用面不提供能力
-                            case INPUT -> new RestrictedManaHandler(blockEntity.getManaStorage(), true, false); // 只能接收
-                            case OUTPUT -> new RestrictedManaHandler(blockEntity.getManaStorage(), false, true); // 只能被抽取
-                            case BOTH -> blockEntity.getManaStorage(); // 完整功能
-                        };
-                    }
-                    return blockEntity.getManaStorage(); // 默認完整功能
-                });
+                // 🔗 每面的視圖由機器持有，IO 不變時是同一個實例（能力緩存與導管端點比對才穩定）
+                (blockEntity, side) -> blockEntity.getManaView(side));
 
         // 物品能力 - 根據 IO 配置決定功能
         event.registerBlockEntity(Capabilities.ItemHandler.BLOCK, ModBlockEntities.MANA_GENERATOR_BE.get(),
@@ -101,19 +89,8 @@ public class ModCapabilities {
         // 🆕 魔力注入機能力註冊
         // 魔力能力 - 根據 IO 配置決定功能
         event.registerBlockEntity(ModCapabilities.MANA, ModBlockEntities.MANA_INFUSER.get(),
-                (blockEntity, side) -> {
-                    if (side != null && blockEntity instanceof IConfigurableBlock configurable) {
-                        IOHandlerUtils.IOType ioType = configurable.getIOConfig(side);
-
-                        return switch (ioType) {
-                            case DISABLED -> null; // 禁用面不提供能力
-                            case INPUT -> new RestrictedManaHandler(blockEntity.getManaStorage(), true, false); // 只能接收
-                            case OUTPUT -> new RestrictedManaHandler(blockEntity.getManaStorage(), false, true); // 只能被抽取
-                            case BOTH -> blockEntity.getManaStorage(); // 完整功能
-                        };
-                    }
-                    return blockEntity.getManaStorage(); // 默認完整功能
-                });
+                // 🔗 每面的視圖由機器持有，IO 不變時是同一個實例（能力緩存與導管端點比對才穩定）
+                (blockEntity, side) -> blockEntity.getManaView(side));
 
         // 🆕 物品處理能力 - 根據 IO 配置決定功能
         event.registerBlockEntity(Capabilities.ItemHandler.BLOCK, ModBlockEntities.MANA_INFUSER.get(),
@@ -1,7 +1,9 @@
 package com.github.nalamodikk.register;
 
 import com.github.nalamodikk.KoniavacraftMod;
-import com.github.nalamodikk.common.network.packet.server.manatool.ManaUpdatePacket;
+import com.github.nalamodikk.common.network.packet.server.machine.ManaChunkUpdatePacket;
+import com.github.nalamodikk.common.network.packet.server.machine.ManaGeneratorDeltaPacket;
+import com.github.nalamodikk.common.network.packet.server.machine.SolarCollectorBatchPacket;
 import com.github.nalamodikk.narasystem.nara.network.server.NaraSyncPacket;
 import com.github.nalamodikk.narasystem.nara.network.client.NaraSystemIntroMessagePacket;
 import com.github.nalamodikk.narasystem.nara.network.client.OpenNaraInitScreenPacket;
@@ -17,7 +19,9 @@ public class ModNetworkingClient {
     public static void register(final RegisterPayloadHandlersEvent event) {
         PayloadRegistrar registrar = event.registrar("1");
 
-        ManaUpdatePacket.registerClientOnly(registrar);
+        ManaChunkUpdatePacket.registerToClient(registrar);
+        ManaGeneratorDeltaPacket.registerToClient(registrar);
+        SolarCollectorBatchPacket.registerToClient(registrar);
         // 打開玩家第一次登入的GUI
         OpenNaraInitScreenPacket.registerToClient(registrar);
         NaraSystemIntroMessagePacket.registerToClient(registrar);
@@ -1,6 +1,9 @@
 package com.github.nalamodikk.register;
 
 import com.github.nalamodikk.KoniavacraftMod;
+import com.github.nalamodikk.common.network.packet.server.machine.ManaChunkUpdatePacket;
+import com.github.nalamodikk.common.network.packet.server.machine.ManaGeneratorDeltaPacket;
+import com.github.nalamodikk.common.network.packet.server.machine.SolarCollectorBatchPacket;
 import com.github.nalamodikk.common.network.packet.server.manatool.*;
 import com.github.nalamodikk.narasystem.nara.network.client.NaraSystemIntroMessagePacket;
 import com.github.nalamodikk.narasystem.nara.network.client.OpenNaraInitScreenPacket;
@@ -18,7 +21,9 @@ public class ModNetworkingServer {
     public static void register(RegisterPayloadHandlersEvent event) {
         var registrar = event.registrar("1");
 
-        ManaUpdatePacket.registerToServer(registrar);
+        ManaChunkUpdatePacket.registerToServer(registrar);
+        ManaGeneratorDeltaPacket.registerToServer(registrar);
+        SolarCollectorBatchPacket.registerToServer(registrar);
         NaraSystemIntroMessagePacket.registerToServer(registrar);
         NaraSyncPacket.registerToServer(registrar);
         OpenNaraInitScreenPacket.registerToServer(registrar);